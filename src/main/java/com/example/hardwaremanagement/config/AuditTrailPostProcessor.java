@@ -0,0 +1,87 @@
+package com.example.hardwaremanagement.config;
+
+import com.example.hardwaremanagement.service.AuditTrailAppender;
+import com.example.hardwaremanagement.service.Audited;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * Proxies beans with {@link Audited} methods so every successful call is handed to the
+ * {@link AuditTrailAppender}. The appender is looked up on first use rather than injected,
+ * so this post-processor does not force Mongo beans to be created before post-processing.
+ */
+@Component
+public class AuditTrailPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private BeanFactory beanFactory;
+    private volatile AuditTrailAppender appender;
+
+    public AuditTrailPostProcessor() {
+        setProxyTargetClass(true);
+        this.advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(Audited.class),
+                (MethodInterceptor) this::invoke);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        this.beanFactory = beanFactory;
+    }
+
+    private Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        Audited audited = invocation.getMethod().getAnnotation(Audited.class);
+        if (audited != null) {
+            String target = firstStringArgument(invocation.getArguments());
+            appender().append(audited.value(), target != null ? target : idOf(result));
+        }
+        return result;
+    }
+
+    private AuditTrailAppender appender() {
+        AuditTrailAppender current = appender;
+        if (current == null) {
+            current = beanFactory.getBean(AuditTrailAppender.class);
+            appender = current;
+        }
+        return current;
+    }
+
+    private static String firstStringArgument(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof String value) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Id of the returned entity or DTO, for methods (usually creates) without a String argument
+     */
+    private static String idOf(Object result) {
+        if (result instanceof Optional<?> optional) {
+            result = optional.orElse(null);
+        }
+        if (result == null) {
+            return null;
+        }
+        Method getId = ReflectionUtils.findMethod(result.getClass(), "getId");
+        if (getId == null) {
+            return null;
+        }
+        Object id = ReflectionUtils.invokeMethod(getId, result);
+        return id != null ? id.toString() : null;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.hardwaremanagement.controller;
 
 import com.example.hardwaremanagement.model.User;
 import com.example.hardwaremanagement.repository.UserRepository;
+import com.example.hardwaremanagement.service.DataRetentionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +15,9 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DataRetentionService dataRetentionService;
+
 
     @GetMapping("/users")
     public List<User> getAllUsers() {
@@ -40,4 +44,12 @@ public class AdminController {
 
         return response;
     }
+
+    /**
+     * Run the retention sweep now instead of waiting for the nightly schedule
+     */
+    @PostMapping("/retention/run")
+    public Map<String, Object> runRetention() {
+        return dataRetentionService.applyRetention();
+    }
 }
@@ -2,15 +2,20 @@ package com.example.hardwaremanagement.controller;
 
 import com.example.hardwaremanagement.model.AuditLog;
 import com.example.hardwaremanagement.repository.AuditLogRepository;
+import com.example.hardwaremanagement.service.AuditLogService;
+import com.example.hardwaremanagement.service.AuditTrailAppender;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/audit-logs")
@@ -18,9 +23,14 @@ import java.util.stream.Collectors;
 public class AuditLogController {
 
     private final AuditLogRepository repository;
+    private final AuditLogService auditLogService;
+    private final AuditTrailAppender auditTrailAppender;
 
-    public AuditLogController(AuditLogRepository repository) {
+    public AuditLogController(AuditLogRepository repository, AuditLogService auditLogService,
+                              AuditTrailAppender auditTrailAppender) {
         this.repository = repository;
+        this.auditLogService = auditLogService;
+        this.auditTrailAppender = auditTrailAppender;
     }
 
     @GetMapping
@@ -30,7 +40,7 @@ public class AuditLogController {
 
     @PostMapping
     public AuditLog create(@RequestBody AuditLog log) {
-        return repository.save(log);
+        return auditLogService.create(log);
     }
 
     @GetMapping("/{id}")
@@ -42,14 +52,27 @@ public class AuditLogController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body("not found");
     }
 
-    @GetMapping(value = "/export/csv", produces = MediaType.TEXT_PLAIN_VALUE)
-    public String exportCsv() {
-        List<AuditLog> all = repository.findAll();
-    String header = "id,timestamp,performedBy,action\n";
-    String body = all.stream().map(a -> String.format("%s,%s,%s,%s",
-        nullable(a.getId()), nullable(a.getTimestamp()), nullable(a.getPerformedBy()), nullable(a.getAction())))
-        .collect(Collectors.joining("\n"));
-        return header + body;
+    /**
+     * Export audit logs as CSV, streamed from a database cursor (oldest first)
+     * GET /api/audit-logs/export/csv?from=2024-01-01&to=2024-01-31&performedBy=admin&action=LOGIN
+     * All filters are optional; dates are inclusive (format: yyyy-MM-dd)
+     */
+    @GetMapping("/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String performedBy,
+            @RequestParam(required = false) String action) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentDispositionFormData("attachment", "audit-logs.csv");
+
+        StreamingResponseBody body = out -> auditLogService.streamCsv(from, to, performedBy, action, out);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     @GetMapping("/export/pdf")
@@ -60,19 +83,26 @@ public class AuditLogController {
         return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(resp);
     }
 
+    /**
+     * Totals by action and by user
+     * GET /api/audit-logs/stats?from=2024-01-01&to=2024-01-31 (dates optional)
+     */
     @GetMapping("/stats")
-    public Map<String, Object> stats() {
-        List<AuditLog> all = repository.findAll();
-    Map<String, Long> byAction = all.stream().collect(Collectors.groupingBy(AuditLog::getAction, Collectors.counting()));
-    Map<String, Long> byUser = all.stream().collect(Collectors.groupingBy(AuditLog::getPerformedBy, Collectors.counting()));
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("total", all.size());
-        resp.put("byAction", byAction);
-        resp.put("byUser", byUser);
-        return resp;
+    public ResponseEntity<Map<String, Object>> stats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(auditLogService.getStats(from, to));
     }
 
-    private String nullable(Object o) {
-        return o == null ? "" : o.toString().replaceAll("[\r\n,]", " ");
+    /**
+     * Buffer and write counters of the asynchronous audit trail
+     * GET /api/audit-logs/appender
+     */
+    @GetMapping("/appender")
+    public ResponseEntity<Map<String, Object>> appenderStats() {
+        return ResponseEntity.ok(auditTrailAppender.getStats());
     }
 }
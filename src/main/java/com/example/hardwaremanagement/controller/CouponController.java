@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/coupons")
@@ -36,6 +37,18 @@ public class CouponController {
         }
     }
 
+    @PostMapping("/{id}/redeem")
+    public ResponseEntity<?> redeemCoupon(@PathVariable String id, @RequestBody RedeemRequest request) {
+        try {
+            couponService.recordUsage(id, request.customerId, request.orderId, request.discountAmount);
+            return ResponseEntity.ok(Map.of("redeemed", true));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("redeemed", false, "message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("redeemed", false, "message", e.getMessage()));
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> createCoupon(@RequestBody Coupon coupon) {
         try {
@@ -100,4 +113,19 @@ public class CouponController {
         public List<OrderItem> getItems() { return items; }
         public void setItems(List<OrderItem> items) { this.items = items; }
     }
+
+    public static class RedeemRequest {
+        public String customerId;
+        public String orderId;
+        public double discountAmount;
+
+        public String getCustomerId() { return customerId; }
+        public void setCustomerId(String customerId) { this.customerId = customerId; }
+
+        public String getOrderId() { return orderId; }
+        public void setOrderId(String orderId) { this.orderId = orderId; }
+
+        public double getDiscountAmount() { return discountAmount; }
+        public void setDiscountAmount(double discountAmount) { this.discountAmount = discountAmount; }
+    }
 }
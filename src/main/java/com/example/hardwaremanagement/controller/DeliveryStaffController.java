@@ -5,6 +5,7 @@ import com.example.hardwaremanagement.model.OrderItem;
 import com.example.hardwaremanagement.model.OrderStatus;
 import com.example.hardwaremanagement.repository.OrderRepository;
 import com.example.hardwaremanagement.service.EmailNotificationService;
+import com.example.hardwaremanagement.service.ReportsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -37,6 +38,9 @@ public class DeliveryStaffController {
     @Autowired(required = false)
     private EmailNotificationService emailNotificationService;
 
+    @Autowired
+    private ReportsService reportsService;
+
     /**
      * GET /api/delivery-staff/my-orders
      * Fetch orders assigned to the logged-in delivery staff with status READY_TO_DISPATCH
@@ -247,6 +251,7 @@ public class DeliveryStaffController {
             // Update the status
             order.setStatus(newStatus);
             Order updatedOrder = orderRepository.save(order);
+            reportsService.invalidateSummaryCache();
 
             // Send email notification if order is marked as DELIVERED
             if (newStatus == OrderStatus.DELIVERED) {
@@ -325,9 +330,9 @@ public class DeliveryStaffController {
             String subject = "Order Delivered - Order #" + order.getId();
             String htmlBody = buildDeliveryEmailHtml(order);
 
-            // Send email
+            // Queue email (delivered by the outbox workers)
             emailNotificationService.send(customerEmail, subject, htmlBody);
-            System.out.println("Delivery notification sent to " + customerEmail + " for order " + order.getId());
+            System.out.println("Delivery notification queued for " + customerEmail + " for order " + order.getId());
 
         } catch (Exception e) {
             // Log error but don't fail the status update
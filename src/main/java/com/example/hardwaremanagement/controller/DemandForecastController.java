@@ -0,0 +1,73 @@
+package com.example.hardwaremanagement.controller;
+
+import com.example.hardwaremanagement.dto.DemandForecastDTO;
+import com.example.hardwaremanagement.service.DemandForecastService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for demand velocity, reorder points and days of cover
+ */
+@RestController
+@RequestMapping("/api/inventory/demand")
+@CrossOrigin(origins = "http://localhost:5173")
+public class DemandForecastController {
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    /**
+     * Forecasts for all products, lowest days of cover first
+     * GET /api/inventory/demand?belowReorderPoint=true
+     */
+    @GetMapping
+    public ResponseEntity<List<DemandForecastDTO>> getForecasts(
+            @RequestParam(defaultValue = "false") boolean belowReorderPoint) {
+        return ResponseEntity.ok(demandForecastService.getForecasts(belowReorderPoint));
+    }
+
+    /**
+     * Forecast for a single product
+     * GET /api/inventory/demand/{productId}
+     */
+    @GetMapping("/{productId}")
+    public ResponseEntity<?> getForecast(@PathVariable String productId) {
+        return demandForecastService.getForecast(productId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Product not found: " + productId)));
+    }
+
+    /**
+     * Set the supplier and/or an explicit lead time for a product
+     * PUT /api/inventory/demand/{productId}/settings
+     *
+     * Request Body:
+     * {
+     *   "supplierId": "supplier123",
+     *   "leadTimeDays": 10
+     * }
+     */
+    @PutMapping("/{productId}/settings")
+    public ResponseEntity<?> updateSettings(@PathVariable String productId,
+                                            @RequestBody DemandSettingsRequest request) {
+        try {
+            return ResponseEntity.ok(demandForecastService.updateSettings(
+                    productId, request.supplierId, request.leadTimeDays));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    public static class DemandSettingsRequest {
+        public String supplierId;
+        public Integer leadTimeDays;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.hardwaremanagement.controller;
+
+import com.example.hardwaremanagement.dto.ExportJobDTO;
+import com.example.hardwaremanagement.dto.ExportJobRequest;
+import com.example.hardwaremanagement.service.ExportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST Controller for background export jobs
+ * Large PDF/Excel/CSV exports are rendered off the request thread; clients submit a job,
+ * poll it and download the finished file.
+ */
+@RestController
+@RequestMapping("/api/exports/jobs")
+@CrossOrigin(origins = "*")
+public class ExportJobController {
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    /**
+     * Submit an export job
+     * POST /api/exports/jobs
+     *
+     * Request Body:
+     * {
+     *   "type": "SALES_PDF",
+     *   "params": { "startDate": "2024-01-01", "endDate": "2024-12-31" }
+     * }
+     *
+     * @param request The export type and its parameters
+     * @return The queued job (or the existing job for an identical recent request)
+     */
+    @PostMapping
+    public ResponseEntity<?> submitJob(@RequestBody ExportJobRequest request) {
+        try {
+            ExportJobDTO job = exportJobService.submit(request.getType(), request.getParams());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the status of an export job
+     * GET /api/exports/jobs/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id) {
+        return exportJobService.getJob(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Export job not found: " + id)));
+    }
+
+    /**
+     * Download the file produced by a completed export job
+     * GET /api/exports/jobs/{id}/download
+     */
+    @GetMapping("/{id}/download")
+    public ResponseEntity<?> downloadArtifact(@PathVariable String id) {
+        Optional<ExportJobDTO> job = exportJobService.getJob(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(createErrorResponse("Export job not found: " + id));
+        }
+
+        try {
+            Optional<Path> artifact = exportJobService.getArtifact(id);
+            if (artifact.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.GONE)
+                    .body(createErrorResponse("Export file has expired, please submit the job again"));
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType(job.get().getType().getContentType()));
+            headers.setContentDispositionFormData("attachment", job.get().getFileName());
+
+            return new ResponseEntity<>(new FileSystemResource(artifact.get()), headers, HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Export queue metrics
+     * GET /api/exports/jobs/metrics
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(exportJobService.getMetrics());
+    }
+
+    /**
+     * Helper method to create error response
+     */
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return error;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.hardwaremanagement.model.GoodsReceiptNote;
 import com.example.hardwaremanagement.service.GoodsReceiptNoteService;
 import com.example.hardwaremanagement.service.GRNExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -12,12 +13,15 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for GRN (Goods Receipt Note) operations
@@ -230,48 +234,73 @@ public class GoodsReceiptNoteController {
         }
     }
 
+    /**
+     * Export the PDFs of all GRNs received in a date range as a single ZIP archive
+     * GET /api/admin/grn/export/pdf/batch?startDate=2024-01-01&endDate=2024-01-31
+     * Optional query parameters: status, supplierId
+     * PDFs are rendered in parallel on a bounded pool and written to the response as they finish,
+     * so the archive is never fully buffered in memory.
+     * 
+     * @param startDate First received date to include (format: yyyy-MM-dd)
+     * @param endDate Last received date to include (format: yyyy-MM-dd)
+     * @param status Optional filter by status
+     * @param supplierId Optional filter by supplier
+     * @return ZIP file with one PDF per GRN, streamed to the client
+     */
+    @GetMapping("/export/pdf/batch")
+    public ResponseEntity<StreamingResponseBody> exportGRNPdfBatch(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String supplierId) {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try (Stream<GoodsReceiptNote> grns = grnService.streamGRNsReceivedBetween(
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), status, supplierId)) {
+                exportService.writeGRNPdfZip(grns, out);
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment",
+            String.format("GRN_PDFs_%s_to_%s.zip", startDate, endDate));
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
     /**
      * Export multiple GRNs to Excel
      * GET /api/admin/grn/export/excel
      * Optional query parameters: status, supplierId, purchaseOrderId
+     * GRNs are read from a database cursor and the workbook is streamed to the response,
+     * so the export size is not limited by heap.
      * 
      * @param status Optional filter by status
      * @param supplierId Optional filter by supplier
      * @param purchaseOrderId Optional filter by purchase order
-     * @return Excel file as byte array
+     * @return Excel file streamed to the client
      */
     @GetMapping("/export/excel")
-    public ResponseEntity<byte[]> exportGRNsToExcel(
+    public ResponseEntity<StreamingResponseBody> exportGRNsToExcel(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String supplierId,
             @RequestParam(required = false) String purchaseOrderId) {
-        try {
-            List<GoodsReceiptNote> grns;
-
-            // Apply filters
-            if (purchaseOrderId != null) {
-                grns = grnService.getGRNsByPurchaseOrder(purchaseOrderId);
-            } else if (supplierId != null) {
-                grns = grnService.getGRNsBySupplier(supplierId);
-            } else if (status != null) {
-                grns = grnService.getGRNsByStatus(status);
-            } else {
-                grns = grnService.getAllGRNs();
+        StreamingResponseBody body = out -> {
+            try (Stream<GoodsReceiptNote> grns = grnService.streamGRNs(status, supplierId, purchaseOrderId)) {
+                exportService.writeGRNExcel(grns, out);
             }
+        };
 
-            byte[] excelBytes = exportService.generateGRNExcel(grns);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", 
-                "GRN_Report_" + getCurrentTimestamp() + ".xlsx");
-            headers.setContentLength(excelBytes.length);
-
-            return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", 
+            "GRN_Report_" + getCurrentTimestamp() + ".xlsx");
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     /**
@@ -279,27 +308,21 @@ public class GoodsReceiptNoteController {
      * GET /api/admin/grn/{id}/excel
      * 
      * @param id The GRN ID to export
-     * @return Excel file as byte array
+     * @return Excel file streamed to the client
      */
     @GetMapping("/{id}/excel")
-    public ResponseEntity<byte[]> exportGRNToDetailedExcel(@PathVariable String id) {
-        try {
-            GoodsReceiptNote grn = grnService.getGRNById(id)
-                    .orElseThrow(() -> new RuntimeException("GRN not found with id: " + id));
-
-            byte[] excelBytes = exportService.generateDetailedGRNExcel(grn);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", 
-                "GRN_Details_" + id + "_" + getCurrentTimestamp() + ".xlsx");
-            headers.setContentLength(excelBytes.length);
+    public ResponseEntity<StreamingResponseBody> exportGRNToDetailedExcel(@PathVariable String id) {
+        GoodsReceiptNote grn = grnService.getGRNById(id).orElse(null);
+        if (grn == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
-            return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", 
+            "GRN_Details_" + id + "_" + getCurrentTimestamp() + ".xlsx");
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return new ResponseEntity<>(out -> exportService.writeDetailedGRNExcel(grn, out), headers, HttpStatus.OK);
     }
 
     /**
@@ -3,6 +3,7 @@ package com.example.hardwaremanagement.controller;
 
 import com.example.hardwaremanagement.dto.NotificationRequest;
 import com.example.hardwaremanagement.service.EmailNotificationService;
+import com.example.hardwaremanagement.service.EmailOutboxService;
 import jakarta.mail.MessagingException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,10 +21,12 @@ public class NotificationsController {
 
 
     private final EmailNotificationService emailService;
+    private final EmailOutboxService outboxService;
 
 
-    public NotificationsController(EmailNotificationService emailService) {
+    public NotificationsController(EmailNotificationService emailService, EmailOutboxService outboxService) {
         this.emailService = emailService;
+        this.outboxService = outboxService;
     }
 
 
@@ -44,12 +47,23 @@ public class NotificationsController {
             String id = emailService.send(request.getRecipient(), request.getSubject(), request.getBody());
             Map<String, Object> resp = new HashMap<>();
             resp.put("id", id);
-            resp.put("status", "sent");
-            return ResponseEntity.ok(resp);
-        } catch (MessagingException | RuntimeException ex) {
+            resp.put("status", "queued");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(resp);
+        } catch (MessagingException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("invalid recipient: " + ex.getMessage());
+        } catch (RuntimeException ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
         }
     }
+
+
+    /**
+     * Email outbox throughput, retries and queue lag
+     */
+    @GetMapping("/email/outbox")
+    public ResponseEntity<Map<String, Object>> outboxMetrics() {
+        return ResponseEntity.ok(outboxService.getMetrics());
+    }
 }
 
 
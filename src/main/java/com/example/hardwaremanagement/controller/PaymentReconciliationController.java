@@ -0,0 +1,70 @@
+package com.example.hardwaremanagement.controller;
+
+import com.example.hardwaremanagement.model.PaymentReconciliationFinding;
+import com.example.hardwaremanagement.model.PaymentReconciliationRun;
+import com.example.hardwaremanagement.service.PaymentReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/payments/reconciliation")
+@CrossOrigin(origins = "*")
+public class PaymentReconciliationController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private PaymentReconciliationService reconciliationService;
+
+    /**
+     * Start a reconciliation of order payment summaries against the transaction log
+     * POST /api/payments/reconciliation/runs
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<?> startRun() {
+        Optional<PaymentReconciliationRun> run = reconciliationService.start();
+        if (run.isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "A reconciliation is already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(run.get());
+    }
+
+    /**
+     * Most recent runs, newest first
+     * GET /api/payments/reconciliation/runs?limit=20
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<PaymentReconciliationRun>> recentRuns(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(reconciliationService.getRecentRuns(Math.max(1, Math.min(limit, 100))));
+    }
+
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<PaymentReconciliationRun> getRun(@PathVariable String id) {
+        return reconciliationService.getRun(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Findings of the latest completed run, by order id; pass the last orderId as "after" for
+     * the next page
+     * GET /api/payments/reconciliation/findings?type=AMOUNT_MISMATCH&after=...&size=200
+     */
+    @GetMapping("/findings")
+    public ResponseEntity<List<PaymentReconciliationFinding>> findings(
+            @RequestParam(required = false) PaymentReconciliationFinding.Type type,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "200") int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(reconciliationService.getFindings(type, after, limit));
+    }
+}
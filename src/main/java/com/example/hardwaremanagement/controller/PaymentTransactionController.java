@@ -10,7 +10,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/payments/transactions")
@@ -21,8 +23,18 @@ public class PaymentTransactionController {
     private PaymentTransactionService paymentTransactionService;
 
     @PostMapping
-    public ResponseEntity<PaymentTransactionResponse> verifyAndLog(@RequestBody PaymentTransactionRequest request) {
-        PaymentTransactionResponse response = paymentTransactionService.verifyAndLog(request);
+    public ResponseEntity<?> verifyAndLog(@RequestBody PaymentTransactionRequest request) {
+        PaymentTransactionResponse response;
+        try {
+            response = paymentTransactionService.verifyAndLog(request);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+        if (response.isDuplicate()) {
+            return ResponseEntity.ok(response);
+        }
         HttpStatus status = response.isVerified() ? HttpStatus.CREATED : HttpStatus.ACCEPTED;
         return new ResponseEntity<>(response, status);
     }
@@ -43,6 +55,15 @@ public class PaymentTransactionController {
         return ResponseEntity.badRequest().build();
     }
 
+    /**
+     * Queue, batch and duplicate counters of the payment transaction log
+     * GET /api/payments/transactions/log
+     */
+    @GetMapping("/log")
+    public ResponseEntity<Map<String, Object>> logStats() {
+        return ResponseEntity.ok(paymentTransactionService.getLogStats());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<PaymentTransaction> getById(@PathVariable("id") String id) {
         return paymentTransactionService.getById(id)
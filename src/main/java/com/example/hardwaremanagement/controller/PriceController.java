@@ -1,8 +1,16 @@
 package com.example.hardwaremanagement.controller;
 
+import com.example.hardwaremanagement.model.PriceBookEntry;
+import com.example.hardwaremanagement.model.PriceHistory;
+import com.example.hardwaremanagement.model.Promotion;
+import com.example.hardwaremanagement.service.PriceBookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 @RestController
@@ -10,49 +18,86 @@ import java.util.*;
 @CrossOrigin(origins = "http://localhost:5173")
 public class PriceController {
 
+    @Autowired
+    private PriceBookService priceBookService;
+
+    /**
+     * Rebuild the whole price book as a batched job
+     */
     @PostMapping("/apply-promotions")
     public ResponseEntity<?> applyPromotions(@RequestBody(required = false) Map<String, Object> body) {
-        Map<String, Object> res = new HashMap<>();
-        res.put("status", "applied");
-        res.put("productsUpdated", 20);
-        return ResponseEntity.ok(res);
+        try {
+            return ResponseEntity.ok(priceBookService.recomputeAll());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/effective/{productId}")
     public ResponseEntity<?> effectivePrice(@PathVariable String productId) {
-        Map<String, Object> price = new HashMap<>();
-        price.put("productId", productId);
-        price.put("basePrice", 100.0);
-        price.put("effectivePrice", 90.0);
-        price.put("discountPercent", 10.0);
-        return ResponseEntity.ok(price);
+        PriceBookEntry entry = priceBookService.get(productId);
+        if (entry == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Product not found: " + productId));
+        }
+        return ResponseEntity.ok(toResponse(entry));
     }
 
+    /**
+     * Prices for a cart; unknown product ids are left out
+     */
     @PostMapping("/effective/bulk")
     public ResponseEntity<List<Map<String, Object>>> bulkEffectivePrice(@RequestBody List<String> productIds) {
         List<Map<String, Object>> prices = new ArrayList<>();
-        for (String pid : productIds) {
-            Map<String, Object> price = new HashMap<>();
-            price.put("productId", pid);
-            price.put("basePrice", 100.0);
-            price.put("effectivePrice", 100.0);
-            prices.add(price);
+        for (PriceBookEntry entry : priceBookService.getAll(productIds).values()) {
+            prices.add(toResponse(entry));
         }
         return ResponseEntity.ok(prices);
     }
 
     @GetMapping("/promotions/{productId}")
     public ResponseEntity<List<Map<String, Object>>> activePromotions(@PathVariable String productId) {
-        return ResponseEntity.ok(new ArrayList<>());
+        List<Map<String, Object>> promotions = new ArrayList<>();
+        for (Promotion promotion : priceBookService.getActivePromotions(productId)) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", promotion.getId());
+            item.put("name", promotion.getName());
+            item.put("scope", promotion.getScope());
+            item.put("discountPercent", promotion.getDiscountPercent());
+            item.put("startDate", promotion.getStartDate());
+            item.put("endDate", promotion.getEndDate());
+            promotions.add(item);
+        }
+        return ResponseEntity.ok(promotions);
     }
 
-    @PostMapping("/promotions/{id}/schedule")
-    public ResponseEntity<?> schedulePromotion(@PathVariable String id, @RequestBody Map<String, Object> body) {
-        return ResponseEntity.ok("scheduled");
+    /**
+     * Effective price changes, oldest first
+     */
+    @GetMapping("/history/{productId}")
+    public ResponseEntity<?> priceHistory(@PathVariable String productId,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        List<Map<String, Object>> history = new ArrayList<>();
+        for (PriceHistory.Point point : priceBookService.getHistory(productId, from, to)) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("at", point.getAt());
+            item.put("basePrice", point.getBasePrice());
+            item.put("effectivePrice", point.getEffectivePrice());
+            item.put("discountPercent", point.getDiscountPercent() != null ? point.getDiscountPercent() : 0.0);
+            item.put("promotionName", point.getPromotionName());
+            history.add(item);
+        }
+        return ResponseEntity.ok(history);
     }
 
-    @GetMapping("/history/{productId}")
-    public ResponseEntity<List<Map<String, Object>>> priceHistory(@PathVariable String productId) {
-        return ResponseEntity.ok(new ArrayList<>());
+    private static Map<String, Object> toResponse(PriceBookEntry entry) {
+        Map<String, Object> price = new HashMap<>();
+        price.put("productId", entry.getProductId());
+        price.put("basePrice", entry.getBasePrice());
+        price.put("effectivePrice", entry.getEffectivePrice());
+        price.put("discountPercent", entry.getDiscountPercent() != null ? entry.getDiscountPercent() : 0.0);
+        price.put("promotionName", entry.getPromotionName());
+        price.put("version", entry.getVersion());
+        return price;
     }
 }
@@ -1,13 +1,18 @@
 package com.example.hardwaremanagement.controller;
 
 import com.example.hardwaremanagement.model.Promotion;
+import com.example.hardwaremanagement.service.PromotionScheduler;
 import com.example.hardwaremanagement.service.PromotionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/promotions")
@@ -16,6 +21,9 @@ public class PromotionController {
     @Autowired
     private PromotionService promotionService;
 
+    @Autowired
+    private PromotionScheduler promotionScheduler;
+
     @PostMapping
     public ResponseEntity<Promotion> create(@RequestBody Promotion promotion) {
         return new ResponseEntity<>(promotionService.create(promotion), HttpStatus.CREATED);
@@ -36,4 +44,30 @@ public class PromotionController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable String id) { promotionService.delete(id); return ResponseEntity.noContent().build(); }
+
+    /**
+     * Set a promotion's startDate and/or endDate (ISO date-times)
+     */
+    @PostMapping("/{id}/schedule")
+    public ResponseEntity<?> schedulePromotion(@PathVariable String id, @RequestBody Map<String, Object> body) {
+        try {
+            Promotion promotion = promotionService.schedule(id, parseDateTime(body.get("startDate")),
+                    parseDateTime(body.get("endDate")));
+            Map<String, Object> res = new HashMap<>();
+            res.put("status", "scheduled");
+            res.put("id", promotion.getId());
+            res.put("startDate", promotion.getStartDate());
+            res.put("endDate", promotion.getEndDate());
+            res.put("nextBoundary", promotionScheduler.getNextBoundary());
+            return ResponseEntity.ok(res);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static LocalDateTime parseDateTime(Object value) {
+        return value != null && !value.toString().isBlank() ? LocalDateTime.parse(value.toString()) : null;
+    }
 }
@@ -1,17 +1,25 @@
 package com.example.hardwaremanagement.controller;
 
 import com.example.hardwaremanagement.dto.InventoryReportDTO;
+import com.example.hardwaremanagement.dto.OrderDistributionDTO;
+import com.example.hardwaremanagement.dto.ReportsSummaryDTO;
+import com.example.hardwaremanagement.dto.SalesAnalyticsDTO;
 import com.example.hardwaremanagement.dto.SalesReportDTO;
+import com.example.hardwaremanagement.model.AnalyticsDimension;
 import com.example.hardwaremanagement.service.ReportsService;
 import com.example.hardwaremanagement.service.ExportService;
+import com.example.hardwaremanagement.service.OrderSketchService;
+import com.example.hardwaremanagement.service.SalesAnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -24,6 +32,12 @@ public class ReportsController {
     @Autowired
     private ExportService exportService;
 
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private OrderSketchService orderSketchService;
+
     /**
      * Get sales report for a specific date range
      * @param startDate Start date for the report (format: yyyy-MM-dd)
@@ -48,6 +62,29 @@ public class ReportsController {
         }
     }
 
+    /**
+     * Get approximate order statistics for a date range: distinct customers and
+     * order-value percentiles, merged from per-day sketches
+     * @param startDate Start date (format: yyyy-MM-dd)
+     * @param endDate End date (format: yyyy-MM-dd)
+     * @return OrderDistributionDTO with distinct customers and min/median/p90/p95/p99/max order values
+     */
+    @GetMapping("/sales/distribution")
+    public ResponseEntity<OrderDistributionDTO> getOrderDistribution(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        try {
+            return ResponseEntity.ok(orderSketchService.getDistribution(startDate, endDate));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Get sales report for the last 7 days
      * @return SalesReportDTO containing last week's sales analytics
@@ -101,12 +138,14 @@ public class ReportsController {
 
     /**
      * Get current inventory report
+     * @param includeItems Set to false to get only totals and counts (no per-product lists)
      * @return InventoryReportDTO containing inventory analytics
      */
     @GetMapping("/inventory")
-    public ResponseEntity<InventoryReportDTO> getInventoryReport() {
+    public ResponseEntity<InventoryReportDTO> getInventoryReport(
+            @RequestParam(value = "includeItems", defaultValue = "true") boolean includeItems) {
         try {
-            InventoryReportDTO report = reportsService.generateInventoryReport();
+            InventoryReportDTO report = reportsService.generateInventoryReport(includeItems);
             return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -120,8 +159,7 @@ public class ReportsController {
     @GetMapping("/inventory/low-stock")
     public ResponseEntity<?> getLowStockReport() {
         try {
-            InventoryReportDTO report = reportsService.generateInventoryReport();
-            return ResponseEntity.ok(report.getLowStockItems());
+            return ResponseEntity.ok(reportsService.findLowStockItems());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -134,8 +172,7 @@ public class ReportsController {
     @GetMapping("/inventory/out-of-stock")
     public ResponseEntity<?> getOutOfStockReport() {
         try {
-            InventoryReportDTO report = reportsService.generateInventoryReport();
-            return ResponseEntity.ok(report.getOutOfStockItems());
+            return ResponseEntity.ok(reportsService.findOutOfStockItems());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -146,49 +183,61 @@ public class ReportsController {
      * @return Combined summary of sales and inventory
      */
     @GetMapping("/summary")
-    public ResponseEntity<?> getReportsSummary() {
+    public ResponseEntity<ReportsSummaryDTO> getReportsSummary() {
         try {
-            // Get last 30 days sales report
-            LocalDate endDate = LocalDate.now();
-            LocalDate startDate = endDate.minusDays(29);
-            SalesReportDTO salesReport = reportsService.generateSalesReport(startDate, endDate);
-            
-            // Get inventory report
-            InventoryReportDTO inventoryReport = reportsService.generateInventoryReport();
-            
-            // Create summary object
-            ReportsSummary summary = new ReportsSummary();
-            summary.setSalesReport(salesReport);
-            summary.setInventoryReport(inventoryReport);
-            
+            // Last 30 days sales report and inventory report, computed concurrently and cached briefly
+            ReportsSummaryDTO summary = reportsService.getReportsSummary();
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
-
-    // Inner class for combined summary
-    public static class ReportsSummary {
-        private SalesReportDTO salesReport;
-        private InventoryReportDTO inventoryReport;
-
-        public SalesReportDTO getSalesReport() {
-            return salesReport;
-        }
-
-        public void setSalesReport(SalesReportDTO salesReport) {
-            this.salesReport = salesReport;
-        }
-
-        public InventoryReportDTO getInventoryReport() {
-            return inventoryReport;
+    
+    /**
+     * Ad-hoc sales analytics over order lines, served from the in-memory columnar store
+     * (refreshed in the background, so the newest orders may take a few seconds to appear)
+     * @param groupBy PRODUCT, CATEGORY, BRAND, CUSTOMER, DAY, DAY_OF_WEEK or HOUR_OF_DAY
+     * @param startDate Optional first day to include (format: yyyy-MM-dd)
+     * @param endDate Optional last day to include (format: yyyy-MM-dd)
+     * @param productId Optional product filter
+     * @param categoryId Optional category filter (category id, or legacy category name)
+     * @param brand Optional brand filter
+     * @param customerId Optional customer filter
+     * @param limit Maximum rows for non-time groupings, highest revenue first
+     * @return Quantity, revenue and line count per group
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<SalesAnalyticsDTO> getSalesAnalytics(
+            @RequestParam(value = "groupBy", defaultValue = "CATEGORY") AnalyticsDimension groupBy,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "productId", required = false) String productId,
+            @RequestParam(value = "categoryId", required = false) String categoryId,
+            @RequestParam(value = "brand", required = false) String brand,
+            @RequestParam(value = "customerId", required = false) String customerId,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
         }
-
-        public void setInventoryReport(InventoryReportDTO inventoryReport) {
-            this.inventoryReport = inventoryReport;
+        
+        try {
+            SalesAnalyticsDTO result = salesAnalyticsService.query(groupBy, startDate, endDate,
+                    productId, categoryId, brand, customerId, limit);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * Size and freshness of the in-memory analytics store
+     */
+    @GetMapping("/analytics/status")
+    public ResponseEntity<Map<String, Object>> getSalesAnalyticsStatus() {
+        return ResponseEntity.ok(salesAnalyticsService.getStoreStats());
+    }
+    
     // ======================== EXPORT ENDPOINTS ========================
     
     /**
@@ -198,7 +247,7 @@ public class ReportsController {
      * @return CSV file containing sales report data
      */
     @GetMapping("/sales/export/csv")
-    public ResponseEntity<String> exportSalesReportToCsv(
+    public ResponseEntity<StreamingResponseBody> exportSalesReportToCsv(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         
@@ -209,22 +258,57 @@ public class ReportsController {
             }
             
             SalesReportDTO report = reportsService.generateSalesReport(startDate, endDate);
-            String csvContent = exportService.exportSalesReportToCsv(report);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", 
-                String.format("sales-report-%s-to-%s.csv", startDate, endDate));
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
+            return csvResponse(String.format("sales-report-%s-to-%s.csv", startDate, endDate),
+                    out -> exportService.writeSalesReportCsv(report, out));
                     
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * Export order-level sales data to CSV format (one row per order).
+     * Rows are streamed from a database cursor, so the download starts before the query finishes.
+     * @param startDate Start date for the export (format: yyyy-MM-dd)
+     * @param endDate End date for the export (format: yyyy-MM-dd)
+     * @return CSV file containing one row per order
+     */
+    @GetMapping("/sales/export/orders/csv")
+    public ResponseEntity<StreamingResponseBody> exportSalesOrdersToCsv(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        // Validate date range
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return csvResponse(String.format("sales-orders-%s-to-%s.csv", startDate, endDate),
+                out -> exportService.streamOrdersCsv(startDate, endDate, out));
+    }
+    
+    /**
+     * Export line-item level sales data to CSV format (one row per order line).
+     * Rows are streamed from a database cursor, so the download starts before the query finishes.
+     * @param startDate Start date for the export (format: yyyy-MM-dd)
+     * @param endDate End date for the export (format: yyyy-MM-dd)
+     * @return CSV file containing one row per order line
+     */
+    @GetMapping("/sales/export/lines/csv")
+    public ResponseEntity<StreamingResponseBody> exportSalesLinesToCsv(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        // Validate date range
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return csvResponse(String.format("sales-lines-%s-to-%s.csv", startDate, endDate),
+                out -> exportService.streamOrderLinesCsv(startDate, endDate, out));
+    }
+    
     /**
      * Export sales report to PDF format
      * @param startDate Start date for the report (format: yyyy-MM-dd)
@@ -265,21 +349,15 @@ public class ReportsController {
      * @return CSV file containing weekly sales report data
      */
     @GetMapping("/sales/weekly/export/csv")
-    public ResponseEntity<String> exportWeeklySalesReportToCsv() {
+    public ResponseEntity<StreamingResponseBody> exportWeeklySalesReportToCsv() {
         try {
             LocalDate endDate = LocalDate.now();
             LocalDate startDate = endDate.minusDays(6);
             
             SalesReportDTO report = reportsService.generateSalesReport(startDate, endDate);
-            String csvContent = exportService.exportSalesReportToCsv(report);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", "weekly-sales-report.csv");
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
+            return csvResponse("weekly-sales-report.csv",
+                    out -> exportService.writeSalesReportCsv(report, out));
                     
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -318,21 +396,15 @@ public class ReportsController {
      * @return CSV file containing monthly sales report data
      */
     @GetMapping("/sales/monthly/export/csv")
-    public ResponseEntity<String> exportMonthlySalesReportToCsv() {
+    public ResponseEntity<StreamingResponseBody> exportMonthlySalesReportToCsv() {
         try {
             LocalDate endDate = LocalDate.now();
             LocalDate startDate = endDate.minusDays(29);
             
             SalesReportDTO report = reportsService.generateSalesReport(startDate, endDate);
-            String csvContent = exportService.exportSalesReportToCsv(report);
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", "monthly-sales-report.csv");
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
+            return csvResponse("monthly-sales-report.csv",
+                    out -> exportService.writeSalesReportCsv(report, out));
                     
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -371,21 +443,15 @@ public class ReportsController {
      * @return CSV file containing yearly sales report data
      */
     @GetMapping("/sales/yearly/export/csv")
-    public ResponseEntity<String> exportYearlySalesReportToCsv() {
+    public ResponseEntity<StreamingResponseBody> exportYearlySalesReportToCsv() {
         try {
             LocalDate startDate = LocalDate.now().withDayOfYear(1);
             LocalDate endDate = LocalDate.now();
             
             SalesReportDTO report = reportsService.generateSalesReport(startDate, endDate);
-            String csvContent = exportService.exportSalesReportToCsv(report);
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", "yearly-sales-report.csv");
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
+            return csvResponse("yearly-sales-report.csv",
+                    out -> exportService.writeSalesReportCsv(report, out));
                     
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -424,18 +490,12 @@ public class ReportsController {
      * @return CSV file containing inventory report data
      */
     @GetMapping("/inventory/export/csv")
-    public ResponseEntity<String> exportInventoryReportToCsv() {
+    public ResponseEntity<StreamingResponseBody> exportInventoryReportToCsv() {
         try {
             InventoryReportDTO report = reportsService.generateInventoryReport();
-            String csvContent = exportService.exportInventoryReportToCsv(report);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", "inventory-report.csv");
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
+            return csvResponse("inventory-report.csv",
+                    out -> exportService.writeInventoryReportCsv(report, out));
                     
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -465,4 +525,15 @@ public class ReportsController {
             return ResponseEntity.internalServerError().build();
         }
     }
+    
+    // CSV bodies are written straight to the response stream instead of being built in memory first
+    private ResponseEntity<StreamingResponseBody> csvResponse(String filename, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentDispositionFormData("attachment", filename);
+        
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
 }
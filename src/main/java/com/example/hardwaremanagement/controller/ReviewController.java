@@ -1,17 +1,20 @@
 package com.example.hardwaremanagement.controller;
 
 import com.example.hardwaremanagement.model.Review;
+import com.example.hardwaremanagement.service.KeysetCursor;
 import com.example.hardwaremanagement.service.ReviewService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reviews")
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = KeysetCursor.NEXT_CURSOR_HEADER)
 public class ReviewController {
+    private static final int MAX_BULK_PRODUCTS = 500;
 
     private final ReviewService reviewService;
 
@@ -29,9 +32,25 @@ public class ReviewController {
         }
     }
 
+    /**
+     * Approved reviews of a product, one page at a time
+     * GET /api/reviews/product/{productId}?sort=recent|rating|helpful&size=20&view=list&cursor=...
+     * Pass the X-Next-Cursor header of a response as cursor to get the next page;
+     * view=list leaves out images and admin responses
+     */
     @GetMapping("/product/{productId}")
-    public ResponseEntity<?> getProductReviews(@PathVariable String productId) {
-        return ResponseEntity.ok(reviewService.getProductReviews(productId));
+    public ResponseEntity<?> getProductReviews(@PathVariable String productId,
+                                               @RequestParam(defaultValue = "recent") String sort,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int size,
+                                               @RequestParam(defaultValue = "full") String view) {
+        List<Review> reviews;
+        try {
+            reviews = reviewService.getProductReviews(productId, sort, cursor, size, "list".equalsIgnoreCase(view));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        return KeysetCursor.page(reviews, review -> reviewService.cursorOf(review, sort));
     }
 
     @GetMapping("/product/{productId}/stats")
@@ -39,6 +58,20 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.getProductRatingStats(productId));
     }
 
+    /**
+     * Average rating and review count for each requested product id
+     */
+    @PostMapping("/stats/bulk")
+    public ResponseEntity<?> getRatingSummaries(@RequestBody List<String> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return ResponseEntity.ok(Map.of());
+        }
+        if (productIds.size() > MAX_BULK_PRODUCTS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BULK_PRODUCTS + " product ids per request"));
+        }
+        return ResponseEntity.ok(reviewService.getRatingSummaries(productIds));
+    }
+
     @GetMapping("/customer/{customerId}")
     public ResponseEntity<?> getCustomerReviews(@PathVariable String customerId) {
         return ResponseEntity.ok(reviewService.getCustomerReviews(customerId));
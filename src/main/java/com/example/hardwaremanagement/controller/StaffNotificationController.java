@@ -1,5 +1,6 @@
 package com.example.hardwaremanagement.controller;
 
+import com.example.hardwaremanagement.service.KeysetCursor;
 import com.example.hardwaremanagement.service.StaffNotificationService;
 import com.example.hardwaremanagement.model.StaffNotification;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +15,7 @@ import java.util.HashMap;
 
 @RestController
 @RequestMapping("/api/notifications")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = KeysetCursor.NEXT_CURSOR_HEADER)
 public class StaffNotificationController {
 
     @Autowired
@@ -24,19 +25,32 @@ public class StaffNotificationController {
      * Server-Sent Events endpoint for real-time notifications
      */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamNotifications() {
-        return notificationService.addEmitter();
+    public SseEmitter streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return notificationService.addEmitter(lastEventId);
     }
 
     /**
-     * Get all notifications with pagination
+     * Get notifications, newest first
+     * GET /api/notifications?size=20&type=DELIVERY_UPDATE&priority=HIGH&read=false&cursor=...
+     * Pass the X-Next-Cursor header of a response as cursor to get the next page
+     * (page is still accepted for offset paging when no cursor is given)
      */
     @GetMapping
     public ResponseEntity<List<StaffNotification>> getAllNotifications(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        List<StaffNotification> notifications = notificationService.getAllNotifications(page, size);
-        return ResponseEntity.ok(notifications);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Boolean read) {
+        List<StaffNotification> notifications;
+        try {
+            notifications = notificationService.getNotifications(cursor, page, size, type, priority, read);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return KeysetCursor.page(notifications, notificationService::cursorOf);
     }
 
     /**
@@ -48,6 +62,7 @@ public class StaffNotificationController {
         stats.put("totalNotifications", notificationService.getTotalCount());
         stats.put("unreadCount", notificationService.getUnreadCount());
         stats.put("highPriorityCount", notificationService.getHighPriorityCount());
+        stats.put("unreadByPriority", notificationService.getUnreadCountsByPriority());
         stats.put("systemStatus", "OPERATIONAL");
         stats.put("lastUpdate", System.currentTimeMillis());
         return ResponseEntity.ok(stats);
@@ -127,6 +142,7 @@ public class StaffNotificationController {
         health.put("timestamp", System.currentTimeMillis());
         health.put("service", "StaffNotificationService");
         health.put("version", "1.0.0");
+        health.put("connectedClients", notificationService.getConnectedClientCount());
         return ResponseEntity.ok(health);
     }
 }
@@ -0,0 +1,118 @@
+package com.example.hardwaremanagement.dto;
+
+import java.time.LocalDateTime;
+
+public class DemandForecastDTO {
+    private String productId;
+    private String productName;
+    private int currentStock;
+    private double dailyVelocity;
+    private double dailyVelocityStdDev;
+    private int leadTimeDays;
+    private int safetyStock;
+    private int reorderPoint;
+    private Double daysOfCover; // null when there is no recent demand
+    private boolean belowReorderPoint;
+    private int daysObserved;
+    private LocalDateTime lastMovementAt;
+
+    // Constructors
+    public DemandForecastDTO() {}
+
+    // Getters and Setters
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public int getCurrentStock() {
+        return currentStock;
+    }
+
+    public void setCurrentStock(int currentStock) {
+        this.currentStock = currentStock;
+    }
+
+    public double getDailyVelocity() {
+        return dailyVelocity;
+    }
+
+    public void setDailyVelocity(double dailyVelocity) {
+        this.dailyVelocity = dailyVelocity;
+    }
+
+    public double getDailyVelocityStdDev() {
+        return dailyVelocityStdDev;
+    }
+
+    public void setDailyVelocityStdDev(double dailyVelocityStdDev) {
+        this.dailyVelocityStdDev = dailyVelocityStdDev;
+    }
+
+    public int getLeadTimeDays() {
+        return leadTimeDays;
+    }
+
+    public void setLeadTimeDays(int leadTimeDays) {
+        this.leadTimeDays = leadTimeDays;
+    }
+
+    public int getSafetyStock() {
+        return safetyStock;
+    }
+
+    public void setSafetyStock(int safetyStock) {
+        this.safetyStock = safetyStock;
+    }
+
+    public int getReorderPoint() {
+        return reorderPoint;
+    }
+
+    public void setReorderPoint(int reorderPoint) {
+        this.reorderPoint = reorderPoint;
+    }
+
+    public Double getDaysOfCover() {
+        return daysOfCover;
+    }
+
+    public void setDaysOfCover(Double daysOfCover) {
+        this.daysOfCover = daysOfCover;
+    }
+
+    public boolean isBelowReorderPoint() {
+        return belowReorderPoint;
+    }
+
+    public void setBelowReorderPoint(boolean belowReorderPoint) {
+        this.belowReorderPoint = belowReorderPoint;
+    }
+
+    public int getDaysObserved() {
+        return daysObserved;
+    }
+
+    public void setDaysObserved(int daysObserved) {
+        this.daysObserved = daysObserved;
+    }
+
+    public LocalDateTime getLastMovementAt() {
+        return lastMovementAt;
+    }
+
+    public void setLastMovementAt(LocalDateTime lastMovementAt) {
+        this.lastMovementAt = lastMovementAt;
+    }
+}
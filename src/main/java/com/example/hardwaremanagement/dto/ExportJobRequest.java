@@ -0,0 +1,33 @@
+package com.example.hardwaremanagement.dto;
+
+import com.example.hardwaremanagement.model.ExportType;
+
+import java.util.Map;
+
+/**
+ * Request to render an export in the background.
+ * Parameters depend on the type:
+ * - SALES_*: startDate/endDate (yyyy-MM-dd) or period (WEEKLY, MONTHLY, YEARLY)
+ * - GRN_PDF, GRN_DETAILED_EXCEL: id
+ * - GRN_EXCEL: optional status, supplierId, purchaseOrderId
+ */
+public class ExportJobRequest {
+    private ExportType type;
+    private Map<String, String> params;
+
+    public ExportType getType() {
+        return type;
+    }
+
+    public void setType(ExportType type) {
+        this.type = type;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public void setParams(Map<String, String> params) {
+        this.params = params;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.hardwaremanagement.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Approximate order statistics for a date range, merged from daily sketches
+ */
+public class OrderDistributionDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long orderCount;
+    private long distinctCustomers;
+    private Double minOrderValue;
+    private Double medianOrderValue;
+    private Double p90OrderValue;
+    private Double p95OrderValue;
+    private Double p99OrderValue;
+    private Double maxOrderValue;
+
+    // Constructors
+    public OrderDistributionDTO() {}
+
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getDistinctCustomers() {
+        return distinctCustomers;
+    }
+
+    public void setDistinctCustomers(long distinctCustomers) {
+        this.distinctCustomers = distinctCustomers;
+    }
+
+    public Double getMinOrderValue() {
+        return minOrderValue;
+    }
+
+    public void setMinOrderValue(Double minOrderValue) {
+        this.minOrderValue = minOrderValue;
+    }
+
+    public Double getMedianOrderValue() {
+        return medianOrderValue;
+    }
+
+    public void setMedianOrderValue(Double medianOrderValue) {
+        this.medianOrderValue = medianOrderValue;
+    }
+
+    public Double getP90OrderValue() {
+        return p90OrderValue;
+    }
+
+    public void setP90OrderValue(Double p90OrderValue) {
+        this.p90OrderValue = p90OrderValue;
+    }
+
+    public Double getP95OrderValue() {
+        return p95OrderValue;
+    }
+
+    public void setP95OrderValue(Double p95OrderValue) {
+        this.p95OrderValue = p95OrderValue;
+    }
+
+    public Double getP99OrderValue() {
+        return p99OrderValue;
+    }
+
+    public void setP99OrderValue(Double p99OrderValue) {
+        this.p99OrderValue = p99OrderValue;
+    }
+
+    public Double getMaxOrderValue() {
+        return maxOrderValue;
+    }
+
+    public void setMaxOrderValue(Double maxOrderValue) {
+        this.maxOrderValue = maxOrderValue;
+    }
+}
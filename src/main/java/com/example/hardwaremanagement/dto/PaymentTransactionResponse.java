@@ -6,6 +6,7 @@ import java.util.List;
 
 public class PaymentTransactionResponse {
     private boolean verified;
+    private boolean duplicate;
     private String message;
     private List<String> validationErrors;
     private PaymentTransaction transaction;
@@ -18,6 +19,14 @@ public class PaymentTransactionResponse {
         this.verified = verified;
     }
 
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public void setDuplicate(boolean duplicate) {
+        this.duplicate = duplicate;
+    }
+
     public String getMessage() {
         return message;
     }
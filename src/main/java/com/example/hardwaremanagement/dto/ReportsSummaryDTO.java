@@ -0,0 +1,31 @@
+package com.example.hardwaremanagement.dto;
+
+public class ReportsSummaryDTO {
+    private SalesReportDTO salesReport;
+    private InventoryReportDTO inventoryReport;
+
+    // Constructors
+    public ReportsSummaryDTO() {}
+
+    public ReportsSummaryDTO(SalesReportDTO salesReport, InventoryReportDTO inventoryReport) {
+        this.salesReport = salesReport;
+        this.inventoryReport = inventoryReport;
+    }
+
+    // Getters and Setters
+    public SalesReportDTO getSalesReport() {
+        return salesReport;
+    }
+
+    public void setSalesReport(SalesReportDTO salesReport) {
+        this.salesReport = salesReport;
+    }
+
+    public InventoryReportDTO getInventoryReport() {
+        return inventoryReport;
+    }
+
+    public void setInventoryReport(InventoryReportDTO inventoryReport) {
+        this.inventoryReport = inventoryReport;
+    }
+}
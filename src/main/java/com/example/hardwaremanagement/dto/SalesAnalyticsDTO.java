@@ -0,0 +1,94 @@
+package com.example.hardwaremanagement.dto;
+
+import com.example.hardwaremanagement.model.AnalyticsDimension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class SalesAnalyticsDTO {
+    private AnalyticsDimension groupBy;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long totalQuantity;
+    private double totalRevenue;
+    private long totalOrderLines;
+    private long scannedLines;
+    private long queryTimeMicros;
+    private List<SalesAnalyticsRowDTO> rows;
+
+    // Constructors
+    public SalesAnalyticsDTO() {}
+
+    // Getters and Setters
+    public AnalyticsDimension getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(AnalyticsDimension groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public void setTotalRevenue(double totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+
+    public long getTotalOrderLines() {
+        return totalOrderLines;
+    }
+
+    public void setTotalOrderLines(long totalOrderLines) {
+        this.totalOrderLines = totalOrderLines;
+    }
+
+    public long getScannedLines() {
+        return scannedLines;
+    }
+
+    public void setScannedLines(long scannedLines) {
+        this.scannedLines = scannedLines;
+    }
+
+    public long getQueryTimeMicros() {
+        return queryTimeMicros;
+    }
+
+    public void setQueryTimeMicros(long queryTimeMicros) {
+        this.queryTimeMicros = queryTimeMicros;
+    }
+
+    public List<SalesAnalyticsRowDTO> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<SalesAnalyticsRowDTO> rows) {
+        this.rows = rows;
+    }
+}
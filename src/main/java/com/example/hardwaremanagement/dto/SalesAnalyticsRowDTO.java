@@ -0,0 +1,51 @@
+package com.example.hardwaremanagement.dto;
+
+public class SalesAnalyticsRowDTO {
+    private String key;
+    private long quantity;
+    private double revenue;
+    private long orderLines;
+
+    // Constructors
+    public SalesAnalyticsRowDTO() {}
+
+    public SalesAnalyticsRowDTO(String key, long quantity, double revenue, long orderLines) {
+        this.key = key;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.orderLines = orderLines;
+    }
+
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getOrderLines() {
+        return orderLines;
+    }
+
+    public void setOrderLines(long orderLines) {
+        this.orderLines = orderLines;
+    }
+}
@@ -11,6 +11,10 @@ public class SalesReportDTO {
     private int totalProducts;
     private List<ProductSalesDTO> topSellingProducts;
     private List<DailySalesDTO> dailySales;
+    // Approximate, from the daily order sketches
+    private long distinctCustomers;
+    private Double medianOrderValue;
+    private Double p95OrderValue;
 
     // Constructors
     public SalesReportDTO() {}
@@ -78,4 +82,28 @@ public class SalesReportDTO {
     public void setDailySales(List<DailySalesDTO> dailySales) {
         this.dailySales = dailySales;
     }
+
+    public long getDistinctCustomers() {
+        return distinctCustomers;
+    }
+
+    public void setDistinctCustomers(long distinctCustomers) {
+        this.distinctCustomers = distinctCustomers;
+    }
+
+    public Double getMedianOrderValue() {
+        return medianOrderValue;
+    }
+
+    public void setMedianOrderValue(Double medianOrderValue) {
+        this.medianOrderValue = medianOrderValue;
+    }
+
+    public Double getP95OrderValue() {
+        return p95OrderValue;
+    }
+
+    public void setP95OrderValue(Double p95OrderValue) {
+        this.p95OrderValue = p95OrderValue;
+    }
 }
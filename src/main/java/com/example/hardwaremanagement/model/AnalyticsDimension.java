@@ -0,0 +1,21 @@
+package com.example.hardwaremanagement.model;
+
+/**
+ * Dimensions the in-memory sales analytics store can group order lines by
+ */
+public enum AnalyticsDimension {
+    PRODUCT,
+    CATEGORY,
+    BRAND,
+    CUSTOMER,
+    DAY,
+    DAY_OF_WEEK,
+    HOUR_OF_DAY;
+
+    /**
+     * Time buckets are reported in natural order; everything else by revenue
+     */
+    public boolean isTimeBucket() {
+        return this == DAY || this == DAY_OF_WEEK || this == HOUR_OF_DAY;
+    }
+}
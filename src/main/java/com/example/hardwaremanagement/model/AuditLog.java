@@ -1,15 +1,24 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Document(collection = "audit_logs")
+@CompoundIndexes({
+    @CompoundIndex(name = "performedBy_timestamp", def = "{'performedBy': 1, 'timestamp': 1}"),
+    @CompoundIndex(name = "action_timestamp", def = "{'action': 1, 'timestamp': 1}")
+})
 public class AuditLog {
     @Id
     private String id;
     private String action;
     private String performedBy;
+    private String target; // id of the affected entity, when known
+    @Indexed
     private LocalDateTime timestamp;
 
     // getters & setters
@@ -38,6 +47,14 @@ public class AuditLog {
         this.performedBy = performedBy;
     }
 
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
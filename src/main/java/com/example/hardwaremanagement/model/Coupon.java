@@ -26,6 +26,7 @@ public class Coupon {
     private List<String> applicableProducts; // Empty = all products
     private List<String> excludedProducts;
     private boolean firstTimeCustomerOnly;
+    private Integer tokenBlockSize; // >0 for hot codes: nodes reserve redemptions in blocks of this size
     private LocalDateTime createdAt;
     private String createdBy;
 
@@ -165,6 +166,21 @@ public class Coupon {
         this.firstTimeCustomerOnly = firstTimeCustomerOnly;
     }
 
+    public Integer getTokenBlockSize() {
+        return tokenBlockSize;
+    }
+
+    public void setTokenBlockSize(Integer tokenBlockSize) {
+        this.tokenBlockSize = tokenBlockSize;
+    }
+
+    /**
+     * Hot-code mode: a limited coupon whose redemptions are reserved in token blocks
+     */
+    public boolean usesTokenBlocks() {
+        return tokenBlockSize != null && tokenBlockSize > 0 && usageLimit > 0;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
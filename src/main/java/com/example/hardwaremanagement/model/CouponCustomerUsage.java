@@ -0,0 +1,63 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Redemptions of one coupon by one customer, kept as a counter so the per-customer limit can
+ * be enforced by a single conditional $inc. Id is couponId:customerId.
+ */
+@Document(collection = "coupon_customer_usages")
+public class CouponCustomerUsage {
+    @Id
+    private String id;
+    private String couponId;
+    private String customerId;
+    private long count;
+
+    public CouponCustomerUsage() {
+    }
+
+    public CouponCustomerUsage(String couponId, String customerId, long count) {
+        this.id = idOf(couponId, customerId);
+        this.couponId = couponId;
+        this.customerId = customerId;
+        this.count = count;
+    }
+
+    public static String idOf(String couponId, String customerId) {
+        return couponId + ":" + customerId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCouponId() {
+        return couponId;
+    }
+
+    public void setCouponId(String couponId) {
+        this.couponId = couponId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
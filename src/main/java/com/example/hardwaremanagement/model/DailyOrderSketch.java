@@ -0,0 +1,93 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-day approximate order statistics: a HyperLogLog of customers and a t-digest of
+ * order totals for non-cancelled orders placed that day. Roughly 6KB per day regardless
+ * of order volume.
+ */
+@Document(collection = "daily_order_sketches")
+public class DailyOrderSketch {
+    @Id
+    private String id; // ISO date, e.g. 2024-05-01
+    private LocalDate date;
+    private long orderCount;
+    private HyperLogLog customers;
+    private QuantileSketch orderTotals;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public DailyOrderSketch() {}
+
+    public DailyOrderSketch(LocalDate date) {
+        this.id = date.toString();
+        this.date = date;
+        this.customers = new HyperLogLog();
+        this.orderTotals = new QuantileSketch();
+    }
+
+    /**
+     * Add one order; customerKey may be null for anonymous orders
+     */
+    public void addOrder(String customerKey, double orderTotal) {
+        orderCount++;
+        if (customerKey != null) {
+            customers.add(customerKey);
+        }
+        orderTotals.add(orderTotal);
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public HyperLogLog getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(HyperLogLog customers) {
+        this.customers = customers;
+    }
+
+    public QuantileSketch getOrderTotals() {
+        return orderTotals;
+    }
+
+    public void setOrderTotals(QuantileSketch orderTotals) {
+        this.orderTotals = orderTotals;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.hardwaremanagement.model;
+
+public enum EmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
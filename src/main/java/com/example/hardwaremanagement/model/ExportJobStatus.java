@@ -0,0 +1,8 @@
+package com.example.hardwaremanagement.model;
+
+public enum ExportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
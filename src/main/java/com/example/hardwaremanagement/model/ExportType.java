@@ -0,0 +1,36 @@
+package com.example.hardwaremanagement.model;
+
+/**
+ * Exports that can be rendered by the background export job queue
+ */
+public enum ExportType {
+    SALES_CSV("csv", "text/csv"),
+    SALES_PDF("pdf", "application/pdf"),
+    SALES_ORDERS_CSV("csv", "text/csv"),
+    SALES_LINES_CSV("csv", "text/csv"),
+    INVENTORY_CSV("csv", "text/csv"),
+    INVENTORY_PDF("pdf", "application/pdf"),
+    GRN_PDF("pdf", "application/pdf"),
+    GRN_EXCEL("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    GRN_DETAILED_EXCEL("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportType(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isSalesExport() {
+        return this == SALES_CSV || this == SALES_PDF || this == SALES_ORDERS_CSV || this == SALES_LINES_CSV;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -17,6 +18,7 @@ public class GoodsReceiptNote {
     private String purchaseOrderId;
     private String supplierId;
     private String receivedBy; // Staff member who received the goods
+    @Indexed
     private LocalDateTime receivedDate;
     private List<GRNItem> items;
     private String notes; // Additional notes about the receipt
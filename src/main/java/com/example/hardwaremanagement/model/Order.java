@@ -1,6 +1,8 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -8,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 
 @Document(collection = "orders")
+@CompoundIndex(name = "status_placedAt", def = "{'status': 1, 'placedAt': -1}") // return eligibility
 public class Order {
     @Id
     private String id;
@@ -17,6 +20,7 @@ public class Order {
     private List<OrderItem> items;
     private double totalAmount;
     private OrderStatus status;
+    @Indexed
     private LocalDateTime placedAt;
     private BillingInfo billing;
     private ShippingInfo shipping;
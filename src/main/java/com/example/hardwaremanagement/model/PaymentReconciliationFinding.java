@@ -0,0 +1,74 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One disagreement between an order's payment summary and the payment transaction log, found
+ * by a reconciliation run. Only the findings of the latest completed run are kept.
+ */
+@Document(collection = "payment_reconciliation_findings")
+@CompoundIndexes({
+        // Report pages by order id, with and without a type filter
+        @CompoundIndex(name = "runId_orderId", def = "{'runId': 1, 'orderId': 1}"),
+        @CompoundIndex(name = "runId_type_orderId", def = "{'runId': 1, 'type': 1, 'orderId': 1}")
+})
+public class PaymentReconciliationFinding {
+
+    public enum Type {
+        MISSING_CAPTURE,     // order marked paid, no authorized or completed transaction logged
+        AMOUNT_MISMATCH,     // logged amount differs from the order's payment amount
+        ORPHAN_TRANSACTION   // transactions logged against an order id that does not exist
+    }
+
+    @Id
+    private String id;
+    private String runId;
+    private Type type;
+    private String orderId;
+    private String paymentStatus; // order's payment summary status (null for orphans)
+    private Double expectedAmount; // order's payment amount
+    private Double recordedAmount; // completed total, else the latest authorization
+    private int transactionCount;
+    private LocalDateTime detectedAt;
+
+    public PaymentReconciliationFinding() {}
+
+    public PaymentReconciliationFinding(String runId, Type type, String orderId) {
+        this.runId = runId;
+        this.type = type;
+        this.orderId = orderId;
+        this.detectedAt = LocalDateTime.now();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public Double getExpectedAmount() { return expectedAmount; }
+    public void setExpectedAmount(Double expectedAmount) { this.expectedAmount = expectedAmount; }
+
+    public Double getRecordedAmount() { return recordedAmount; }
+    public void setRecordedAmount(Double recordedAmount) { this.recordedAmount = recordedAmount; }
+
+    public int getTransactionCount() { return transactionCount; }
+    public void setTransactionCount(int transactionCount) { this.transactionCount = transactionCount; }
+
+    public LocalDateTime getDetectedAt() { return detectedAt; }
+    public void setDetectedAt(LocalDateTime detectedAt) { this.detectedAt = detectedAt; }
+}
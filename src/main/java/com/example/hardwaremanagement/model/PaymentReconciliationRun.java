@@ -0,0 +1,59 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress and totals of one payment reconciliation run
+ */
+@Document(collection = "payment_reconciliation_runs")
+public class PaymentReconciliationRun {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Id
+    private String id;
+    private Status status;
+    @Indexed
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long ordersScanned;
+    private long transactionsScanned;
+    private long missingCaptures;
+    private long amountMismatches;
+    private long orphanTransactions; // order ids with transactions but no order
+    private String error;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public long getOrdersScanned() { return ordersScanned; }
+    public void setOrdersScanned(long ordersScanned) { this.ordersScanned = ordersScanned; }
+
+    public long getTransactionsScanned() { return transactionsScanned; }
+    public void setTransactionsScanned(long transactionsScanned) { this.transactionsScanned = transactionsScanned; }
+
+    public long getMissingCaptures() { return missingCaptures; }
+    public void setMissingCaptures(long missingCaptures) { this.missingCaptures = missingCaptures; }
+
+    public long getAmountMismatches() { return amountMismatches; }
+    public void setAmountMismatches(long amountMismatches) { this.amountMismatches = amountMismatches; }
+
+    public long getOrphanTransactions() { return orphanTransactions; }
+    public void setOrphanTransactions(long orphanTransactions) { this.orphanTransactions = orphanTransactions; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
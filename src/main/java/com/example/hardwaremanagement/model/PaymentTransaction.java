@@ -1,13 +1,20 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+// The unique (paymentIntentId, status) index is built by PaymentTransactionLog
 @Document(collection = "payment_transactions")
+@CompoundIndexes({
+        @CompoundIndex(name = "orderId_createdAt", def = "{'orderId': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "customerReference_createdAt", def = "{'customerReference': 1, 'createdAt': -1}")
+})
 public class PaymentTransaction {
     @Id
     private String id;
@@ -0,0 +1,88 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Effective price of one product with the promotion that produced it, as last computed by
+ * the price book. Entries are immutable once built; a recompute replaces them.
+ */
+@Document(collection = "price_book")
+public class PriceBookEntry {
+    @Id
+    private String productId;
+    private String categoryId;
+    private double basePrice;
+    private double effectivePrice;
+    private Double discountPercent; // null if no promotion applies
+    private String promotionId;
+    private String promotionName;
+    private LocalDateTime promotionEndsAt;
+    private long version; // price book version this entry was computed in
+    private LocalDateTime computedAt;
+
+    public PriceBookEntry() {}
+
+    public PriceBookEntry(Product product, Promotion promotion, long version, LocalDateTime computedAt) {
+        this.productId = product.getId();
+        this.categoryId = product.getCategoryId();
+        this.basePrice = product.getPrice();
+        this.effectivePrice = product.getPrice();
+        if (promotion != null) {
+            this.discountPercent = promotion.getDiscountPercent();
+            this.promotionId = promotion.getId();
+            this.promotionName = promotion.getName();
+            this.promotionEndsAt = promotion.getEndDate();
+            this.effectivePrice = product.getPrice() * (1 - promotion.getDiscountPercent() / 100.0);
+        }
+        this.version = version;
+        this.computedAt = computedAt;
+    }
+
+    /**
+     * Whether the customer-facing price differs from another entry's
+     */
+    public boolean priceDiffers(PriceBookEntry other) {
+        return other == null
+                || other.basePrice != basePrice
+                || other.effectivePrice != effectivePrice
+                || !Objects.equals(other.promotionId, promotionId);
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return promotionEndsAt != null && !now.isBefore(promotionEndsAt);
+    }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getCategoryId() { return categoryId; }
+    public void setCategoryId(String categoryId) { this.categoryId = categoryId; }
+
+    public double getBasePrice() { return basePrice; }
+    public void setBasePrice(double basePrice) { this.basePrice = basePrice; }
+
+    public double getEffectivePrice() { return effectivePrice; }
+    public void setEffectivePrice(double effectivePrice) { this.effectivePrice = effectivePrice; }
+
+    public Double getDiscountPercent() { return discountPercent; }
+    public void setDiscountPercent(Double discountPercent) { this.discountPercent = discountPercent; }
+
+    public String getPromotionId() { return promotionId; }
+    public void setPromotionId(String promotionId) { this.promotionId = promotionId; }
+
+    public String getPromotionName() { return promotionName; }
+    public void setPromotionName(String promotionName) { this.promotionName = promotionName; }
+
+    public LocalDateTime getPromotionEndsAt() { return promotionEndsAt; }
+    public void setPromotionEndsAt(LocalDateTime promotionEndsAt) { this.promotionEndsAt = promotionEndsAt; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public void setComputedAt(LocalDateTime computedAt) { this.computedAt = computedAt; }
+}
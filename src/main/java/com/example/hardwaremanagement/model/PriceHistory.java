@@ -0,0 +1,80 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One year of a product's effective price changes, appended with $push as they happen.
+ * Id is productId:year, so a product's history is a handful of small documents.
+ */
+@Document(collection = "price_history")
+@CompoundIndex(name = "productId_year", def = "{'productId': 1, 'year': 1}")
+public class PriceHistory {
+    @Id
+    private String id;
+    private String productId;
+    private int year;
+    private List<Point> points = new ArrayList<>();
+
+    public static String idOf(String productId, int year) {
+        return productId + ":" + year;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public int getYear() { return year; }
+    public void setYear(int year) { this.year = year; }
+
+    public List<Point> getPoints() { return points; }
+    public void setPoints(List<Point> points) { this.points = points; }
+
+    /**
+     * Price in effect from the given time until the next point
+     */
+    public static class Point {
+        private LocalDateTime at;
+        private double basePrice;
+        private double effectivePrice;
+        private Double discountPercent;
+        private String promotionId;
+        private String promotionName;
+
+        public Point() {}
+
+        public Point(PriceBookEntry entry) {
+            this.at = entry.getComputedAt();
+            this.basePrice = entry.getBasePrice();
+            this.effectivePrice = entry.getEffectivePrice();
+            this.discountPercent = entry.getDiscountPercent();
+            this.promotionId = entry.getPromotionId();
+            this.promotionName = entry.getPromotionName();
+        }
+
+        public LocalDateTime getAt() { return at; }
+        public void setAt(LocalDateTime at) { this.at = at; }
+
+        public double getBasePrice() { return basePrice; }
+        public void setBasePrice(double basePrice) { this.basePrice = basePrice; }
+
+        public double getEffectivePrice() { return effectivePrice; }
+        public void setEffectivePrice(double effectivePrice) { this.effectivePrice = effectivePrice; }
+
+        public Double getDiscountPercent() { return discountPercent; }
+        public void setDiscountPercent(Double discountPercent) { this.discountPercent = discountPercent; }
+
+        public String getPromotionId() { return promotionId; }
+        public void setPromotionId(String promotionId) { this.promotionId = promotionId; }
+
+        public String getPromotionName() { return promotionName; }
+        public void setPromotionName(String promotionName) { this.promotionName = promotionName; }
+    }
+}
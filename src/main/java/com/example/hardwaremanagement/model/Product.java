@@ -1,6 +1,7 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.List;
 
@@ -14,6 +15,7 @@ public class Product {
     private String categoryId; // reference to Category
     private String description;
     private double price;
+    @Indexed
     private int stock;
     private List<String> images;
     private String brand;
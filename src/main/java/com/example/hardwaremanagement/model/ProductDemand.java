@@ -0,0 +1,171 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running demand statistics for one product: an exponentially weighted moving average (and
+ * variance) of net units sold per day, plus the units of the still-open current day.
+ * Every movement is O(1); closed days are folded into the averages when the day rolls over.
+ */
+@Document(collection = "product_demand")
+public class ProductDemand {
+    // Beyond this many idle days the averages are effectively zero; stop decaying
+    private static final int MAX_DECAY_DAYS = 365;
+
+    @Id
+    private String productId;
+    private double averageDailyUnits;
+    private double dailyUnitsVariance;
+    private long currentDay; // epoch day of the open bucket
+    private long currentDayUnits;
+    private int daysObserved;
+    private String supplierId;
+    private Integer leadTimeDays; // overrides the supplier/default lead time when set
+    private LocalDateTime lastMovementAt;
+
+    // Constructors
+    public ProductDemand() {}
+
+    public ProductDemand(String productId, long today) {
+        this.productId = productId;
+        this.currentDay = today;
+    }
+
+    /**
+     * Record a stock movement: positive units for sales, negative for returns/cancellations
+     */
+    public void recordMovement(long day, long units, double alpha) {
+        rollTo(day, alpha);
+        currentDayUnits += units;
+        lastMovementAt = LocalDateTime.now();
+    }
+
+    /**
+     * Average units per day over closed days, decayed for any idle days up to (excluding) today.
+     * Does not modify this record.
+     */
+    public double averageAsOf(long today, double alpha) {
+        if (today <= currentDay) {
+            return averageDailyUnits;
+        }
+        double average = fold(averageDailyUnits, Math.max(0, currentDayUnits), alpha);
+        return average * Math.pow(1 - alpha, Math.min(today - currentDay - 1, MAX_DECAY_DAYS));
+    }
+
+    /**
+     * Variance counterpart of {@link #averageAsOf}
+     */
+    public double varianceAsOf(long today, double alpha) {
+        if (today <= currentDay) {
+            return dailyUnitsVariance;
+        }
+        double mean = averageDailyUnits;
+        double variance = dailyUnitsVariance;
+        double units = Math.max(0, currentDayUnits);
+        long days = Math.min(today - currentDay, MAX_DECAY_DAYS);
+        for (long d = 0; d < days; d++) {
+            double diff = units - mean;
+            mean += alpha * diff;
+            variance = (1 - alpha) * (variance + alpha * diff * diff);
+            units = 0;
+        }
+        return variance;
+    }
+
+    private void rollTo(long day, double alpha) {
+        if (day <= currentDay) {
+            return; // late events land in the open day
+        }
+        double units = Math.max(0, currentDayUnits);
+        long days = Math.min(day - currentDay, MAX_DECAY_DAYS);
+        for (long d = 0; d < days; d++) {
+            double diff = units - averageDailyUnits;
+            averageDailyUnits += alpha * diff;
+            dailyUnitsVariance = (1 - alpha) * (dailyUnitsVariance + alpha * diff * diff);
+            units = 0;
+        }
+        daysObserved += (int) (day - currentDay);
+        currentDay = day;
+        currentDayUnits = 0;
+    }
+
+    private static double fold(double average, double units, double alpha) {
+        return average + alpha * (units - average);
+    }
+
+    // Getters and Setters
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public double getAverageDailyUnits() {
+        return averageDailyUnits;
+    }
+
+    public void setAverageDailyUnits(double averageDailyUnits) {
+        this.averageDailyUnits = averageDailyUnits;
+    }
+
+    public double getDailyUnitsVariance() {
+        return dailyUnitsVariance;
+    }
+
+    public void setDailyUnitsVariance(double dailyUnitsVariance) {
+        this.dailyUnitsVariance = dailyUnitsVariance;
+    }
+
+    public long getCurrentDay() {
+        return currentDay;
+    }
+
+    public void setCurrentDay(long currentDay) {
+        this.currentDay = currentDay;
+    }
+
+    public long getCurrentDayUnits() {
+        return currentDayUnits;
+    }
+
+    public void setCurrentDayUnits(long currentDayUnits) {
+        this.currentDayUnits = currentDayUnits;
+    }
+
+    public int getDaysObserved() {
+        return daysObserved;
+    }
+
+    public void setDaysObserved(int daysObserved) {
+        this.daysObserved = daysObserved;
+    }
+
+    public String getSupplierId() {
+        return supplierId;
+    }
+
+    public void setSupplierId(String supplierId) {
+        this.supplierId = supplierId;
+    }
+
+    public Integer getLeadTimeDays() {
+        return leadTimeDays;
+    }
+
+    public void setLeadTimeDays(Integer leadTimeDays) {
+        this.leadTimeDays = leadTimeDays;
+    }
+
+    public LocalDateTime getLastMovementAt() {
+        return lastMovementAt;
+    }
+
+    public void setLastMovementAt(LocalDateTime lastMovementAt) {
+        this.lastMovementAt = lastMovementAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running rating totals of one product's approved reviews. Kept current with $inc as reviews
+ * change status or rating, so a product's stars are a single document read.
+ */
+@Document(collection = "product_ratings")
+public class ProductRating {
+    @Id
+    private String productId;
+    private long count;
+    private long sum;
+    private Map<String, Long> starCounts = new HashMap<>(); // "1".."5" -> reviews with that rating
+
+    public ProductRating() {}
+
+    public ProductRating(String productId) {
+        this.productId = productId;
+    }
+
+    public double getAverage() {
+        return count > 0 ? Math.round((double) sum / count * 10.0) / 10.0 : 0.0;
+    }
+
+    public long getStarCount(int stars) {
+        Long value = starCounts != null ? starCounts.get(Integer.toString(stars)) : null;
+        return value != null ? value : 0L;
+    }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getSum() { return sum; }
+    public void setSum(long sum) { this.sum = sum; }
+
+    public Map<String, Long> getStarCounts() { return starCounts; }
+    public void setStarCounts(Map<String, Long> starCounts) { this.starCounts = starCounts; }
+}
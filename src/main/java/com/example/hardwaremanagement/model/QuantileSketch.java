@@ -0,0 +1,190 @@
+package com.example.hardwaremanagement.model;
+
+import org.springframework.data.annotation.Transient;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest quantile sketch.
+ * Values are summarised as at most ~{@value #COMPRESSION} weighted centroids, kept small near
+ * the tails (scale function k1) so high percentiles stay accurate. Digests merge by
+ * re-compressing the union of their centroids, so daily digests can be combined into any range.
+ * Embedded in {@link DailyOrderSketch}; not thread-safe.
+ */
+public class QuantileSketch {
+    private static final double COMPRESSION = 100;
+    private static final int BUFFER_SIZE = 500;
+
+    // Centroids sorted by mean
+    private double[] means = new double[0];
+    private long[] weights = new long[0];
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    // Values added since the last compression; compressed before the sketch is read or saved
+    @Transient
+    private double[] bufferMeans = new double[BUFFER_SIZE];
+    @Transient
+    private long[] bufferWeights = new long[BUFFER_SIZE];
+    @Transient
+    private int bufferSize;
+
+    public void add(double value) {
+        add(value, 1);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(QuantileSketch other) {
+        other.compress();
+        for (int i = 0; i < other.means.length; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Estimated value at quantile q (0..1), or null for an empty sketch
+     */
+    public Double quantile(double q) {
+        compress();
+        if (count == 0) {
+            return null;
+        }
+        if (means.length == 1) {
+            return means[0];
+        }
+
+        double index = q * count;
+        double firstHalf = weights[0] / 2.0;
+        if (index < firstHalf) {
+            return min + (means[0] - min) * index / firstHalf;
+        }
+
+        // Each centroid's mass is centred on its mean; interpolate between neighbouring centres
+        double cumulative = firstHalf;
+        for (int i = 0; i < means.length - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2.0;
+            if (cumulative + gap > index) {
+                double t = (index - cumulative) / gap;
+                return means[i] + t * (means[i + 1] - means[i]);
+            }
+            cumulative += gap;
+        }
+
+        int last = means.length - 1;
+        double lastHalf = weights[last] / 2.0;
+        return means[last] + (max - means[last]) * Math.min(1.0, (index - cumulative) / lastHalf);
+    }
+
+    public long getCount() {
+        return count + Arrays.stream(bufferWeights, 0, bufferSize).sum();
+    }
+
+    /**
+     * Fold buffered values into the centroid list
+     */
+    public void compress() {
+        if (bufferSize == 0) {
+            return;
+        }
+
+        int total = means.length + bufferSize;
+        double[] allMeans = new double[total];
+        long[] allWeights = new long[total];
+        System.arraycopy(means, 0, allMeans, 0, means.length);
+        System.arraycopy(weights, 0, allWeights, 0, weights.length);
+        System.arraycopy(bufferMeans, 0, allMeans, means.length, bufferSize);
+        System.arraycopy(bufferWeights, 0, allWeights, weights.length, bufferSize);
+
+        Integer[] order = new Integer[total];
+        long totalWeight = 0;
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+            totalWeight += allWeights[i];
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double[] mergedMeans = new double[total];
+        long[] mergedWeights = new long[total];
+        int merged = 0;
+        double currentMean = allMeans[order[0]];
+        long currentWeight = allWeights[order[0]];
+        long weightSoFar = 0;
+
+        for (int i = 1; i < total; i++) {
+            double mean = allMeans[order[i]];
+            long weight = allWeights[order[i]];
+            double q0 = (double) weightSoFar / totalWeight;
+            double q2 = (double) (weightSoFar + currentWeight + weight) / totalWeight;
+            if (scale(q2) - scale(q0) <= 1) {
+                currentMean += (mean - currentMean) * weight / (currentWeight + weight);
+                currentWeight += weight;
+            } else {
+                mergedMeans[merged] = currentMean;
+                mergedWeights[merged++] = currentWeight;
+                weightSoFar += currentWeight;
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        mergedMeans[merged] = currentMean;
+        mergedWeights[merged++] = currentWeight;
+
+        means = Arrays.copyOf(mergedMeans, merged);
+        weights = Arrays.copyOf(mergedWeights, merged);
+        count = totalWeight;
+        bufferSize = 0;
+    }
+
+    private void add(double mean, long weight) {
+        if (bufferSize == BUFFER_SIZE) {
+            compress();
+        }
+        bufferMeans[bufferSize] = mean;
+        bufferWeights[bufferSize++] = weight;
+    }
+
+    private static double scale(double q) {
+        return COMPRESSION / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    // Getters and Setters (used for persistence)
+    public double[] getMeans() {
+        return means;
+    }
+
+    public void setMeans(double[] means) {
+        this.means = means;
+    }
+
+    public long[] getWeights() {
+        return weights;
+    }
+
+    public void setWeights(long[] weights) {
+        this.weights = weights;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public void setMin(double min) {
+        this.min = min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+}
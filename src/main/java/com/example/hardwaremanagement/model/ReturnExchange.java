@@ -1,6 +1,7 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -10,6 +11,7 @@ import java.util.List;
 public class ReturnExchange {
     @Id
     private String id;
+    @Indexed
     private String orderId;
     private String customerId;
     private String customerEmail;
@@ -1,12 +1,20 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "reviews")
+@CompoundIndexes({
+    // Keyset listing of a product's reviews per sort order (sort key desc, _id desc)
+    @CompoundIndex(name = "product_status_createdAt", def = "{'productId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "product_status_rating", def = "{'productId': 1, 'status': 1, 'rating': -1, '_id': -1}"),
+    @CompoundIndex(name = "product_status_helpful", def = "{'productId': 1, 'status': 1, 'helpfulCount': -1, '_id': -1}")
+})
 public class Review {
     @Id
     private String id;
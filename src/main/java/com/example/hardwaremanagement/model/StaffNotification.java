@@ -1,11 +1,21 @@
 package com.example.hardwaremanagement.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import java.time.LocalDateTime;
 
 @Document(collection = "staff_notifications")
+@CompoundIndexes({
+    // Keyset listing (createdAt desc, _id desc) with and without filters
+    @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "read_createdAt", def = "{'read': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "read_priority_createdAt", def = "{'read': 1, 'priority': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "priority_createdAt", def = "{'priority': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "type_createdAt", def = "{'type': 1, 'createdAt': -1, '_id': -1}")
+})
 public class StaffNotification {
     
     @Id
@@ -38,7 +48,7 @@ public class StaffNotification {
         this();
         this.title = title;
         this.message = message;
-        this.priority = priority;
+        this.priority = normalizePriority(priority);
         this.type = type;
     }
     
@@ -88,7 +98,7 @@ public class StaffNotification {
     }
     
     public void setPriority(String priority) {
-        this.priority = priority;
+        this.priority = normalizePriority(priority);
     }
     
     public String getType() {
@@ -132,6 +142,11 @@ public class StaffNotification {
     }
     
     // Utility methods
+    // Stored uppercase so the priority filters (and their index) match whatever case was sent
+    private static String normalizePriority(String priority) {
+        return priority != null ? priority.trim().toUpperCase() : null;
+    }
+
     public boolean isHighPriority() {
         return "HIGH".equalsIgnoreCase(this.priority);
     }
@@ -12,6 +12,7 @@ public class Supplier {
     private String contactEmail;
     private String phone;
     private String address;
+    private Integer leadTimeDays; // typical days from purchase order to delivery
 
     // getters & setters
 
@@ -54,4 +55,12 @@ public class Supplier {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public Integer getLeadTimeDays() {
+        return leadTimeDays;
+    }
+
+    public void setLeadTimeDays(Integer leadTimeDays) {
+        this.leadTimeDays = leadTimeDays;
+    }
 }
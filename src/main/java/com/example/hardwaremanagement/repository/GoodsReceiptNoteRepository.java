@@ -4,6 +4,7 @@ import com.example.hardwaremanagement.model.GoodsReceiptNote;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for GRN (Goods Receipt Note) operations
@@ -24,4 +25,24 @@ public interface GoodsReceiptNoteRepository extends MongoRepository<GoodsReceipt
      * Find all GRNs by status
      */
     List<GoodsReceiptNote> findByStatus(String status);
+
+    /**
+     * Stream all GRNs from a cursor (oldest receipt first) - for exports that must not hold every GRN in memory
+     */
+    Stream<GoodsReceiptNote> streamAllByOrderByReceivedDateAsc();
+
+    /**
+     * Stream GRNs for a specific Purchase Order from a cursor
+     */
+    Stream<GoodsReceiptNote> streamByPurchaseOrderIdOrderByReceivedDateAsc(String purchaseOrderId);
+
+    /**
+     * Stream GRNs for a specific Supplier from a cursor
+     */
+    Stream<GoodsReceiptNote> streamBySupplierIdOrderByReceivedDateAsc(String supplierId);
+
+    /**
+     * Stream GRNs by status from a cursor
+     */
+    Stream<GoodsReceiptNote> streamByStatusOrderByReceivedDateAsc(String status);
 }
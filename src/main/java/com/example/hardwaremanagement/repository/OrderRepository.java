@@ -8,6 +8,7 @@ import java.util.List;
 
 public interface OrderRepository extends MongoRepository<Order, String> {
     List<Order> findByCustomerIdOrderByPlacedAtDesc(String customerId);
+    boolean existsByCustomerId(String customerId);
     List<Order> findByStatusOrderByPlacedAtDesc(OrderStatus status);
     List<Order> findByStatusInOrderByPlacedAtDesc(List<OrderStatus> statuses);
     List<Order> findByDeliveryStaffIdAndStatus(String deliveryStaffId, OrderStatus status);
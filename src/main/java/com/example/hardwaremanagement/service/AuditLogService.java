@@ -0,0 +1,233 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.AuditLog;
+import com.example.hardwaremanagement.repository.AuditLogRepository;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Audit log queries that stay cheap as the collection grows: exports stream from an indexed
+ * cursor and stats are computed by Mongo aggregations.
+ *
+ * Unfiltered stats are served from in-memory counters that are seeded by one aggregation,
+ * bumped on every recorded entry and re-seeded periodically (and after bulk deletes) so they
+ * cannot drift for long.
+ */
+@Service
+public class AuditLogService {
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Documents fetched per cursor round trip and rows written between flushes
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final String UNKNOWN = "unknown";
+
+    private volatile Counters counters;
+
+    public AuditLog create(AuditLog log) {
+        if (log.getTimestamp() == null) {
+            log.setTimestamp(LocalDateTime.now());
+        }
+        AuditLog saved = auditLogRepository.save(log);
+        recordCreated(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Count entries written outside {@link #create} (e.g. batched inserts)
+     */
+    public void recordCreated(Collection<AuditLog> logs) {
+        Counters current = counters;
+        if (current == null) {
+            return; // not seeded yet - the first stats request aggregates everything anyway
+        }
+        for (AuditLog log : logs) {
+            current.total.increment();
+            current.byAction.computeIfAbsent(keyOf(log.getAction()), k -> new LongAdder()).increment();
+            current.byUser.computeIfAbsent(keyOf(log.getPerformedBy()), k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Drop the counters after entries were deleted; the next stats request re-seeds them
+     */
+    public void invalidateCounters() {
+        counters = null;
+    }
+
+    @Scheduled(fixedDelayString = "${audit.stats.reseed-ms:600000}")
+    public void reseedCounters() {
+        if (counters != null) {
+            counters = Counters.from(aggregateStats(null, null));
+        }
+    }
+
+    /**
+     * Stream matching entries as CSV, oldest first. The caller owns the stream.
+     * @param from Inclusive first day (null for open-ended)
+     * @param to Inclusive last day (null for open-ended)
+     */
+    public void streamCsv(LocalDate from, LocalDate to, String performedBy, String action,
+                          OutputStream out) throws IOException {
+        Query query = new Query(filter(from, to, performedBy, action))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp"))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+
+        // Writers are flushed but never closed: the caller owns the underlying stream
+        CSVPrinter csvPrinter = new CSVPrinter(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)),
+                CSVFormat.DEFAULT.builder().setHeader("id", "timestamp", "performedBy", "action", "target").build());
+
+        try (Stream<AuditLog> logs = mongoTemplate.stream(query, AuditLog.class)) {
+            Iterator<AuditLog> iterator = logs.iterator();
+            long rows = 0;
+            while (iterator.hasNext()) {
+                AuditLog log = iterator.next();
+                csvPrinter.printRecord(log.getId(), log.getTimestamp(), log.getPerformedBy(), log.getAction(),
+                        log.getTarget());
+                if (++rows % EXPORT_BATCH_SIZE == 0) {
+                    csvPrinter.flush();
+                }
+            }
+        }
+        csvPrinter.flush();
+    }
+
+    /**
+     * Totals by action and by user, optionally limited to a date range
+     */
+    public Map<String, Object> getStats(LocalDate from, LocalDate to) {
+        if (from != null || to != null) {
+            return aggregateStats(from, to).toResponse();
+        }
+
+        Counters current = counters;
+        if (current == null) {
+            synchronized (this) {
+                current = counters;
+                if (current == null) {
+                    current = Counters.from(aggregateStats(null, null));
+                    counters = current;
+                }
+            }
+        }
+        return current.toStats().toResponse();
+    }
+
+    /**
+     * One round trip: $facet with a count and two $group branches
+     */
+    private Stats aggregateStats(LocalDate from, LocalDate to) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (from != null || to != null) {
+            operations.add(Aggregation.match(filter(from, to, null, null)));
+        }
+        operations.add(Aggregation.facet(Aggregation.count().as("count")).as("total")
+                .and(Aggregation.group("action").count().as("count")).as("byAction")
+                .and(Aggregation.group("performedBy").count().as("count")).as("byUser"));
+
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(operations),
+                AuditLog.class, Document.class).getUniqueMappedResult();
+
+        Stats stats = new Stats();
+        if (result == null) {
+            return stats;
+        }
+        for (Document total : result.getList("total", Document.class)) {
+            stats.total = ((Number) total.get("count")).longValue();
+        }
+        for (Document group : result.getList("byAction", Document.class)) {
+            stats.byAction.put(keyOf(group.get("_id")), ((Number) group.get("count")).longValue());
+        }
+        for (Document group : result.getList("byUser", Document.class)) {
+            stats.byUser.put(keyOf(group.get("_id")), ((Number) group.get("count")).longValue());
+        }
+        return stats;
+    }
+
+    private Criteria filter(LocalDate from, LocalDate to, String performedBy, String action) {
+        Criteria criteria = new Criteria();
+        if (performedBy != null && !performedBy.isBlank()) {
+            criteria = Criteria.where("performedBy").is(performedBy);
+        }
+        if (action != null && !action.isBlank()) {
+            criteria = criteria.and("action").is(action);
+        }
+        if (from != null || to != null) {
+            Criteria timestamp = criteria.and("timestamp");
+            if (from != null) {
+                timestamp.gte(from.atStartOfDay());
+            }
+            if (to != null) {
+                timestamp.lt(to.plusDays(1).atStartOfDay());
+            }
+        }
+        return criteria;
+    }
+
+    private static String keyOf(Object value) {
+        return value != null ? value.toString() : UNKNOWN;
+    }
+
+    private static class Stats {
+        long total;
+        final Map<String, Long> byAction = new HashMap<>();
+        final Map<String, Long> byUser = new HashMap<>();
+
+        Map<String, Object> toResponse() {
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("total", total);
+            resp.put("byAction", byAction);
+            resp.put("byUser", byUser);
+            return resp;
+        }
+    }
+
+    private static class Counters {
+        final LongAdder total = new LongAdder();
+        final Map<String, LongAdder> byAction = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> byUser = new ConcurrentHashMap<>();
+
+        static Counters from(Stats stats) {
+            Counters counters = new Counters();
+            counters.total.add(stats.total);
+            stats.byAction.forEach((key, count) -> counters.byAction.computeIfAbsent(key, k -> new LongAdder()).add(count));
+            stats.byUser.forEach((key, count) -> counters.byUser.computeIfAbsent(key, k -> new LongAdder()).add(count));
+            return counters;
+        }
+
+        Stats toStats() {
+            Stats stats = new Stats();
+            stats.total = total.sum();
+            byAction.forEach((key, count) -> stats.byAction.put(key, count.sum()));
+            byUser.forEach((key, count) -> stats.byUser.put(key, count.sum()));
+            return stats;
+        }
+    }
+}
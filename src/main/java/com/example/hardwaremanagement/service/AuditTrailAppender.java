@@ -0,0 +1,251 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.AuditLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail writer. Request threads only build an entry and offer it to a
+ * bounded lock-free ring buffer; one background thread drains it and writes entries with a
+ * single insertMany per batch, once a batch is full or the oldest entry has waited flush-ms.
+ *
+ * When the buffer is full the entry is dropped (and counted) or, with overflow-policy=BLOCK,
+ * the caller waits until the flusher has made room.
+ */
+@Service
+public class AuditTrailAppender {
+
+    public enum OverflowPolicy { DROP, BLOCK }
+
+    private static final String SYSTEM_USER = "system";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    // Rounded up to a power of two
+    @Value("${audit.appender.capacity:8192}")
+    private int capacity;
+
+    @Value("${audit.appender.batch-size:256}")
+    private int batchSize;
+
+    @Value("${audit.appender.flush-ms:1000}")
+    private long flushMs;
+
+    @Value("${audit.appender.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    private RingBuffer<AuditLog> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        buffer = new RingBuffer<>(capacity);
+        running = true;
+        flusher = Thread.ofPlatform().daemon().name("audit-flusher").start(this::runFlusher);
+    }
+
+    /**
+     * Stop accepting blocked callers and write whatever is still buffered
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queue an entry for the current user. Never touches the database.
+     * @param action Action name
+     * @param target Affected entity id (may be null)
+     */
+    public void append(String action, String target) {
+        AuditLog log = new AuditLog();
+        log.setAction(action);
+        log.setTarget(target);
+        log.setPerformedBy(currentUser());
+        log.setTimestamp(LocalDateTime.now());
+
+        if (!buffer.offer(log)) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                dropped.increment();
+                return;
+            }
+            while (!buffer.offer(log)) {
+                if (!running) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.unpark(flusher);
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+        }
+        appended.increment();
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("capacity", buffer.capacity());
+        stats.put("pending", buffer.size());
+        stats.put("appended", appended.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("overflowPolicy", overflowPolicy);
+        return stats;
+    }
+
+    private void runFlusher() {
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMs);
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0;
+
+        while (true) {
+            // Read before draining so entries offered before stop() are still written
+            boolean stopping = !running;
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(this, flushNanos);
+                continue;
+            }
+
+            long now = System.nanoTime();
+            if (batchStartedAt == 0) {
+                batchStartedAt = now;
+            }
+            long waited = now - batchStartedAt;
+            if (batch.size() >= batchSize || waited >= flushNanos || stopping) {
+                write(batch);
+                batch.clear();
+                batchStartedAt = 0;
+            } else {
+                LockSupport.parkNanos(this, flushNanos - waited);
+            }
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        try {
+            mongoTemplate.insert(batch, AuditLog.class);
+            written.add(batch.size());
+            auditLogService.recordCreated(batch);
+        } catch (Exception e) {
+            failed.add(batch.size());
+            System.err.println("Failed to write " + batch.size() + " audit log entries: " + e.getMessage());
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : SYSTEM_USER;
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer ring buffer. Each slot carries a sequence number
+     * that tells producers whether it is free for their lap and the consumer whether it is filled.
+     */
+    private static final class RingBuffer<E> {
+        private final AtomicReferenceArray<E> slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+
+        RingBuffer(int requestedCapacity) {
+            int size = 2;
+            while (size < requestedCapacity) {
+                size <<= 1;
+            }
+            slots = new AtomicReferenceArray<>(size);
+            sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+            mask = size - 1;
+        }
+
+        boolean offer(E element) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) position & mask;
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots.set(index, element);
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false; // slot still holds an entry from the previous lap: full
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        /**
+         * Consumer side only
+         */
+        int drainTo(List<E> target, int max) {
+            int drained = 0;
+            long position = head;
+            while (drained < max) {
+                int index = (int) position & mask;
+                if (sequences.get(index) != position + 1) {
+                    break;
+                }
+                target.add(slots.get(index));
+                slots.set(index, null);
+                sequences.set(index, position + mask + 1);
+                position++;
+                drained++;
+            }
+            head = position;
+            return drained;
+        }
+
+        int size() {
+            return (int) Math.max(0, tail.get() - head);
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+}
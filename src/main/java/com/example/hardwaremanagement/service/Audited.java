@@ -0,0 +1,25 @@
+package com.example.hardwaremanagement.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a mutating service method whose successful calls are recorded in the audit trail.
+ * The first String argument (usually the entity id) is stored as the entry's target; methods
+ * without one (creates) use the id of the entity or DTO they return.
+ *
+ * @see AuditTrailAppender
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Audited {
+
+    /**
+     * Action name stored on the audit log entry, e.g. ORDER_CREATE
+     */
+    String value();
+}
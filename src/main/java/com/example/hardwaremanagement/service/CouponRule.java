@@ -0,0 +1,162 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.Coupon;
+import com.example.hardwaremanagement.model.OrderItem;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A coupon compiled for validation: product restrictions are hash sets, and category
+ * restrictions are expanded to the ids of the products in those categories at compile time,
+ * so checking a cart line is one or two set lookups. Everything except the usage counter is
+ * immutable; a changed coupon is recompiled, never modified.
+ */
+public final class CouponRule {
+
+    private final String id;
+    private final String code;
+    private final String description;
+    private final String type;
+    private final double value;
+    private final double minOrderAmount;
+    private final double maxDiscountAmount;
+    private final LocalDateTime validFrom;
+    private final LocalDateTime validUntil;
+    private final int usageLimit;
+    private final int perCustomerLimit;
+    private final boolean firstTimeCustomerOnly;
+    // null = no product/category restriction
+    private final Set<String> eligibleProductIds;
+    private final Set<String> excludedProductIds;
+    // Seeded from the stored count, bumped by redemptions on this instance
+    private final AtomicInteger usageCount;
+
+    private CouponRule(Coupon coupon, Set<String> eligibleProductIds) {
+        this.id = coupon.getId();
+        this.code = coupon.getCode();
+        this.description = coupon.getDescription();
+        this.type = coupon.getType();
+        this.value = coupon.getValue();
+        this.minOrderAmount = coupon.getMinOrderAmount();
+        this.maxDiscountAmount = coupon.getMaxDiscountAmount();
+        this.validFrom = coupon.getValidFrom();
+        this.validUntil = coupon.getValidUntil();
+        this.usageLimit = coupon.getUsageLimit();
+        this.perCustomerLimit = coupon.getPerCustomerLimit();
+        this.firstTimeCustomerOnly = coupon.isFirstTimeCustomerOnly();
+        this.eligibleProductIds = eligibleProductIds;
+        this.excludedProductIds = immutableIds(coupon.getExcludedProducts());
+        this.usageCount = new AtomicInteger(coupon.getUsageCount());
+    }
+
+    /**
+     * @param categoryProductIds Ids of the products in the coupon's applicable categories
+     */
+    public static CouponRule compile(Coupon coupon, Set<String> categoryProductIds) {
+        boolean restrictsProducts = coupon.getApplicableProducts() != null && !coupon.getApplicableProducts().isEmpty();
+        boolean restrictsCategories = coupon.getApplicableCategories() != null && !coupon.getApplicableCategories().isEmpty();
+
+        Set<String> eligible = null;
+        if (restrictsProducts || restrictsCategories) {
+            // A line qualifies if its product is listed or belongs to a listed category
+            Set<String> ids = new HashSet<>(categoryProductIds);
+            if (restrictsProducts) {
+                ids.addAll(coupon.getApplicableProducts());
+            }
+            eligible = immutableIds(ids);
+        }
+        return new CouponRule(coupon, eligible);
+    }
+
+    private static Set<String> immutableIds(Collection<String> ids) {
+        if (ids == null) {
+            return Set.of();
+        }
+        Set<String> copy = new HashSet<>(ids);
+        copy.remove(null);
+        return Set.copyOf(copy);
+    }
+
+    public boolean isNotYetValid(LocalDateTime now) {
+        return validFrom != null && now.isBefore(validFrom);
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return validUntil != null && now.isAfter(validUntil);
+    }
+
+    public boolean isUsageLimitReached() {
+        return usageLimit > 0 && usageCount.get() >= usageLimit;
+    }
+
+    public void recordUsage() {
+        usageCount.incrementAndGet();
+    }
+
+    /**
+     * Cart value the coupon applies to
+     */
+    public double eligibleAmount(List<OrderItem> items) {
+        double eligible = 0.0;
+        for (OrderItem item : items) {
+            String productId = item.getProductId();
+            if (excludedProductIds.contains(productId)) {
+                continue;
+            }
+            if (eligibleProductIds != null && !eligibleProductIds.contains(productId)) {
+                continue;
+            }
+            eligible += item.getUnitPrice() * item.getQuantity();
+        }
+        return eligible;
+    }
+
+    /**
+     * Discount for the eligible amount, capped by the maximum discount and the amount itself
+     */
+    public double discountFor(double eligibleAmount) {
+        double discount = 0.0;
+        if ("PERCENTAGE".equals(type)) {
+            discount = eligibleAmount * (value / 100.0);
+        } else if ("FIXED_AMOUNT".equals(type)) {
+            discount = value;
+        }
+
+        // Apply maximum discount cap
+        if (maxDiscountAmount > 0 && discount > maxDiscountAmount) {
+            discount = maxDiscountAmount;
+        }
+
+        // Don't allow discount to exceed eligible amount
+        return Math.min(discount, eligibleAmount);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public double getMinOrderAmount() {
+        return minOrderAmount;
+    }
+
+    public int getPerCustomerLimit() {
+        return perCustomerLimit;
+    }
+
+    public boolean isFirstTimeCustomerOnly() {
+        return firstTimeCustomerOnly;
+    }
+}
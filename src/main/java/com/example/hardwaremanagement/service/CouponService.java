@@ -1,17 +1,33 @@
 package com.example.hardwaremanagement.service;
 
 import com.example.hardwaremanagement.model.Coupon;
+import com.example.hardwaremanagement.model.CouponCustomerUsage;
 import com.example.hardwaremanagement.model.CouponUsage;
 import com.example.hardwaremanagement.model.OrderItem;
+import com.example.hardwaremanagement.model.Product;
 import com.example.hardwaremanagement.repository.CouponRepository;
 import com.example.hardwaremanagement.repository.CouponUsageRepository;
 import com.example.hardwaremanagement.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Service
 public class CouponService {
@@ -19,21 +35,64 @@ public class CouponService {
     private final CouponRepository couponRepository;
     private final CouponUsageRepository usageRepository;
     private final OrderRepository orderRepository;
+    private final MongoTemplate mongoTemplate;
+
+    // Compiled rules of active coupons by code; recompiled after the TTL so category membership
+    // and other instances' changes are picked up. Unknown codes are not cached: validation is
+    // public, so caching misses would let callers grow the map with made-up codes.
+    private final Map<String, CachedRule> rules = new ConcurrentHashMap<>();
+    private final AtomicLong rulesGeneration = new AtomicLong();
+
+    // Redemption tokens this node reserved for coupons with a token block size
+    private final RedemptionTokenPool tokenPool = new RedemptionTokenPool(this::reserveTokenBlock);
+    private static final int MAX_BLOCK_RESERVE_ATTEMPTS = 20;
+
+    // Per-customer usage counts, least recently used evicted first
+    private final Map<String, CustomerUsage> customerUsage;
+
+    @Value("${coupons.rules.ttl-ms:300000}")
+    private long rulesTtlMs;
+
+    @Value("${coupons.usage-cache.ttl-ms:600000}")
+    private long usageCacheTtlMs;
+
+    private record CachedRule(CouponRule rule, long compiledAt) {}
+
+    private static class CustomerUsage {
+        final AtomicLong count;
+        final long loadedAt;
+
+        CustomerUsage(long count, long loadedAt) {
+            this.count = new AtomicLong(count);
+            this.loadedAt = loadedAt;
+        }
+    }
 
     public CouponService(CouponRepository couponRepository, 
                         CouponUsageRepository usageRepository,
-                        OrderRepository orderRepository) {
+                        OrderRepository orderRepository,
+                        MongoTemplate mongoTemplate,
+                        @Value("${coupons.usage-cache.max-entries:10000}") int usageCacheMaxEntries) {
         this.couponRepository = couponRepository;
         this.usageRepository = usageRepository;
         this.orderRepository = orderRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.customerUsage = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CustomerUsage> eldest) {
+                return size() > usageCacheMaxEntries;
+            }
+        };
     }
 
     /**
      * Validate and calculate discount for a coupon
      */
     public Map<String, Object> validateCoupon(String code, String customerId, double orderTotal, List<OrderItem> items) {
-        Coupon coupon = couponRepository.findByCodeAndIsActive(code, true)
-            .orElseThrow(() -> new RuntimeException("Invalid or inactive coupon code"));
+        CouponRule coupon = getRule(code);
+        if (coupon == null) {
+            throw new RuntimeException("Invalid or inactive coupon code");
+        }
 
         Map<String, Object> result = new HashMap<>();
         result.put("valid", false);
@@ -42,24 +101,24 @@ public class CouponService {
 
         // Check validity period
         LocalDateTime now = LocalDateTime.now();
-        if (coupon.getValidFrom() != null && now.isBefore(coupon.getValidFrom())) {
+        if (coupon.isNotYetValid(now)) {
             result.put("message", "Coupon is not yet valid");
             return result;
         }
-        if (coupon.getValidUntil() != null && now.isAfter(coupon.getValidUntil())) {
+        if (coupon.isExpired(now)) {
             result.put("message", "Coupon has expired");
             return result;
         }
 
-        // Check usage limit
-        if (coupon.getUsageLimit() > 0 && coupon.getUsageCount() >= coupon.getUsageLimit()) {
+        // Check usage limit (a hot coupon may still have tokens on this node)
+        if (coupon.isUsageLimitReached() && tokenPool.getAvailable(coupon.getId()) == 0) {
             result.put("message", "Coupon usage limit reached");
             return result;
         }
 
         // Check per-customer limit
         if (coupon.getPerCustomerLimit() > 0) {
-            long customerUsage = usageRepository.countByCouponIdAndCustomerId(coupon.getId(), customerId);
+            long customerUsage = getCustomerUsage(coupon.getId(), customerId);
             if (customerUsage >= coupon.getPerCustomerLimit()) {
                 result.put("message", "You have already used this coupon maximum times");
                 return result;
@@ -68,8 +127,7 @@ public class CouponService {
 
         // Check first-time customer restriction
         if (coupon.isFirstTimeCustomerOnly()) {
-            long previousOrders = orderRepository.count(); // Simplified check
-            if (previousOrders > 0) {
+            if (customerId == null || orderRepository.existsByCustomerId(customerId)) {
                 result.put("message", "This coupon is only for first-time customers");
                 return result;
             }
@@ -82,30 +140,14 @@ public class CouponService {
         }
 
         // Calculate eligible amount (for category/product restrictions)
-        double eligibleAmount = calculateEligibleAmount(coupon, items);
+        double eligibleAmount = coupon.eligibleAmount(items);
         
         if (eligibleAmount == 0) {
             result.put("message", "No eligible items in cart for this coupon");
             return result;
         }
 
-        // Calculate discount
-        double discount = 0.0;
-        if ("PERCENTAGE".equals(coupon.getType())) {
-            discount = eligibleAmount * (coupon.getValue() / 100.0);
-        } else if ("FIXED_AMOUNT".equals(coupon.getType())) {
-            discount = coupon.getValue();
-        }
-
-        // Apply maximum discount cap
-        if (coupon.getMaxDiscountAmount() > 0 && discount > coupon.getMaxDiscountAmount()) {
-            discount = coupon.getMaxDiscountAmount();
-        }
-
-        // Don't allow discount to exceed eligible amount
-        if (discount > eligibleAmount) {
-            discount = eligibleAmount;
-        }
+        double discount = coupon.discountFor(eligibleAmount);
 
         result.put("valid", true);
         result.put("discountAmount", Math.round(discount * 100.0) / 100.0);
@@ -118,51 +160,91 @@ public class CouponService {
     }
 
     /**
-     * Calculate eligible amount based on category/product restrictions
+     * Drop every compiled rule, e.g. after a coupon or a product's category changed
      */
-    private double calculateEligibleAmount(Coupon coupon, List<OrderItem> items) {
-        double eligible = 0.0;
-
-        for (OrderItem item : items) {
-            boolean isEligible = true;
+    public void invalidateRules() {
+        rulesGeneration.incrementAndGet();
+        rules.clear();
+    }
 
-            // Check excluded products
-            if (coupon.getExcludedProducts() != null && 
-                coupon.getExcludedProducts().contains(item.getProductId())) {
-                isEligible = false;
-            }
+    /**
+     * Compiled rule for an active coupon code (null if there is none), from the cache when fresh
+     */
+    private CouponRule getRule(String code) {
+        CachedRule cached = rules.get(code);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.compiledAt() < rulesTtlMs) {
+            return cached.rule();
+        }
 
-            // Check applicable products (if specified)
-            if (isEligible && coupon.getApplicableProducts() != null && 
-                !coupon.getApplicableProducts().isEmpty()) {
-                isEligible = coupon.getApplicableProducts().contains(item.getProductId());
-            }
+        long generation = rulesGeneration.get();
+        CouponRule rule = couponRepository.findByCodeAndIsActive(code, true).map(this::compile).orElse(null);
+        if (rule == null) {
+            rules.remove(code);
+            return null;
+        }
+        CachedRule loaded = new CachedRule(rule, now);
+        rules.put(code, loaded);
+        if (rulesGeneration.get() != generation) {
+            rules.remove(code, loaded); // invalidated while compiling; don't keep a stale rule
+        }
+        return loaded.rule();
+    }
 
-            // Check applicable categories (if specified)
-            if (isEligible && coupon.getApplicableCategories() != null && 
-                !coupon.getApplicableCategories().isEmpty()) {
-                // This would require category information in OrderItem
-                // For now, assume eligible if no category restriction
-            }
+    private CouponRule compile(Coupon coupon) {
+        Set<String> categoryProductIds = Set.of();
+        if (coupon.getApplicableCategories() != null && !coupon.getApplicableCategories().isEmpty()) {
+            // Categories may be referenced by id or (legacy) by name
+            Query query = new Query(new Criteria().orOperator(
+                    Criteria.where("categoryId").in(coupon.getApplicableCategories()),
+                    Criteria.where("category").in(coupon.getApplicableCategories())));
+            query.fields().include("_id");
+            categoryProductIds = mongoTemplate.find(query, Product.class).stream()
+                    .map(Product::getId)
+                    .collect(Collectors.toSet());
+        }
+        return CouponRule.compile(coupon, categoryProductIds);
+    }
 
-            if (isEligible) {
-                eligible += item.getUnitPrice() * item.getQuantity();
+    /**
+     * Times the customer used the coupon: counted once, then kept current by recordUsage
+     */
+    private long getCustomerUsage(String couponId, String customerId) {
+        String key = couponId + ":" + customerId;
+        long now = System.currentTimeMillis();
+        synchronized (customerUsage) {
+            CustomerUsage cached = customerUsage.get(key);
+            if (cached != null && now - cached.loadedAt < usageCacheTtlMs) {
+                return cached.count.get();
             }
         }
 
-        return eligible;
+        long count = usageRepository.countByCouponIdAndCustomerId(couponId, customerId);
+        synchronized (customerUsage) {
+            customerUsage.put(key, new CustomerUsage(count, now));
+        }
+        return count;
     }
 
     /**
-     * Record coupon usage
+     * Record coupon usage. The per-customer and total limits are each enforced by one
+     * conditional $inc, so concurrent redemptions can never go past either limit.
      */
+    @Audited("COUPON_REDEEM")
     public void recordUsage(String couponId, String customerId, String orderId, double discountAmount) {
         Coupon coupon = couponRepository.findById(couponId)
-            .orElseThrow(() -> new RuntimeException("Coupon not found"));
+            .orElseThrow(() -> new NoSuchElementException("Coupon not found"));
 
-        // Increment usage count
-        coupon.setUsageCount(coupon.getUsageCount() + 1);
-        couponRepository.save(coupon);
+        boolean perCustomer = coupon.getPerCustomerLimit() > 0 && customerId != null;
+        if (perCustomer && !incrementCustomerUsage(coupon, customerId)) {
+            throw new RuntimeException("You have already used this coupon maximum times");
+        }
+        if (!takeRedemption(coupon)) {
+            if (perCustomer) {
+                decrementCustomerUsage(couponId, customerId);
+            }
+            throw new RuntimeException("Coupon usage limit reached");
+        }
 
         // Record usage
         CouponUsage usage = new CouponUsage();
@@ -172,12 +254,142 @@ public class CouponService {
         usage.setOrderId(orderId);
         usage.setDiscountAmount(discountAmount);
         usage.setUsedAt(LocalDateTime.now());
-        usageRepository.save(usage);
+        try {
+            usageRepository.save(usage);
+        } catch (RuntimeException e) {
+            returnRedemption(coupon);
+            if (perCustomer) {
+                decrementCustomerUsage(couponId, customerId);
+            }
+            throw e;
+        }
+
+        CachedRule cached = rules.get(coupon.getCode());
+        if (cached != null) {
+            cached.rule().recordUsage();
+        }
+        synchronized (customerUsage) {
+            CustomerUsage cachedUsage = customerUsage.get(couponId + ":" + customerId);
+            if (cachedUsage != null) {
+                cachedUsage.count.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Count one redemption against the total limit: a token from this node's block for hot
+     * coupons, otherwise $inc usageCount only while it is below usageLimit
+     */
+    private boolean takeRedemption(Coupon coupon) {
+        if (coupon.usesTokenBlocks()) {
+            return tokenPool.tryAcquire(coupon.getId(), coupon.getTokenBlockSize());
+        }
+
+        Criteria criteria = Criteria.where("_id").is(coupon.getId()).and("usageLimit").is(coupon.getUsageLimit());
+        if (coupon.getUsageLimit() > 0) {
+            criteria = criteria.and("usageCount").lt(coupon.getUsageLimit());
+        }
+        Update increment = new Update().inc("usageCount", 1);
+        if (mongoTemplate.updateFirst(new Query(criteria), increment, Coupon.class).getModifiedCount() == 1) {
+            return true;
+        }
+
+        // Either the limit is reached or it was just changed; decide on the current value
+        Coupon current = couponRepository.findById(coupon.getId()).orElse(null);
+        if (current == null || current.getUsageLimit() == coupon.getUsageLimit()) {
+            return false;
+        }
+        return takeRedemption(current);
+    }
+
+    private void returnRedemption(Coupon coupon) {
+        if (coupon.usesTokenBlocks()) {
+            tokenPool.release(coupon.getId());
+        } else {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(coupon.getId())),
+                    new Update().inc("usageCount", -1), Coupon.class);
+        }
+    }
+
+    /**
+     * Reserve up to the requested number of redemptions for this node. Compare-and-set on the
+     * observed count, so a block is only ever granted out of what is left.
+     */
+    private int reserveTokenBlock(String couponId, int requested) {
+        for (int attempt = 0; attempt < MAX_BLOCK_RESERVE_ATTEMPTS; attempt++) {
+            Query byId = new Query(Criteria.where("_id").is(couponId));
+            byId.fields().include("usageCount", "usageLimit");
+            Coupon coupon = mongoTemplate.findOne(byId, Coupon.class);
+            if (coupon == null) {
+                return 0;
+            }
+            int remaining = coupon.getUsageLimit() - coupon.getUsageCount();
+            int granted = Math.min(requested, remaining);
+            if (granted <= 0) {
+                return 0;
+            }
+            Query unchanged = new Query(Criteria.where("_id").is(couponId)
+                    .and("usageCount").is(coupon.getUsageCount())
+                    .and("usageLimit").is(coupon.getUsageLimit()));
+            if (mongoTemplate.updateFirst(unchanged, new Update().inc("usageCount", granted), Coupon.class)
+                    .getModifiedCount() == 1) {
+                return granted;
+            }
+        }
+        throw new RuntimeException("Coupon is busy, please try again");
+    }
+
+    /**
+     * Hand this node's unused tokens of a coupon back to its shared counter
+     */
+    private void returnTokens(String couponId, int count) {
+        if (count > 0) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(couponId)),
+                    new Update().inc("usageCount", -count), Coupon.class);
+        }
+    }
+
+    @PreDestroy
+    public void returnUnusedTokens() {
+        tokenPool.drain().forEach((couponId, count) -> {
+            try {
+                returnTokens(couponId, count);
+            } catch (Exception e) {
+                System.err.println("Failed to return " + count + " redemption tokens of coupon " + couponId
+                        + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * $inc the customer's counter only while it is below the per-customer limit. The counter is
+     * seeded from the usage history the first time the customer redeems the coupon.
+     */
+    private boolean incrementCustomerUsage(Coupon coupon, String customerId) {
+        String id = CouponCustomerUsage.idOf(coupon.getId(), customerId);
+        if (!mongoTemplate.exists(new Query(Criteria.where("_id").is(id)), CouponCustomerUsage.class)) {
+            long used = usageRepository.countByCouponIdAndCustomerId(coupon.getId(), customerId);
+            try {
+                mongoTemplate.insert(new CouponCustomerUsage(coupon.getId(), customerId, used));
+            } catch (DuplicateKeyException e) {
+                // seeded concurrently
+            }
+        }
+        Query belowLimit = new Query(Criteria.where("_id").is(id).and("count").lt(coupon.getPerCustomerLimit()));
+        return mongoTemplate.updateFirst(belowLimit, new Update().inc("count", 1), CouponCustomerUsage.class)
+                .getModifiedCount() == 1;
+    }
+
+    private void decrementCustomerUsage(String couponId, String customerId) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(CouponCustomerUsage.idOf(couponId, customerId))),
+                new Update().inc("count", -1), CouponCustomerUsage.class);
     }
 
     /**
      * Create a new coupon
      */
+    @Audited("COUPON_CREATE")
     public Coupon createCoupon(Coupon coupon) {
         // Check if code already exists
         if (couponRepository.findByCode(coupon.getCode()).isPresent()) {
@@ -186,12 +398,15 @@ public class CouponService {
 
         coupon.setCreatedAt(LocalDateTime.now());
         coupon.setUsageCount(0);
-        return couponRepository.save(coupon);
+        Coupon saved = couponRepository.save(coupon);
+        invalidateRules();
+        return saved;
     }
 
     /**
      * Update coupon
      */
+    @Audited("COUPON_UPDATE")
     public Coupon updateCoupon(String id, Coupon update) {
         Coupon existing = couponRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Coupon not found"));
@@ -203,15 +418,35 @@ public class CouponService {
         if (update.getUsageLimit() > 0) existing.setUsageLimit(update.getUsageLimit());
         if (update.getMinOrderAmount() >= 0) existing.setMinOrderAmount(update.getMinOrderAmount());
         existing.setActive(update.isActive());
-
-        return couponRepository.save(existing);
+        if (update.getTokenBlockSize() != null) existing.setTokenBlockSize(update.getTokenBlockSize());
+
+        // Unused tokens go back before the limit or mode changes
+        returnTokens(id, tokenPool.drain(id));
+
+        // $set only the edited fields: saving the whole document would overwrite usageCount,
+        // which concurrent redemptions keep changing
+        Update changes = new Update()
+                .set("description", existing.getDescription())
+                .set("validFrom", existing.getValidFrom())
+                .set("validUntil", existing.getValidUntil())
+                .set("usageLimit", existing.getUsageLimit())
+                .set("minOrderAmount", existing.getMinOrderAmount())
+                .set("isActive", existing.isActive())
+                .set("tokenBlockSize", existing.getTokenBlockSize());
+        Coupon saved = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(id)), changes,
+                FindAndModifyOptions.options().returnNew(true), Coupon.class);
+        invalidateRules();
+        return saved;
     }
 
     /**
      * Delete coupon
      */
+    @Audited("COUPON_DELETE")
     public void deleteCoupon(String id) {
         couponRepository.deleteById(id);
+        tokenPool.drain(id);
+        invalidateRules();
     }
 
     /**
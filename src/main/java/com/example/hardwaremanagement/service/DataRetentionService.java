@@ -0,0 +1,250 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.AuditLog;
+import com.example.hardwaremanagement.model.StaffNotification;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps time-series collections bounded by age so their working set and index size stop
+ * growing with uptime.
+ *
+ * Each data class has its own policy. Classes without archival get a TTL index and Mongo
+ * expires them on its own. Archived classes are swept nightly instead: expired documents are
+ * appended, oldest first and in batches, to one gzip NDJSON file per month
+ * (archives/&lt;collection&gt;/yyyy-MM.ndjson.gz) and deleted only after the file is synced.
+ */
+@Service
+public class DataRetentionService {
+
+    private static final JsonWriterSettings ARCHIVE_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .build();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Value("${retention.archive-directory:archives}")
+    private String archiveDirectory;
+
+    // Documents archived and deleted per round trip
+    @Value("${retention.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${retention.audit-logs.days:365}")
+    private int auditLogDays;
+
+    @Value("${retention.audit-logs.archive:true}")
+    private boolean archiveAuditLogs;
+
+    @Value("${retention.staff-notifications.days:90}")
+    private int notificationDays;
+
+    @Value("${retention.staff-notifications.archive:false}")
+    private boolean archiveNotifications;
+
+    private List<RetentionPolicy> policies;
+    private String auditLogCollection;
+
+    private record RetentionPolicy(String collection, String timeField, int days, boolean archive) {}
+
+    @PostConstruct
+    public void init() {
+        auditLogCollection = mongoTemplate.getCollectionName(AuditLog.class);
+        policies = List.of(
+                new RetentionPolicy(auditLogCollection, "timestamp", auditLogDays, archiveAuditLogs),
+                new RetentionPolicy(mongoTemplate.getCollectionName(StaffNotification.class), "createdAt",
+                        notificationDays, archiveNotifications));
+
+        for (RetentionPolicy policy : policies) {
+            try {
+                ensureTimeIndex(policy);
+            } catch (Exception e) {
+                System.err.println("Failed to prepare retention index for " + policy.collection() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Nightly sweep, run on its own thread so the shared scheduler threads stay free
+     */
+    @Scheduled(cron = "${retention.cron:0 30 2 * * *}")
+    public void scheduledRetention() {
+        Thread.ofVirtual().name("data-retention").start(() -> {
+            try {
+                applyRetention();
+            } catch (Exception e) {
+                System.err.println("Scheduled retention failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Archive and delete expired documents of every archived data class
+     * @return Documents archived per collection
+     */
+    public synchronized Map<String, Object> applyRetention() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (RetentionPolicy policy : policies) {
+            if (!policy.archive()) {
+                result.put(policy.collection(), "TTL index (" + policy.days() + " days)");
+                continue;
+            }
+            try {
+                long archived = archiveExpired(policy);
+                result.put(policy.collection(), archived);
+                if (archived > 0 && policy.collection().equals(auditLogCollection)) {
+                    auditLogService.invalidateCounters();
+                }
+            } catch (Exception e) {
+                result.put(policy.collection(), "failed: " + e.getMessage());
+                System.err.println("Retention run failed for " + policy.collection() + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Delete everything matching the query a batch of ids at a time, so one request never
+     * turns into a single collection-wide delete
+     * @return Number of documents deleted
+     */
+    public long deleteInBatches(Query query, Class<?> entityClass) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        long deleted = 0;
+        while (true) {
+            Query idQuery = Query.of(query).limit(batchSize);
+            idQuery.fields().include("_id");
+            List<Object> ids = mongoTemplate.find(idQuery, Document.class, collection).stream()
+                    .map(document -> document.get("_id"))
+                    .toList();
+            if (ids.isEmpty()) {
+                return deleted;
+            }
+            deleted += mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), collection).getDeletedCount();
+        }
+    }
+
+    private long archiveExpired(RetentionPolicy policy) throws IOException {
+        Date cutoff = toDate(LocalDate.now().minusDays(policy.days()));
+        long archived = 0;
+
+        while (true) {
+            Query query = new Query(Criteria.where(policy.timeField()).lt(cutoff))
+                    .with(Sort.by(Sort.Direction.ASC, policy.timeField()))
+                    .limit(batchSize);
+            List<Document> batch = mongoTemplate.find(query, Document.class, policy.collection());
+            if (batch.isEmpty()) {
+                return archived;
+            }
+
+            Map<YearMonth, List<Document>> byMonth = new TreeMap<>();
+            for (Document document : batch) {
+                Date time = document.getDate(policy.timeField());
+                YearMonth month = YearMonth.from(time.toInstant().atZone(ZoneId.systemDefault()));
+                byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(document);
+            }
+            for (Map.Entry<YearMonth, List<Document>> entry : byMonth.entrySet()) {
+                appendToArchive(policy.collection(), entry.getKey(), entry.getValue());
+            }
+
+            // Only what was written (and synced) above is deleted
+            List<Object> ids = batch.stream().map(document -> document.get("_id")).toList();
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), policy.collection());
+            archived += batch.size();
+
+            if (batch.size() < batchSize) {
+                return archived;
+            }
+        }
+    }
+
+    /**
+     * Append documents as a new gzip member; concatenated members read back as one stream
+     * (zcat, GZIPInputStream)
+     */
+    private void appendToArchive(String collection, YearMonth month, List<Document> documents) throws IOException {
+        Path file = Paths.get(archiveDirectory, collection, month + ".ndjson.gz");
+        Files.createDirectories(file.getParent());
+
+        try (FileOutputStream fileOut = new FileOutputStream(file.toFile(), true);
+             GZIPOutputStream gzip = new GZIPOutputStream(fileOut);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8))) {
+            for (Document document : documents) {
+                writer.write(document.toJson(ARCHIVE_JSON));
+                writer.write('\n');
+            }
+            writer.flush();
+            gzip.finish();
+            fileOut.getFD().sync();
+        }
+    }
+
+    /**
+     * Archived classes need a plain index on the time field for the sweep; the others get a
+     * TTL index (an existing plain index is converted in place with collMod)
+     */
+    private void ensureTimeIndex(RetentionPolicy policy) {
+        IndexOperations indexOps = mongoTemplate.indexOps(policy.collection());
+        Optional<IndexInfo> existing = indexOps.getIndexInfo().stream()
+                .filter(index -> index.isIndexForFields(List.of(policy.timeField())))
+                .findFirst();
+        long ttlSeconds = TimeUnit.DAYS.toSeconds(policy.days());
+
+        if (policy.archive()) {
+            if (existing.isEmpty()) {
+                indexOps.createIndex(new Index().on(policy.timeField(), Sort.Direction.ASC).named(policy.timeField()));
+            } else if (existing.get().getExpireAfter().isPresent()) {
+                System.err.println("Warning: " + policy.collection() + "." + policy.timeField()
+                        + " has a TTL index; documents may expire before they are archived");
+            }
+            return;
+        }
+
+        if (existing.isEmpty()) {
+            indexOps.createIndex(new Index().on(policy.timeField(), Sort.Direction.ASC)
+                    .named(policy.timeField())
+                    .expire(ttlSeconds));
+        } else if (existing.get().getExpireAfter().map(ttl -> ttl.getSeconds() != ttlSeconds).orElse(true)) {
+            mongoTemplate.executeCommand(new Document("collMod", policy.collection())
+                    .append("index", new Document("keyPattern", new Document(policy.timeField(), 1))
+                            .append("expireAfterSeconds", ttlSeconds)));
+        }
+    }
+
+    private static Date toDate(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.dto.DemandForecastDTO;
+import com.example.hardwaremanagement.model.Product;
+import com.example.hardwaremanagement.model.ProductDemand;
+import com.example.hardwaremanagement.model.Supplier;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks per-product demand velocity incrementally and derives reorder points from it.
+ *
+ * Sales, returns and cancellations are recorded as they happen (O(1) each, in memory) into an
+ * exponentially weighted moving average of daily units; changed products are written to
+ * product_demand in the background. History is never rescanned: a product's statistics start
+ * with its first recorded movement.
+ *
+ * Reorder point = velocity x lead time + z x daily std-dev x sqrt(lead time).
+ */
+@Service
+public class DemandForecastService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Weight of the newest day; 0.1 gives roughly a 3-week memory
+    @Value("${inventory.demand.alpha:0.1}")
+    private double alpha;
+
+    // Safety factor for the reorder point (1.65 ~ 95% cycle service level)
+    @Value("${inventory.demand.service-level-z:1.65}")
+    private double serviceLevelZ;
+
+    @Value("${inventory.demand.default-lead-time-days:7}")
+    private int defaultLeadTimeDays;
+
+    private final Map<String, ProductDemand> demandByProduct = new ConcurrentHashMap<>();
+    private final Set<String> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void loadDemand() {
+        for (ProductDemand demand : mongoTemplate.findAll(ProductDemand.class)) {
+            demandByProduct.put(demand.getProductId(), demand);
+        }
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Units left the shelf (order placed, quick sale)
+     */
+    public void recordSale(String productId, int quantity) {
+        recordMovement(productId, quantity);
+    }
+
+    /**
+     * Units came back (return completed, order cancelled)
+     */
+    public void recordReturn(String productId, int quantity) {
+        recordMovement(productId, -quantity);
+    }
+
+    private void recordMovement(String productId, long units) {
+        if (productId == null || units == 0) {
+            return;
+        }
+        long today = LocalDate.now().toEpochDay();
+        ProductDemand demand = demandByProduct.computeIfAbsent(productId, id -> new ProductDemand(id, today));
+        synchronized (demand) {
+            demand.recordMovement(today, units, alpha);
+        }
+        dirtyProducts.add(productId);
+    }
+
+    /**
+     * Set the supplier and/or a product-specific lead time used for the reorder point
+     */
+    public DemandForecastDTO updateSettings(String productId, String supplierId, Integer leadTimeDays) {
+        Product product = findProducts(List.of(productId)).get(productId);
+        if (product == null) {
+            throw new RuntimeException("Product not found: " + productId);
+        }
+        if (leadTimeDays != null && leadTimeDays < 0) {
+            throw new IllegalArgumentException("leadTimeDays must not be negative");
+        }
+
+        long today = LocalDate.now().toEpochDay();
+        ProductDemand demand = demandByProduct.computeIfAbsent(productId, id -> new ProductDemand(id, today));
+        synchronized (demand) {
+            demand.setSupplierId(supplierId);
+            demand.setLeadTimeDays(leadTimeDays);
+        }
+        dirtyProducts.add(productId);
+        return toForecast(product, demand, loadSupplierLeadTimes());
+    }
+
+    public Optional<DemandForecastDTO> getForecast(String productId) {
+        Product product = findProducts(List.of(productId)).get(productId);
+        if (product == null) {
+            return Optional.empty();
+        }
+        return Optional.of(toForecast(product, demandByProduct.get(productId), loadSupplierLeadTimes()));
+    }
+
+    /**
+     * Forecasts for every product, lowest days of cover first
+     * @param belowReorderPointOnly Only products whose stock is at or below the reorder point
+     */
+    public List<DemandForecastDTO> getForecasts(boolean belowReorderPointOnly) {
+        Map<String, Integer> supplierLeadTimes = loadSupplierLeadTimes();
+        Query query = new Query();
+        query.fields().include("name", "stock");
+
+        return mongoTemplate.find(query, Product.class).stream()
+                .map(product -> toForecast(product, demandByProduct.get(product.getId()), supplierLeadTimes))
+                .filter(forecast -> !belowReorderPointOnly || forecast.isBelowReorderPoint())
+                .sorted(Comparator.comparing(DemandForecastDTO::getDaysOfCover,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Write changed demand records in one unordered bulk request
+     */
+    @Scheduled(fixedDelayString = "${inventory.demand.flush-ms:15000}")
+    public synchronized void flush() {
+        if (dirtyProducts.isEmpty()) {
+            return;
+        }
+        Set<String> batch = Set.copyOf(dirtyProducts);
+        dirtyProducts.removeAll(batch);
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDemand.class);
+            for (String productId : batch) {
+                ProductDemand demand = demandByProduct.get(productId);
+                // Map under the lock so the bulk request never sees a half-applied movement
+                Document document = new Document();
+                synchronized (demand) {
+                    mongoTemplate.getConverter().write(demand, document);
+                }
+                bulk.replaceOne(new Query(Criteria.where("_id").is(productId)), document,
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulk.execute();
+        } catch (Exception e) {
+            dirtyProducts.addAll(batch); // retry on the next run
+            System.err.println("Failed to save product demand: " + e.getMessage());
+        }
+    }
+
+    private DemandForecastDTO toForecast(Product product, ProductDemand demand, Map<String, Integer> supplierLeadTimes) {
+        DemandForecastDTO forecast = new DemandForecastDTO();
+        forecast.setProductId(product.getId());
+        forecast.setProductName(product.getName());
+        forecast.setCurrentStock(product.getStock());
+
+        double velocity = 0;
+        double stdDev = 0;
+        int leadTime = defaultLeadTimeDays;
+        if (demand != null) {
+            long today = LocalDate.now().toEpochDay();
+            synchronized (demand) {
+                velocity = demand.averageAsOf(today, alpha);
+                stdDev = Math.sqrt(demand.varianceAsOf(today, alpha));
+                leadTime = resolveLeadTime(demand, supplierLeadTimes);
+                forecast.setDaysObserved(demand.getDaysObserved());
+                forecast.setLastMovementAt(demand.getLastMovementAt());
+            }
+        }
+
+        int safetyStock = (int) Math.ceil(serviceLevelZ * stdDev * Math.sqrt(leadTime));
+        int reorderPoint = (int) Math.ceil(velocity * leadTime) + safetyStock;
+
+        forecast.setDailyVelocity(velocity);
+        forecast.setDailyVelocityStdDev(stdDev);
+        forecast.setLeadTimeDays(leadTime);
+        forecast.setSafetyStock(safetyStock);
+        forecast.setReorderPoint(reorderPoint);
+        forecast.setDaysOfCover(velocity > 0 ? product.getStock() / velocity : null);
+        forecast.setBelowReorderPoint(reorderPoint > 0 && product.getStock() <= reorderPoint);
+        return forecast;
+    }
+
+    private int resolveLeadTime(ProductDemand demand, Map<String, Integer> supplierLeadTimes) {
+        if (demand.getLeadTimeDays() != null) {
+            return demand.getLeadTimeDays();
+        }
+        if (demand.getSupplierId() != null && supplierLeadTimes.containsKey(demand.getSupplierId())) {
+            return supplierLeadTimes.get(demand.getSupplierId());
+        }
+        return defaultLeadTimeDays;
+    }
+
+    private Map<String, Integer> loadSupplierLeadTimes() {
+        Query query = new Query(Criteria.where("leadTimeDays").ne(null));
+        query.fields().include("leadTimeDays");
+        Map<String, Integer> leadTimes = new HashMap<>();
+        for (Supplier supplier : mongoTemplate.find(query, Supplier.class)) {
+            leadTimes.put(supplier.getId(), supplier.getLeadTimeDays());
+        }
+        return leadTimes;
+    }
+
+    private Map<String, Product> findProducts(Collection<String> productIds) {
+        Query query = new Query(Criteria.where("_id").in(productIds));
+        query.fields().include("name", "stock");
+        return mongoTemplate.find(query, Product.class).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.EmailMessage;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends a batch of outbox messages through a single SMTP connection (JavaMailSender connects
+ * once per send call, however many messages it is given) and reports failures per message.
+ */
+@Component
+public class EmailBatchSender {
+
+    private final JavaMailSender mailSender;
+
+    public EmailBatchSender(JavaMailSender mailSender) {
+        this.mailSender = mailSender;
+    }
+
+    /**
+     * @return Failure per message id; messages not in the map were accepted by the server
+     */
+    public Map<String, Exception> send(List<EmailMessage> messages) {
+        Map<String, Exception> failures = new HashMap<>();
+        Map<MimeMessage, String> idsByMessage = new IdentityHashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>();
+
+        for (EmailMessage message : messages) {
+            try {
+                MimeMessage mimeMessage = toMimeMessage(message);
+                idsByMessage.put(mimeMessage, message.getId());
+                mimeMessages.add(mimeMessage);
+            } catch (MessagingException e) {
+                failures.put(message.getId(), e);
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(mimeMessages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                idsByMessage.values().forEach(id -> failures.put(id, e));
+            } else {
+                e.getFailedMessages().forEach((failed, cause) -> failures.put(idsByMessage.get(failed), cause));
+            }
+        } catch (MailException e) {
+            // e.g. authentication failure: nothing was sent
+            idsByMessage.values().forEach(id -> failures.put(id, e));
+        }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(EmailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+        helper.setTo(message.getTo());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getHtmlBody(), true); // HTML enabled
+        return mimeMessage;
+    }
+}
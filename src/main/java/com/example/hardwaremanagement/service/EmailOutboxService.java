@@ -0,0 +1,290 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.EmailMessage;
+import com.example.hardwaremanagement.model.EmailStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent email outbox. Callers only insert a PENDING message and get its id back; a small
+ * pool of workers claims due messages in batches, sends each batch over one SMTP connection
+ * and records the outcome. Failed messages are retried with exponential backoff (with jitter)
+ * until max-attempts, then marked FAILED.
+ *
+ * Claims expire, so messages held by a worker that died are picked up again; delivery is
+ * therefore at-least-once.
+ */
+@Service
+public class EmailOutboxService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EmailBatchSender batchSender;
+
+    @Value("${email.outbox.workers:2}")
+    private int workerCount;
+
+    // Messages per SMTP connection
+    @Value("${email.outbox.batch-size:20}")
+    private int batchSize;
+
+    // Idle workers re-check the outbox this often (retries, other instances)
+    @Value("${email.outbox.poll-ms:5000}")
+    private long pollMs;
+
+    @Value("${email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.retry-base-ms:30000}")
+    private long retryBaseMs;
+
+    @Value("${email.outbox.retry-max-ms:3600000}")
+    private long retryMaxMs;
+
+    @Value("${email.outbox.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    private ExecutorService workers;
+    private final Semaphore wakeUp = new Semaphore(0);
+    private volatile boolean running;
+
+    private final long startedAt = System.currentTimeMillis();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder lostClaims = new LongAdder();
+    // Enqueue-to-delivery time of delivered messages
+    private volatile double averageLagMs;
+    private volatile long maxLagMs;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::runWorker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp.release(workerCount);
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Persist a message for delivery and wake a worker
+     * @return Outbox id of the message
+     */
+    public String enqueue(String to, String subject, String htmlBody) {
+        EmailMessage message = mongoTemplate.insert(new EmailMessage(to, subject, htmlBody));
+        enqueued.increment();
+        wakeUp.release();
+        return message.getId();
+    }
+
+    /**
+     * Throughput, retry and queue-lag figures
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        double uptimeSeconds = Math.max(1, (System.currentTimeMillis() - startedAt) / 1000.0);
+        metrics.put("enqueued", enqueued.sum());
+        metrics.put("sent", sent.sum());
+        metrics.put("retried", retried.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("batches", batches.sum());
+        metrics.put("lostClaims", lostClaims.sum());
+        metrics.put("sentPerMinute", sent.sum() * 60 / uptimeSeconds);
+        metrics.put("averageDeliveryLagMs", Math.round(averageLagMs));
+        metrics.put("maxDeliveryLagMs", maxLagMs);
+
+        Query pending = new Query(Criteria.where("status").in(EmailStatus.PENDING, EmailStatus.SENDING));
+        metrics.put("pending", mongoTemplate.count(pending, EmailMessage.class));
+        pending.with(Sort.by(Sort.Direction.ASC, "createdAt")).limit(1).fields().include("createdAt");
+        EmailMessage oldest = mongoTemplate.findOne(pending, EmailMessage.class);
+        metrics.put("oldestPendingAgeMs", oldest != null && oldest.getCreatedAt() != null
+                ? Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis() : 0);
+        return metrics;
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                List<EmailMessage> batch = claimBatch();
+                if (batch.isEmpty()) {
+                    wakeUp.drainPermits(); // one check covers every enqueue so far
+                    wakeUp.tryAcquire(pollMs, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Email outbox worker error: " + e.getMessage());
+                try {
+                    Thread.sleep(pollMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim up to batch-size due messages: pick candidate ids, tag them with a claim token in
+     * one updateMulti (losing any race to another worker), then read back what was won
+     */
+    private List<EmailMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Query candidates = new Query(claimable(now))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"))
+                .limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, EmailMessage.class).stream()
+                .map(EmailMessage::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String token = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable(now))),
+                new Update().set("status", EmailStatus.SENDING)
+                        .set("claimToken", token)
+                        .set("claimedUntil", now.plus(Duration.ofMillis(claimTimeoutMs))),
+                EmailMessage.class);
+        return mongoTemplate.find(new Query(Criteria.where("claimToken").is(token)), EmailMessage.class);
+    }
+
+    private static Criteria claimable(LocalDateTime now) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(EmailStatus.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(EmailStatus.SENDING).and("claimedUntil").lt(now));
+    }
+
+    /**
+     * Record each message's outcome, but only while this worker still holds the claim: a
+     * message whose claim expired mid-send may have been reclaimed, and its new owner's state
+     * must not be overwritten. The claim token stays on the message as the record of which
+     * claim wrote the outcome, which is how lost claims are told apart afterwards.
+     */
+    private void deliver(List<EmailMessage> batch) {
+        Map<String, Exception> failures = batchSender.send(batch);
+        batches.increment();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        String token = batch.get(0).getClaimToken();
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmailMessage.class);
+        for (EmailMessage message : batch) {
+            Query claimed = new Query(Criteria.where("_id").is(message.getId()).and("claimToken").is(token));
+            Exception error = failures.get(message.getId());
+            int attempts = message.getAttempts() + 1;
+
+            if (error == null) {
+                bulk.updateOne(claimed, new Update().set("status", EmailStatus.SENT)
+                        .set("sentAt", now)
+                        .set("attempts", attempts)
+                        .unset("claimedUntil"));
+            } else if (attempts >= maxAttempts) {
+                bulk.updateOne(claimed, new Update().set("status", EmailStatus.FAILED)
+                        .set("attempts", attempts)
+                        .set("lastError", String.valueOf(error.getMessage()))
+                        .unset("claimedUntil"));
+            } else {
+                bulk.updateOne(claimed, new Update().set("status", EmailStatus.PENDING)
+                        .set("attempts", attempts)
+                        .set("lastError", String.valueOf(error.getMessage()))
+                        .set("nextAttemptAt", now.plus(Duration.ofMillis(retryDelayMs(attempts))))
+                        .unset("claimedUntil"));
+            }
+        }
+        int matched = bulk.execute().getMatchedCount();
+
+        Set<String> lost = Set.of();
+        if (matched < batch.size()) {
+            // 0-match updates: the message was reclaimed (and re-tagged) by another worker
+            Query reclaimed = new Query(Criteria.where("_id").in(batch.stream().map(EmailMessage::getId).toList())
+                    .and("claimToken").ne(token));
+            reclaimed.fields().include("_id");
+            lost = mongoTemplate.find(reclaimed, EmailMessage.class).stream()
+                    .map(EmailMessage::getId)
+                    .collect(Collectors.toSet());
+        }
+
+        for (EmailMessage message : batch) {
+            if (lost.contains(message.getId())) {
+                lostClaims.increment();
+                System.err.println("Lost the claim on email " + message.getId() + " while sending; outcome not recorded");
+                continue;
+            }
+            Exception error = failures.get(message.getId());
+            if (error == null) {
+                sent.increment();
+                recordLag(Duration.between(message.getCreatedAt(), now).toMillis());
+            } else if (message.getAttempts() + 1 >= maxAttempts) {
+                failed.increment();
+                System.err.println("Giving up on email " + message.getId() + " to " + message.getTo()
+                        + " after " + (message.getAttempts() + 1) + " attempts: " + error.getMessage());
+            } else {
+                retried.increment();
+            }
+        }
+    }
+
+    /**
+     * retry-base-ms doubled per failed attempt, capped at retry-max-ms, +/-20% jitter so a
+     * burst of failures does not retry in lockstep
+     */
+    private long retryDelayMs(int attempts) {
+        double delay = Math.min(retryMaxMs, retryBaseMs * Math.pow(2, attempts - 1));
+        return (long) (delay * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+    }
+
+    private synchronized void recordLag(long lagMs) {
+        averageLagMs = averageLagMs == 0 ? lagMs : averageLagMs * 0.9 + lagMs * 0.1;
+        maxLagMs = Math.max(maxLagMs, lagMs);
+    }
+}
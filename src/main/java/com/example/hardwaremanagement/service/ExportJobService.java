@@ -0,0 +1,465 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.dto.ExportJobDTO;
+import com.example.hardwaremanagement.model.ExportJobStatus;
+import com.example.hardwaremanagement.model.ExportType;
+import com.example.hardwaremanagement.model.GoodsReceiptNote;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Background export jobs.
+ * PDF/Excel/CSV exports are rendered by a small bounded worker pool into files on local disk
+ * instead of on Tomcat request threads. Callers submit a job, poll its status and download the
+ * finished artifact. An identical request made while a job is running, or within the TTL after
+ * it finished, gets the existing job (and file) back instead of rendering again.
+ */
+@Service
+public class ExportJobService {
+
+    @Autowired
+    private ReportsService reportsService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private GoodsReceiptNoteService grnService;
+
+    @Autowired
+    private GRNExportService grnExportService;
+
+    @Value("${exports.jobs.directory:exports}")
+    private String exportDir;
+
+    @Value("${exports.jobs.workers:2}")
+    private int workers;
+
+    @Value("${exports.jobs.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${exports.jobs.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    @Value("${exports.jobs.max-file-size-mb:200}")
+    private long maxFileSizeMb;
+
+    @Value("${exports.jobs.max-range-days:1096}")
+    private long maxRangeDays;
+
+    private ThreadPoolExecutor workerPool;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ExportJob> jobsByKey = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder renderMillis = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path dir = Paths.get(exportDir);
+        Files.createDirectories(dir);
+
+        // Jobs live in memory only, so artifacts left over from a previous run can never be served again
+        try (Stream<Path> leftovers = Files.list(dir)) {
+            leftovers.forEach(this::deleteQuietly);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    /**
+     * Submit an export job, or return the existing job for an identical request.
+     * @throws IllegalArgumentException if the type or parameters are invalid
+     * @throws IllegalStateException if the job queue is full
+     */
+    public ExportJobDTO submit(ExportType type, Map<String, String> params) {
+        if (type == null) {
+            throw new IllegalArgumentException("Export type is required");
+        }
+        Map<String, String> normalized = normalizeParams(type, params == null ? Map.of() : params);
+        String cacheKey = type + normalized.toString();
+
+        ExportJob[] created = new ExportJob[1];
+        ExportJob job = jobsByKey.compute(cacheKey, (key, existing) -> {
+            if (existing != null && isReusable(existing)) {
+                return existing;
+            }
+            created[0] = new ExportJob(type, normalized, cacheKey);
+            return created[0];
+        });
+
+        if (created[0] == null) {
+            cacheHits.increment();
+            return toDTO(job);
+        }
+
+        jobs.put(job.id, job);
+        try {
+            workerPool.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            jobsByKey.remove(cacheKey, job);
+            jobs.remove(job.id);
+            rejected.increment();
+            throw new IllegalStateException("Export queue is full, please try again later");
+        }
+        submitted.increment();
+        return toDTO(job);
+    }
+
+    /**
+     * Get a job by ID
+     */
+    public Optional<ExportJobDTO> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(this::toDTO);
+    }
+
+    /**
+     * Get the rendered file of a completed job
+     * @throws IllegalStateException if the job has not completed (yet)
+     */
+    public Optional<Path> getArtifact(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (job.status != ExportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Export job is " + job.status);
+        }
+        return Files.exists(job.file) ? Optional.of(job.file) : Optional.empty();
+    }
+
+    /**
+     * Queue, throughput and disk usage metrics for the export subsystem
+     */
+    public Map<String, Object> getMetrics() {
+        long artifacts = 0;
+        long artifactBytes = 0;
+        for (ExportJob job : jobs.values()) {
+            if (job.status == ExportJobStatus.COMPLETED) {
+                artifacts++;
+                artifactBytes += job.sizeBytes;
+            }
+        }
+        long finished = completed.sum();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("submitted", submitted.sum());
+        metrics.put("cacheHits", cacheHits.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("completed", finished);
+        metrics.put("failed", failed.sum());
+        metrics.put("queued", workerPool.getQueue().size());
+        metrics.put("running", workerPool.getActiveCount());
+        metrics.put("workers", workers);
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("cachedArtifacts", artifacts);
+        metrics.put("cachedBytes", artifactBytes);
+        metrics.put("averageRenderMillis", finished == 0 ? 0 : renderMillis.sum() / finished);
+        metrics.put("maxFileSizeBytes", maxFileSizeBytes());
+        metrics.put("ttlMinutes", ttlMinutes);
+        return metrics;
+    }
+
+    /**
+     * Drop expired jobs and their files (runs every minute)
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        jobs.values().removeIf(job -> {
+            boolean finished = job.status == ExportJobStatus.COMPLETED || job.status == ExportJobStatus.FAILED;
+            if (!finished || job.completedAt.isAfter(cutoff)) {
+                return false;
+            }
+            jobsByKey.remove(job.cacheKey, job);
+            if (job.file != null) {
+                deleteQuietly(job.file);
+            }
+            return true;
+        });
+    }
+
+    // ==================== Rendering ====================
+
+    private void render(ExportJob job) {
+        job.status = ExportJobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+
+        Path target = Paths.get(exportDir).resolve(job.id + "." + job.type.getExtension());
+        Path partial = Paths.get(exportDir).resolve(job.id + ".part");
+        try {
+            try (SizeLimitedOutputStream out = new SizeLimitedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partial)), maxFileSizeBytes())) {
+                writeExport(job, out);
+                out.flush();
+                job.sizeBytes = out.count;
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+
+            job.file = target;
+            job.completedAt = LocalDateTime.now();
+            job.status = ExportJobStatus.COMPLETED;
+            completed.increment();
+            renderMillis.add(Duration.between(job.startedAt, job.completedAt).toMillis());
+        } catch (Exception e) {
+            deleteQuietly(partial);
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.completedAt = LocalDateTime.now();
+            job.status = ExportJobStatus.FAILED;
+            failed.increment();
+            // Failures are not cached; the next identical request renders again
+            jobsByKey.remove(job.cacheKey, job);
+            System.err.println("Export job " + job.id + " (" + job.type + ") failed: " + job.error);
+        }
+    }
+
+    private void writeExport(ExportJob job, OutputStream out) throws Exception {
+        Map<String, String> params = job.params;
+        switch (job.type) {
+            case SALES_CSV -> exportService.writeSalesReportCsv(
+                    reportsService.generateSalesReport(startDate(params), endDate(params)), out);
+            case SALES_PDF -> exportService.writeSalesReportPdf(
+                    reportsService.generateSalesReport(startDate(params), endDate(params)), out);
+            case SALES_ORDERS_CSV -> exportService.streamOrdersCsv(startDate(params), endDate(params), out);
+            case SALES_LINES_CSV -> exportService.streamOrderLinesCsv(startDate(params), endDate(params), out);
+            case INVENTORY_CSV -> exportService.writeInventoryReportCsv(reportsService.generateInventoryReport(), out);
+            case INVENTORY_PDF -> exportService.writeInventoryReportPdf(reportsService.generateInventoryReport(), out);
+            case GRN_PDF -> grnExportService.writeGRNPdf(findGRN(params.get("id")), out);
+            case GRN_DETAILED_EXCEL -> grnExportService.writeDetailedGRNExcel(findGRN(params.get("id")), out);
+            case GRN_EXCEL -> {
+                try (Stream<GoodsReceiptNote> grns = grnService.streamGRNs(
+                        params.get("status"), params.get("supplierId"), params.get("purchaseOrderId"))) {
+                    grnExportService.writeGRNExcel(grns, out);
+                }
+            }
+        }
+    }
+
+    private GoodsReceiptNote findGRN(String id) {
+        return grnService.getGRNById(id)
+                .orElseThrow(() -> new RuntimeException("GRN not found with id: " + id));
+    }
+
+    // ==================== Helpers ====================
+
+    /**
+     * Validate parameters and resolve relative periods to concrete dates, so identical
+     * requests always produce the same cache key. Unknown parameters are dropped.
+     */
+    private Map<String, String> normalizeParams(ExportType type, Map<String, String> params) {
+        Map<String, String> normalized = new TreeMap<>();
+
+        if (type.isSalesExport()) {
+            LocalDate startDate;
+            LocalDate endDate;
+            String period = params.get("period");
+            if (period != null && !period.isBlank()) {
+                endDate = LocalDate.now();
+                startDate = switch (period.trim().toUpperCase()) {
+                    case "WEEKLY" -> endDate.minusDays(6);
+                    case "MONTHLY" -> endDate.minusDays(29);
+                    case "YEARLY" -> endDate.withDayOfYear(1);
+                    default -> throw new IllegalArgumentException("Unknown period: " + period);
+                };
+            } else {
+                startDate = parseDate(params.get("startDate"), "startDate");
+                endDate = parseDate(params.get("endDate"), "endDate");
+            }
+            if (startDate.isAfter(endDate)) {
+                throw new IllegalArgumentException("startDate must not be after endDate");
+            }
+            if (ChronoUnit.DAYS.between(startDate, endDate) + 1 > maxRangeDays) {
+                throw new IllegalArgumentException("Date range exceeds the limit of " + maxRangeDays + " days");
+            }
+            normalized.put("startDate", startDate.toString());
+            normalized.put("endDate", endDate.toString());
+        } else if (type == ExportType.GRN_PDF || type == ExportType.GRN_DETAILED_EXCEL) {
+            String id = params.get("id");
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("GRN id is required");
+            }
+            normalized.put("id", id.trim());
+        } else if (type == ExportType.GRN_EXCEL) {
+            for (String key : new String[]{"status", "supplierId", "purchaseOrderId"}) {
+                String value = params.get(key);
+                if (value != null && !value.isBlank()) {
+                    normalized.put(key, value.trim());
+                }
+            }
+        }
+
+        return Collections.unmodifiableMap(normalized);
+    }
+
+    private LocalDate parseDate(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be in yyyy-MM-dd format");
+        }
+    }
+
+    private LocalDate startDate(Map<String, String> params) {
+        return LocalDate.parse(params.get("startDate"));
+    }
+
+    private LocalDate endDate(Map<String, String> params) {
+        return LocalDate.parse(params.get("endDate"));
+    }
+
+    private boolean isReusable(ExportJob job) {
+        return switch (job.status) {
+            case QUEUED, RUNNING -> true;
+            case COMPLETED -> job.completedAt.isAfter(LocalDateTime.now().minusMinutes(ttlMinutes))
+                    && Files.exists(job.file);
+            case FAILED -> false;
+        };
+    }
+
+    private long maxFileSizeBytes() {
+        return maxFileSizeMb * 1024 * 1024;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Failed to delete export file: " + path);
+        }
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        ExportJobDTO dto = new ExportJobDTO();
+        dto.setId(job.id);
+        dto.setType(job.type);
+        dto.setParams(job.params);
+        dto.setStatus(job.status);
+        dto.setFileName(job.fileName());
+        dto.setSizeBytes(job.sizeBytes);
+        dto.setError(job.error);
+        dto.setCreatedAt(job.createdAt);
+        dto.setStartedAt(job.startedAt);
+        dto.setCompletedAt(job.completedAt);
+        if (job.status == ExportJobStatus.COMPLETED) {
+            dto.setDownloadUrl("/api/exports/jobs/" + job.id + "/download");
+        }
+        return dto;
+    }
+
+    // Helper classes
+    private static class ExportJob {
+        private final String id = UUID.randomUUID().toString();
+        private final ExportType type;
+        private final Map<String, String> params;
+        private final String cacheKey;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile Path file;
+        private volatile long sizeBytes;
+        private volatile String error;
+
+        ExportJob(ExportType type, Map<String, String> params, String cacheKey) {
+            this.type = type;
+            this.params = params;
+            this.cacheKey = cacheKey;
+        }
+
+        String fileName() {
+            StringBuilder name = new StringBuilder(type.name().toLowerCase().replace('_', '-'));
+            if (params.containsKey("startDate")) {
+                name.append('-').append(params.get("startDate")).append("-to-").append(params.get("endDate"));
+            } else if (params.containsKey("id")) {
+                name.append('-').append(params.get("id"));
+            }
+            return name.append('.').append(type.getExtension()).toString();
+        }
+    }
+
+    /**
+     * Fails the export as soon as it grows past the configured limit instead of filling the disk
+     */
+    private static class SizeLimitedOutputStream extends FilterOutputStream {
+        private final long limit;
+        private long count;
+
+        SizeLimitedOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureCapacity(1);
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureCapacity(len);
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private void ensureCapacity(int len) throws IOException {
+            if (count + len > limit) {
+                throw new IOException("Export exceeds the size limit of " + (limit / (1024 * 1024)) + " MB");
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.hardwaremanagement.service;
 
 import com.example.hardwaremanagement.dto.*;
+import com.example.hardwaremanagement.model.Order;
+import com.example.hardwaremanagement.model.OrderItem;
+import com.example.hardwaremanagement.model.OrderStatus;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
@@ -11,13 +14,26 @@ import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ExportService {
@@ -25,58 +41,75 @@ public class ExportService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    // Orders fetched per cursor round trip and rows written between flushes for streamed exports
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     /**
      * Export sales report to CSV format
      */
     public String exportSalesReportToCsv(SalesReportDTO salesReport) throws IOException {
         StringWriter stringWriter = new StringWriter();
+        writeSalesReportCsv(salesReport, stringWriter);
+        return stringWriter.toString();
+    }
+
+    /**
+     * Write sales report CSV directly to a stream (e.g. the servlet response)
+     */
+    public void writeSalesReportCsv(SalesReportDTO salesReport, OutputStream out) throws IOException {
+        writeSalesReportCsv(salesReport, newBufferedWriter(out));
+    }
+
+    private void writeSalesReportCsv(SalesReportDTO salesReport, Writer writer) throws IOException {
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT);
         
-        try (CSVPrinter csvPrinter = new CSVPrinter(stringWriter, CSVFormat.DEFAULT)) {
-            // Write header information
-            csvPrinter.printRecord("Sales Report");
-            csvPrinter.printRecord("Generated:", salesReport.getReportDate().format(DATETIME_FORMATTER));
-            csvPrinter.printRecord();
-            
-            // Write summary information
-            csvPrinter.printRecord("SUMMARY");
-            csvPrinter.printRecord("Total Revenue", salesReport.getTotalRevenue());
-            csvPrinter.printRecord("Total Sales", salesReport.getTotalSales());
-            csvPrinter.printRecord("Total Orders", salesReport.getTotalOrders());
-            csvPrinter.printRecord("Total Products Sold", salesReport.getTotalProducts());
-            csvPrinter.printRecord();
-            
-            // Write top selling products
-            csvPrinter.printRecord("TOP SELLING PRODUCTS");
-            csvPrinter.printRecord("Product ID", "Product Name", "Category", "Quantity Sold", "Total Revenue", "Unit Price");
-            
-            for (ProductSalesDTO product : salesReport.getTopSellingProducts()) {
-                csvPrinter.printRecord(
-                    product.getProductId(),
-                    product.getProductName(),
-                    product.getCategory(),
-                    product.getQuantitySold(),
-                    product.getTotalRevenue(),
-                    product.getUnitPrice()
-                );
-            }
-            
-            csvPrinter.printRecord();
-            
-            // Write daily sales breakdown
-            csvPrinter.printRecord("DAILY SALES BREAKDOWN");
-            csvPrinter.printRecord("Date", "Revenue", "Orders", "Items Sold");
-            
-            for (DailySalesDTO dailySale : salesReport.getDailySales()) {
-                csvPrinter.printRecord(
-                    dailySale.getDate().format(DATE_FORMATTER),
-                    dailySale.getTotalRevenue(),
-                    dailySale.getTotalOrders(),
-                    dailySale.getTotalItems()
-                );
-            }
+        // Write header information
+        csvPrinter.printRecord("Sales Report");
+        csvPrinter.printRecord("Generated:", salesReport.getReportDate().format(DATETIME_FORMATTER));
+        csvPrinter.printRecord();
+        
+        // Write summary information
+        csvPrinter.printRecord("SUMMARY");
+        csvPrinter.printRecord("Total Revenue", salesReport.getTotalRevenue());
+        csvPrinter.printRecord("Total Sales", salesReport.getTotalSales());
+        csvPrinter.printRecord("Total Orders", salesReport.getTotalOrders());
+        csvPrinter.printRecord("Total Products Sold", salesReport.getTotalProducts());
+        csvPrinter.printRecord();
+        
+        // Write top selling products
+        csvPrinter.printRecord("TOP SELLING PRODUCTS");
+        csvPrinter.printRecord("Product ID", "Product Name", "Category", "Quantity Sold", "Total Revenue", "Unit Price");
+        
+        for (ProductSalesDTO product : salesReport.getTopSellingProducts()) {
+            csvPrinter.printRecord(
+                product.getProductId(),
+                product.getProductName(),
+                product.getCategory(),
+                product.getQuantitySold(),
+                product.getTotalRevenue(),
+                product.getUnitPrice()
+            );
         }
         
-        return stringWriter.toString();
+        csvPrinter.printRecord();
+        
+        // Write daily sales breakdown
+        csvPrinter.printRecord("DAILY SALES BREAKDOWN");
+        csvPrinter.printRecord("Date", "Revenue", "Orders", "Items Sold");
+        
+        for (DailySalesDTO dailySale : salesReport.getDailySales()) {
+            csvPrinter.printRecord(
+                dailySale.getDate().format(DATE_FORMATTER),
+                dailySale.getTotalRevenue(),
+                dailySale.getTotalOrders(),
+                dailySale.getTotalItems()
+            );
+        }
+        
+        csvPrinter.flush();
     }
 
     /**
@@ -84,77 +117,192 @@ public class ExportService {
      */
     public String exportInventoryReportToCsv(InventoryReportDTO inventoryReport) throws IOException {
         StringWriter stringWriter = new StringWriter();
+        writeInventoryReportCsv(inventoryReport, stringWriter);
+        return stringWriter.toString();
+    }
+
+    /**
+     * Write inventory report CSV directly to a stream (e.g. the servlet response)
+     */
+    public void writeInventoryReportCsv(InventoryReportDTO inventoryReport, OutputStream out) throws IOException {
+        writeInventoryReportCsv(inventoryReport, newBufferedWriter(out));
+    }
+
+    private void writeInventoryReportCsv(InventoryReportDTO inventoryReport, Writer writer) throws IOException {
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT);
         
-        try (CSVPrinter csvPrinter = new CSVPrinter(stringWriter, CSVFormat.DEFAULT)) {
-            // Write header information
-            csvPrinter.printRecord("Inventory Report");
-            csvPrinter.printRecord("Generated:", inventoryReport.getReportDate().format(DATETIME_FORMATTER));
-            csvPrinter.printRecord();
-            
-            // Write summary information
-            csvPrinter.printRecord("SUMMARY");
-            csvPrinter.printRecord("Total Products", inventoryReport.getTotalProducts());
-            csvPrinter.printRecord("Total Stock Value", inventoryReport.getTotalStockValue());
-            csvPrinter.printRecord("Low Stock Count", inventoryReport.getLowStockCount());
-            csvPrinter.printRecord("Out of Stock Count", inventoryReport.getOutOfStockCount());
-            csvPrinter.printRecord();
-            
-            // Write all inventory items
-            csvPrinter.printRecord("INVENTORY ITEMS");
-            csvPrinter.printRecord("Product ID", "Product Name", "SKU", "Category", "Brand", "Stock Quantity", "Unit Price", "Stock Value", "Status");
+        // Write header information
+        csvPrinter.printRecord("Inventory Report");
+        csvPrinter.printRecord("Generated:", inventoryReport.getReportDate().format(DATETIME_FORMATTER));
+        csvPrinter.printRecord();
+        
+        // Write summary information
+        csvPrinter.printRecord("SUMMARY");
+        csvPrinter.printRecord("Total Products", inventoryReport.getTotalProducts());
+        csvPrinter.printRecord("Total Stock Value", inventoryReport.getTotalStockValue());
+        csvPrinter.printRecord("Low Stock Count", inventoryReport.getLowStockCount());
+        csvPrinter.printRecord("Out of Stock Count", inventoryReport.getOutOfStockCount());
+        csvPrinter.printRecord();
+        
+        // Write all inventory items
+        csvPrinter.printRecord("INVENTORY ITEMS");
+        csvPrinter.printRecord("Product ID", "Product Name", "SKU", "Category", "Brand", "Stock Quantity", "Unit Price", "Stock Value", "Status");
+        
+        for (InventoryItemDTO item : inventoryReport.getInventoryItems()) {
+            String status = item.isOutOfStock() ? "OUT OF STOCK" : (item.isLowStock() ? "LOW STOCK" : "IN STOCK");
+            csvPrinter.printRecord(
+                item.getProductId(),
+                item.getProductName(),
+                item.getSku(),
+                item.getCategory(),
+                item.getBrand(),
+                item.getCurrentStock(),
+                item.getUnitPrice(),
+                item.getStockValue(),
+                status
+            );
+        }
+        
+        csvPrinter.printRecord();
+        
+        // Write low stock items
+        if (!inventoryReport.getLowStockItems().isEmpty()) {
+            csvPrinter.printRecord("LOW STOCK ITEMS");
+            csvPrinter.printRecord("Product ID", "Product Name", "SKU", "Stock Quantity", "Unit Price");
             
-            for (InventoryItemDTO item : inventoryReport.getInventoryItems()) {
-                String status = item.isOutOfStock() ? "OUT OF STOCK" : (item.isLowStock() ? "LOW STOCK" : "IN STOCK");
+            for (InventoryItemDTO item : inventoryReport.getLowStockItems()) {
                 csvPrinter.printRecord(
                     item.getProductId(),
                     item.getProductName(),
                     item.getSku(),
-                    item.getCategory(),
-                    item.getBrand(),
                     item.getCurrentStock(),
-                    item.getUnitPrice(),
-                    item.getStockValue(),
-                    status
+                    item.getUnitPrice()
                 );
             }
+        }
+        
+        csvPrinter.printRecord();
+        
+        // Write out of stock items
+        if (!inventoryReport.getOutOfStockItems().isEmpty()) {
+            csvPrinter.printRecord("OUT OF STOCK ITEMS");
+            csvPrinter.printRecord("Product ID", "Product Name", "SKU", "Unit Price");
             
-            csvPrinter.printRecord();
-            
-            // Write low stock items
-            if (!inventoryReport.getLowStockItems().isEmpty()) {
-                csvPrinter.printRecord("LOW STOCK ITEMS");
-                csvPrinter.printRecord("Product ID", "Product Name", "SKU", "Stock Quantity", "Unit Price");
-                
-                for (InventoryItemDTO item : inventoryReport.getLowStockItems()) {
-                    csvPrinter.printRecord(
-                        item.getProductId(),
-                        item.getProductName(),
-                        item.getSku(),
-                        item.getCurrentStock(),
-                        item.getUnitPrice()
-                    );
+            for (InventoryItemDTO item : inventoryReport.getOutOfStockItems()) {
+                csvPrinter.printRecord(
+                    item.getProductId(),
+                    item.getProductName(),
+                    item.getSku(),
+                    item.getUnitPrice()
+                );
+            }
+        }
+        
+        csvPrinter.flush();
+    }
+
+    /**
+     * Stream order-level sales data (one row per order) as CSV.
+     * Orders are read from a Mongo cursor in batches and written as they arrive,
+     * so memory use does not grow with the number of orders in the range.
+     */
+    public void streamOrdersCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        Query query = salesOrdersQuery(startDate, endDate);
+        query.fields().include("customerId", "customerEmail", "status", "placedAt", "totalAmount", "items",
+                "totals.currency", "payment.method", "payment.status");
+
+        CSVPrinter csvPrinter = new CSVPrinter(newBufferedWriter(out), CSVFormat.DEFAULT);
+        csvPrinter.printRecord("Order ID", "Placed At", "Status", "Customer ID", "Customer Email",
+                "Line Count", "Items Sold", "Total Amount", "Currency", "Payment Method", "Payment Status");
+
+        try (Stream<Order> orders = mongoTemplate.stream(query, Order.class)) {
+            int rows = 0;
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                List<OrderItem> items = order.getItems() == null ? List.of() : order.getItems();
+                csvPrinter.printRecord(
+                    order.getId(),
+                    order.getPlacedAt().format(DATETIME_FORMATTER),
+                    order.getStatus(),
+                    order.getCustomerId(),
+                    order.getCustomerEmail(),
+                    items.size(),
+                    items.stream().mapToInt(OrderItem::getQuantity).sum(),
+                    order.getTotalAmount(),
+                    order.getTotals() != null ? order.getTotals().getCurrency() : null,
+                    order.getPayment() != null ? order.getPayment().getMethod() : null,
+                    order.getPayment() != null ? order.getPayment().getStatus() : null
+                );
+                if (++rows % EXPORT_BATCH_SIZE == 0) {
+                    csvPrinter.flush(); // push the batch to the client so the download starts early
                 }
             }
-            
-            csvPrinter.printRecord();
-            
-            // Write out of stock items
-            if (!inventoryReport.getOutOfStockItems().isEmpty()) {
-                csvPrinter.printRecord("OUT OF STOCK ITEMS");
-                csvPrinter.printRecord("Product ID", "Product Name", "SKU", "Unit Price");
-                
-                for (InventoryItemDTO item : inventoryReport.getOutOfStockItems()) {
+        }
+
+        csvPrinter.flush();
+    }
+
+    /**
+     * Stream line-item level sales data (one row per order line) as CSV.
+     * Same cursor-based streaming as {@link #streamOrdersCsv}.
+     */
+    public void streamOrderLinesCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        Query query = salesOrdersQuery(startDate, endDate);
+        query.fields().include("customerId", "status", "placedAt", "items");
+
+        CSVPrinter csvPrinter = new CSVPrinter(newBufferedWriter(out), CSVFormat.DEFAULT);
+        csvPrinter.printRecord("Order ID", "Placed At", "Status", "Customer ID",
+                "Product ID", "Product Name", "Quantity", "Unit Price", "Line Total");
+
+        try (Stream<Order> orders = mongoTemplate.stream(query, Order.class)) {
+            int rows = 0;
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                if (order.getItems() == null) {
+                    continue;
+                }
+                String placedAt = order.getPlacedAt().format(DATETIME_FORMATTER);
+                for (OrderItem item : order.getItems()) {
                     csvPrinter.printRecord(
+                        order.getId(),
+                        placedAt,
+                        order.getStatus(),
+                        order.getCustomerId(),
                         item.getProductId(),
-                        item.getProductName(),
-                        item.getSku(),
-                        item.getUnitPrice()
+                        item.getName(),
+                        item.getQuantity(),
+                        item.getUnitPrice(),
+                        item.getUnitPrice() * item.getQuantity()
                     );
+                    if (++rows % EXPORT_BATCH_SIZE == 0) {
+                        csvPrinter.flush();
+                    }
                 }
             }
         }
-        
-        return stringWriter.toString();
+
+        csvPrinter.flush();
+    }
+
+    /**
+     * Non-cancelled orders placed within the date range (inclusive), oldest first,
+     * matching the filter used by the sales report.
+     */
+    private Query salesOrdersQuery(LocalDate startDate, LocalDate endDate) {
+        Query query = new Query(Criteria.where("placedAt")
+                .gte(startDate.atStartOfDay())
+                .lt(endDate.plusDays(1).atStartOfDay())
+                .and("status").ne(OrderStatus.CANCELLED));
+        query.with(Sort.by(Sort.Direction.ASC, "placedAt"));
+        query.cursorBatchSize(EXPORT_BATCH_SIZE);
+        return query;
+    }
+
+    // The caller owns the underlying stream, so writers built on it are flushed but never closed
+    private Writer newBufferedWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
     }
 
     /**
@@ -162,8 +310,18 @@ public class ExportService {
      */
     public byte[] exportSalesReportToPdf(SalesReportDTO salesReport) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeSalesReportPdf(salesReport, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write sales report PDF directly to a stream; the stream is left open for the caller
+     */
+    public void writeSalesReportPdf(SalesReportDTO salesReport, OutputStream out) throws IOException {
+        PdfWriter pdfWriter = new PdfWriter(out);
+        pdfWriter.setCloseStream(false);
         
-        try (PdfWriter writer = new PdfWriter(baos);
+        try (PdfWriter writer = pdfWriter;
              PdfDocument pdfDoc = new PdfDocument(writer);
              Document document = new Document(pdfDoc)) {
             
@@ -247,8 +405,6 @@ public class ExportService {
                 document.add(dailyTable);
             }
         }
-        
-        return baos.toByteArray();
     }
 
     /**
@@ -256,8 +412,18 @@ public class ExportService {
      */
     public byte[] exportInventoryReportToPdf(InventoryReportDTO inventoryReport) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeInventoryReportPdf(inventoryReport, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write inventory report PDF directly to a stream; the stream is left open for the caller
+     */
+    public void writeInventoryReportPdf(InventoryReportDTO inventoryReport, OutputStream out) throws IOException {
+        PdfWriter pdfWriter = new PdfWriter(out);
+        pdfWriter.setCloseStream(false);
         
-        try (PdfWriter writer = new PdfWriter(baos);
+        try (PdfWriter writer = pdfWriter;
              PdfDocument pdfDoc = new PdfDocument(writer);
              Document document = new Document(pdfDoc)) {
             
@@ -372,7 +538,5 @@ public class ExportService {
                 document.add(inventoryTable);
             }
         }
-        
-        return baos.toByteArray();
     }
 }
@@ -2,11 +2,17 @@ package com.example.hardwaremanagement.service;
 
 import com.example.hardwaremanagement.model.GoodsReceiptNote;
 import com.example.hardwaremanagement.model.GRNItem;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
@@ -22,12 +28,31 @@ import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class GRNExportService {
@@ -35,15 +60,65 @@ public class GRNExportService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
     private static final DeviceRgb HEADER_COLOR = new DeviceRgb(41, 128, 185);
     private static final DeviceRgb LIGHT_GRAY = new DeviceRgb(240, 240, 240);
+    private static final DeviceRgb WHITE = new DeviceRgb(255, 255, 255);
+
+    // Parsed once and shared by every document; each PDF only wraps it in its own PdfFont
+    private static final FontProgram REGULAR_FONT = loadFontProgram(StandardFonts.HELVETICA);
+
+    // Layout styles are never modified after creation, so concurrent renders can share them
+    private static final Style CENTERED = new Style().setTextAlignment(TextAlignment.CENTER);
+    private static final Style TABLE_HEADER = new Style()
+            .setBackgroundColor(HEADER_COLOR)
+            .setTextAlignment(TextAlignment.CENTER);
+    private static final Style LABEL = new Style().setBackgroundColor(LIGHT_GRAY);
+
+    // Rendered PDFs kept in memory per render thread while building a batch ZIP
+    private static final int PDF_BATCH_IN_FLIGHT_PER_THREAD = 2;
+
+    // Rows kept in memory per sheet while writing streamed workbooks
+    private static final int EXCEL_ROW_WINDOW = 100;
+    // Column widths (in characters) for the multi-GRN report
+    private static final int[] GRN_REPORT_COLUMN_WIDTHS = {26, 26, 26, 18, 20, 14, 12, 40};
+
+    @Value("${grn.pdf.batch.threads:4}")
+    private int pdfBatchThreads;
+
+    // Bounded pool for batch PDF rendering so a large export cannot starve the request threads
+    private ExecutorService pdfRenderPool;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        pdfRenderPool = Executors.newFixedThreadPool(pdfBatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "grn-pdf-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pdfRenderPool.shutdownNow();
+    }
 
     /**
      * Generate PDF for a single GRN
      */
     public byte[] generateGRNPdf(GoodsReceiptNote grn) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
+        writeGRNPdf(grn, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write the PDF for a single GRN directly to a stream; the stream is left open for the caller
+     */
+    public void writeGRNPdf(GoodsReceiptNote grn, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
+        document.setFont(PdfFontFactory.createFont(REGULAR_FONT, PdfEncodings.WINANSI));
 
         // Add company header
         addCompanyHeader(document);
@@ -70,107 +145,135 @@ public class GRNExportService {
         addFooter(document);
 
         document.close();
-        return baos.toByteArray();
     }
 
     /**
-     * Generate Excel for multiple GRNs
+     * Render the PDFs of many GRNs in parallel and stream them into a ZIP archive.
+     * GRNs are pulled from the stream (e.g. a repository cursor) as render threads free up and
+     * each finished PDF is written to the archive in input order, so only a small window of
+     * rendered PDFs is held in memory. GRNs that fail to render are listed in an errors.txt entry.
+     * The caller owns both streams.
      */
-    public byte[] generateGRNExcel(List<GoodsReceiptNote> grns) throws Exception {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("GRN Report");
-
-        // Create header style
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dataStyle = createDataStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-
-        // Create header row
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {
-                "GRN ID", "PO ID", "Supplier ID", "Received By", 
-                "Received Date", "Status", "Total Items", "Notes"
-        };
-
-        for (int i = 0; i < headers.length; i++) {
-            org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // Add data rows
-        int rowNum = 1;
-        for (GoodsReceiptNote grn : grns) {
-            Row row = sheet.createRow(rowNum++);
-
-            org.apache.poi.ss.usermodel.Cell cell0 = row.createCell(0);
-            cell0.setCellValue(grn.getId());
-            cell0.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell1 = row.createCell(1);
-            cell1.setCellValue(grn.getPurchaseOrderId());
-            cell1.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell2 = row.createCell(2);
-            cell2.setCellValue(grn.getSupplierId());
-            cell2.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell3 = row.createCell(3);
-            cell3.setCellValue(grn.getReceivedBy());
-            cell3.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell4 = row.createCell(4);
-            cell4.setCellValue(grn.getReceivedDate().format(DATE_FORMATTER));
-            cell4.setCellStyle(dateStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell5 = row.createCell(5);
-            cell5.setCellValue(grn.getStatus());
-            cell5.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell6 = row.createCell(6);
-            cell6.setCellValue(grn.getItems().size());
-            cell6.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell7 = row.createCell(7);
-            cell7.setCellValue(grn.getNotes() != null ? grn.getNotes() : "");
-            cell7.setCellStyle(dataStyle);
-        }
-
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+    public void writeGRNPdfZip(Stream<GoodsReceiptNote> grns, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Deque<Future<RenderedPdf>> inFlight = new ArrayDeque<>();
+        List<String> errors = new ArrayList<>();
+        int maxInFlight = pdfBatchThreads * PDF_BATCH_IN_FLIGHT_PER_THREAD;
+
+        try {
+            Iterator<GoodsReceiptNote> iterator = grns.iterator();
+            while (iterator.hasNext()) {
+                GoodsReceiptNote grn = iterator.next();
+                inFlight.add(pdfRenderPool.submit(() -> renderForZip(grn)));
+                if (inFlight.size() >= maxInFlight) {
+                    writeNextZipEntry(zip, inFlight, errors);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeNextZipEntry(zip, inFlight, errors);
+            }
+
+            if (!errors.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("errors.txt"));
+                zip.write(String.join(System.lineSeparator(), errors).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+        } finally {
+            // Client went away or the cursor failed - stop rendering whatever is left
+            inFlight.forEach(future -> future.cancel(true));
         }
+    }
 
-        // Write to byte array
+    /**
+     * Generate Excel for multiple GRNs
+     */
+    public byte[] generateGRNExcel(List<GoodsReceiptNote> grns) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        workbook.write(baos);
-        workbook.close();
-
+        writeGRNExcel(grns.stream(), baos);
         return baos.toByteArray();
     }
 
+    /**
+     * Stream an Excel report for multiple GRNs straight to the given output stream.
+     * Rows are pulled from the stream one at a time (e.g. a repository cursor) and only the last
+     * {@value #EXCEL_ROW_WINDOW} rows are kept in memory; older rows are flushed to a temp file.
+     * The caller owns both streams.
+     */
+    public void writeGRNExcel(Stream<GoodsReceiptNote> grns, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = newStreamingWorkbook();
+        try {
+            Sheet sheet = workbook.createSheet("GRN Report");
+            ExcelStyles styles = new ExcelStyles(workbook);
+
+            // Create header row
+            String[] headers = {
+                    "GRN ID", "PO ID", "Supplier ID", "Received By",
+                    "Received Date", "Status", "Total Items", "Notes"
+            };
+            writeHeaderRow(sheet, headers, styles.header);
+
+            // Add data rows
+            int rowNum = 1;
+            Iterator<GoodsReceiptNote> iterator = grns.iterator();
+            while (iterator.hasNext()) {
+                GoodsReceiptNote grn = iterator.next();
+                Row row = sheet.createRow(rowNum++);
+
+                setCell(row, 0, grn.getId(), styles.data);
+                setCell(row, 1, grn.getPurchaseOrderId(), styles.data);
+                setCell(row, 2, grn.getSupplierId(), styles.data);
+                setCell(row, 3, grn.getReceivedBy(), styles.data);
+                setCell(row, 4, grn.getReceivedDate() != null ? grn.getReceivedDate().format(DATE_FORMATTER) : "", styles.date);
+                setCell(row, 5, grn.getStatus(), styles.data);
+                setCell(row, 6, grn.getItems() != null ? grn.getItems().size() : 0, styles.data);
+                setCell(row, 7, grn.getNotes() != null ? grn.getNotes() : "", styles.data);
+            }
+
+            // Fixed widths: auto-sizing would need every row in memory (or measuring every cell)
+            for (int i = 0; i < GRN_REPORT_COLUMN_WIDTHS.length; i++) {
+                sheet.setColumnWidth(i, GRN_REPORT_COLUMN_WIDTHS[i] * 256);
+            }
+
+            workbook.write(out);
+        } finally {
+            workbook.dispose(); // remove the temp files backing flushed rows
+            workbook.close();
+        }
+    }
+
     /**
      * Generate detailed Excel with items for a single GRN
      */
     public byte[] generateDetailedGRNExcel(GoodsReceiptNote grn) throws Exception {
-        Workbook workbook = new XSSFWorkbook();
-
-        // Sheet 1: GRN Details
-        Sheet detailSheet = workbook.createSheet("GRN Details");
-        addGRNDetailsToExcel(detailSheet, grn, workbook);
-
-        // Sheet 2: Items
-        Sheet itemsSheet = workbook.createSheet("Items");
-        addItemsToExcel(itemsSheet, grn, workbook);
-
-        // Write to byte array
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        workbook.write(baos);
-        workbook.close();
-
+        writeDetailedGRNExcel(grn, baos);
         return baos.toByteArray();
     }
 
+    /**
+     * Write a detailed Excel (details + items sheets) for a single GRN straight to the given output stream
+     */
+    public void writeDetailedGRNExcel(GoodsReceiptNote grn, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = newStreamingWorkbook();
+        try {
+            ExcelStyles styles = new ExcelStyles(workbook);
+
+            // Sheet 1: GRN Details
+            SXSSFSheet detailSheet = workbook.createSheet("GRN Details");
+            addGRNDetailsToExcel(detailSheet, grn, styles);
+
+            // Sheet 2: Items
+            SXSSFSheet itemsSheet = workbook.createSheet("Items");
+            addItemsToExcel(itemsSheet, grn, styles);
+
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
     // ==================== Private Helper Methods ====================
 
     private void addCompanyHeader(Document document) {
@@ -214,7 +317,7 @@ public class GRNExportService {
         if (grn.getNotes() != null && !grn.getNotes().isEmpty()) {
             Cell labelCell = new Cell(1, 1)
                     .add(new Paragraph("Notes:").setBold())
-                    .setBackgroundColor(LIGHT_GRAY);
+                    .addStyle(LABEL);
             Cell valueCell = new Cell(1, 3)
                     .add(new Paragraph(grn.getNotes()));
             table.addCell(labelCell);
@@ -226,7 +329,7 @@ public class GRNExportService {
 
     private void addDetailRow(Table table, String label1, String value1, 
                               String label2, String value2, boolean isFirst) {
-        DeviceRgb bgColor = isFirst ? LIGHT_GRAY : new DeviceRgb(255, 255, 255);
+        DeviceRgb bgColor = isFirst ? LIGHT_GRAY : WHITE;
 
         table.addCell(new Cell().add(new Paragraph(label1).setBold())
                 .setBackgroundColor(bgColor));
@@ -247,28 +350,27 @@ public class GRNExportService {
         for (String header : headers) {
             Cell cell = new Cell()
                     .add(new Paragraph(header).setBold().setFontColor(ColorConstants.WHITE))
-                    .setBackgroundColor(HEADER_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER);
+                    .addStyle(TABLE_HEADER);
             table.addHeaderCell(cell);
         }
 
         // Data rows
         int itemNum = 1;
         for (GRNItem item : grn.getItems()) {
-            DeviceRgb bgColor = (itemNum % 2 == 0) ? LIGHT_GRAY : new DeviceRgb(255, 255, 255);
+            DeviceRgb bgColor = (itemNum % 2 == 0) ? LIGHT_GRAY : WHITE;
 
             table.addCell(new Cell().add(new Paragraph(String.valueOf(itemNum++)))
-                    .setBackgroundColor(bgColor).setTextAlignment(TextAlignment.CENTER));
+                    .setBackgroundColor(bgColor).addStyle(CENTERED));
             table.addCell(new Cell().add(new Paragraph(item.getProductName() != null ? item.getProductName() : "N/A"))
                     .setBackgroundColor(bgColor));
             table.addCell(new Cell().add(new Paragraph(item.getProductId()))
                     .setBackgroundColor(bgColor));
             table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getOrderedQuantity())))
-                    .setBackgroundColor(bgColor).setTextAlignment(TextAlignment.CENTER));
+                    .setBackgroundColor(bgColor).addStyle(CENTERED));
             table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getReceivedQuantity())))
-                    .setBackgroundColor(bgColor).setTextAlignment(TextAlignment.CENTER));
+                    .setBackgroundColor(bgColor).addStyle(CENTERED));
             table.addCell(new Cell().add(new Paragraph(item.getCondition()))
-                    .setBackgroundColor(bgColor).setTextAlignment(TextAlignment.CENTER));
+                    .setBackgroundColor(bgColor).addStyle(CENTERED));
             table.addCell(new Cell().add(new Paragraph(item.getRemarks() != null ? item.getRemarks() : ""))
                     .setBackgroundColor(bgColor));
         }
@@ -291,15 +393,15 @@ public class GRNExportService {
         summaryTable.setMarginLeft(60f);
 
         summaryTable.addCell(new Cell().add(new Paragraph("Total Items:").setBold())
-                .setBackgroundColor(LIGHT_GRAY));
+                .addStyle(LABEL));
         summaryTable.addCell(new Cell().add(new Paragraph(String.valueOf(grn.getItems().size()))));
 
         summaryTable.addCell(new Cell().add(new Paragraph("Total Ordered:").setBold())
-                .setBackgroundColor(LIGHT_GRAY));
+                .addStyle(LABEL));
         summaryTable.addCell(new Cell().add(new Paragraph(String.valueOf(totalOrdered))));
 
         summaryTable.addCell(new Cell().add(new Paragraph("Total Received:").setBold())
-                .setBackgroundColor(LIGHT_GRAY));
+                .addStyle(LABEL));
         summaryTable.addCell(new Cell().add(new Paragraph(String.valueOf(totalReceived))));
 
         document.add(summaryTable);
@@ -339,71 +441,146 @@ public class GRNExportService {
                 .setMarginTop(20));
     }
 
+    private RenderedPdf renderForZip(GoodsReceiptNote grn) {
+        String entryName = "GRN_" + grn.getId() + ".pdf";
+        try {
+            return new RenderedPdf(entryName, generateGRNPdf(grn), null);
+        } catch (Exception e) {
+            System.err.println("Failed to render PDF for GRN " + grn.getId() + ": " + e.getMessage());
+            return new RenderedPdf(entryName, null, grn.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void writeNextZipEntry(ZipOutputStream zip, Deque<Future<RenderedPdf>> inFlight,
+                                   List<String> errors) throws IOException {
+        RenderedPdf pdf;
+        try {
+            pdf = inFlight.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering GRN PDFs", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render GRN PDF", e.getCause());
+        }
+
+        if (pdf.error() != null) {
+            errors.add(pdf.error());
+            return;
+        }
+        zip.putNextEntry(new ZipEntry(pdf.entryName()));
+        zip.write(pdf.content());
+        zip.closeEntry();
+    }
+
+    private record RenderedPdf(String entryName, byte[] content, String error) {}
+
+    private static FontProgram loadFontProgram(String fontName) {
+        try {
+            return FontProgramFactory.createFont(fontName);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load font " + fontName, e);
+        }
+    }
+
     // ==================== Excel Helper Methods ====================
 
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        font.setColor(IndexedColors.WHITE.getIndex());
-        style.setFont(font);
-        style.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
+    private SXSSFWorkbook newStreamingWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        return workbook;
     }
 
-    private CellStyle createDataStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        return style;
+    /**
+     * Cell styles are workbook-scoped and count towards Excel's style limit,
+     * so each workbook creates them once and every row reuses them.
+     */
+    private static class ExcelStyles {
+        private final CellStyle header;
+        private final CellStyle data;
+        private final CellStyle date;
+        private final CellStyle label;
+        private final CellStyle title;
+
+        ExcelStyles(Workbook workbook) {
+            header = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerFont.setColor(IndexedColors.WHITE.getIndex());
+            header.setFont(headerFont);
+            header.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+            header.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            setThinBorders(header);
+            header.setAlignment(HorizontalAlignment.CENTER);
+
+            data = workbook.createCellStyle();
+            setThinBorders(data);
+
+            date = workbook.createCellStyle();
+            setThinBorders(date);
+            date.setDataFormat(workbook.createDataFormat().getFormat("mmm dd, yyyy hh:mm"));
+
+            label = workbook.createCellStyle();
+            Font labelFont = workbook.createFont();
+            labelFont.setBold(true);
+            label.setFont(labelFont);
+            label.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            label.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            title = workbook.createCellStyle();
+            Font titleFont = workbook.createFont();
+            titleFont.setBold(true);
+            titleFont.setFontHeightInPoints((short) 16);
+            title.setFont(titleFont);
+        }
+
+        private static void setThinBorders(CellStyle style) {
+            style.setBorderBottom(BorderStyle.THIN);
+            style.setBorderTop(BorderStyle.THIN);
+            style.setBorderLeft(BorderStyle.THIN);
+            style.setBorderRight(BorderStyle.THIN);
+        }
+    }
+
+    private void writeHeaderRow(Sheet sheet, String[] headers, CellStyle headerStyle) {
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            setCell(headerRow, i, headers[i], headerStyle);
+        }
+    }
+
+    private void setCell(Row row, int column, String value, CellStyle style) {
+        org.apache.poi.ss.usermodel.Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
     }
 
-    private CellStyle createDateStyle(Workbook workbook) {
-        CellStyle style = createDataStyle(workbook);
-        style.setDataFormat(workbook.createDataFormat().getFormat("mmm dd, yyyy hh:mm"));
-        return style;
+    private void setCell(Row row, int column, double value, CellStyle style) {
+        org.apache.poi.ss.usermodel.Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        cell.setCellStyle(style);
     }
 
-    private void addGRNDetailsToExcel(Sheet sheet, GoodsReceiptNote grn, Workbook workbook) {
-        CellStyle labelStyle = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        labelStyle.setFont(font);
-        labelStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        labelStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+    private void addGRNDetailsToExcel(SXSSFSheet sheet, GoodsReceiptNote grn, ExcelStyles styles) {
+        // A single GRN is small, so the sheet can still be auto-sized
+        sheet.trackAllColumnsForAutoSizing();
 
         int rowNum = 0;
 
         // Title
         Row titleRow = sheet.createRow(rowNum++);
-        org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue("GOODS RECEIPT NOTE");
-        CellStyle titleStyle = workbook.createCellStyle();
-        Font titleFont = workbook.createFont();
-        titleFont.setBold(true);
-        titleFont.setFontHeightInPoints((short) 16);
-        titleStyle.setFont(titleFont);
-        titleCell.setCellStyle(titleStyle);
+        setCell(titleRow, 0, "GOODS RECEIPT NOTE", styles.title);
 
         rowNum++; // Empty row
 
         // Details
-        addExcelDetailRow(sheet, rowNum++, "GRN ID:", grn.getId(), labelStyle);
-        addExcelDetailRow(sheet, rowNum++, "Purchase Order ID:", grn.getPurchaseOrderId(), labelStyle);
-        addExcelDetailRow(sheet, rowNum++, "Supplier ID:", grn.getSupplierId(), labelStyle);
-        addExcelDetailRow(sheet, rowNum++, "Received By:", grn.getReceivedBy(), labelStyle);
-        addExcelDetailRow(sheet, rowNum++, "Received Date:", grn.getReceivedDate().format(DATE_FORMATTER), labelStyle);
-        addExcelDetailRow(sheet, rowNum++, "Status:", grn.getStatus(), labelStyle);
+        addExcelDetailRow(sheet, rowNum++, "GRN ID:", grn.getId(), styles.label);
+        addExcelDetailRow(sheet, rowNum++, "Purchase Order ID:", grn.getPurchaseOrderId(), styles.label);
+        addExcelDetailRow(sheet, rowNum++, "Supplier ID:", grn.getSupplierId(), styles.label);
+        addExcelDetailRow(sheet, rowNum++, "Received By:", grn.getReceivedBy(), styles.label);
+        addExcelDetailRow(sheet, rowNum++, "Received Date:", grn.getReceivedDate().format(DATE_FORMATTER), styles.label);
+        addExcelDetailRow(sheet, rowNum++, "Status:", grn.getStatus(), styles.label);
         if (grn.getNotes() != null && !grn.getNotes().isEmpty()) {
-            addExcelDetailRow(sheet, rowNum++, "Notes:", grn.getNotes(), labelStyle);
+            addExcelDetailRow(sheet, rowNum++, "Notes:", grn.getNotes(), styles.label);
         }
 
         // Auto-size columns
@@ -413,26 +590,16 @@ public class GRNExportService {
 
     private void addExcelDetailRow(Sheet sheet, int rowNum, String label, String value, CellStyle labelStyle) {
         Row row = sheet.createRow(rowNum);
-        org.apache.poi.ss.usermodel.Cell labelCell = row.createCell(0);
-        labelCell.setCellValue(label);
-        labelCell.setCellStyle(labelStyle);
-
-        org.apache.poi.ss.usermodel.Cell valueCell = row.createCell(1);
-        valueCell.setCellValue(value);
+        setCell(row, 0, label, labelStyle);
+        row.createCell(1).setCellValue(value);
     }
 
-    private void addItemsToExcel(Sheet sheet, GoodsReceiptNote grn, Workbook workbook) {
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dataStyle = createDataStyle(workbook);
+    private void addItemsToExcel(SXSSFSheet sheet, GoodsReceiptNote grn, ExcelStyles styles) {
+        sheet.trackAllColumnsForAutoSizing();
 
         // Header row
-        Row headerRow = sheet.createRow(0);
         String[] headers = {"#", "Product ID", "Product Name", "Ordered Qty", "Received Qty", "Condition", "Remarks"};
-        for (int i = 0; i < headers.length; i++) {
-            org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
+        writeHeaderRow(sheet, headers, styles.header);
 
         // Data rows
         int rowNum = 1;
@@ -440,33 +607,13 @@ public class GRNExportService {
         for (GRNItem item : grn.getItems()) {
             Row row = sheet.createRow(rowNum++);
 
-            org.apache.poi.ss.usermodel.Cell cell0 = row.createCell(0);
-            cell0.setCellValue(itemNum++);
-            cell0.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell1 = row.createCell(1);
-            cell1.setCellValue(item.getProductId());
-            cell1.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell2 = row.createCell(2);
-            cell2.setCellValue(item.getProductName() != null ? item.getProductName() : "N/A");
-            cell2.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell3 = row.createCell(3);
-            cell3.setCellValue(item.getOrderedQuantity());
-            cell3.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell4 = row.createCell(4);
-            cell4.setCellValue(item.getReceivedQuantity());
-            cell4.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell5 = row.createCell(5);
-            cell5.setCellValue(item.getCondition());
-            cell5.setCellStyle(dataStyle);
-
-            org.apache.poi.ss.usermodel.Cell cell6 = row.createCell(6);
-            cell6.setCellValue(item.getRemarks() != null ? item.getRemarks() : "");
-            cell6.setCellStyle(dataStyle);
+            setCell(row, 0, itemNum++, styles.data);
+            setCell(row, 1, item.getProductId(), styles.data);
+            setCell(row, 2, item.getProductName() != null ? item.getProductName() : "N/A", styles.data);
+            setCell(row, 3, item.getOrderedQuantity(), styles.data);
+            setCell(row, 4, item.getReceivedQuantity(), styles.data);
+            setCell(row, 5, item.getCondition(), styles.data);
+            setCell(row, 6, item.getRemarks() != null ? item.getRemarks() : "", styles.data);
         }
 
         // Auto-size columns
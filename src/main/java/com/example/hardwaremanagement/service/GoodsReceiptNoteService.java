@@ -8,11 +8,16 @@ import com.example.hardwaremanagement.repository.GoodsReceiptNoteRepository;
 import com.example.hardwaremanagement.repository.ProductRepository;
 import com.example.hardwaremanagement.repository.PurchaseOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service for GRN (Goods Receipt Note) operations
@@ -30,12 +35,19 @@ public class GoodsReceiptNoteService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ReportsService reportsService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     /**
      * Create a new GRN and update inventory automatically
      * @param grn The GRN to create
      * @return The created GRN with generated ID
      * @throws RuntimeException if Purchase Order is not found or already received
      */
+    @Audited("GRN_CREATE")
     public GoodsReceiptNote createGRN(GoodsReceiptNote grn) {
         // Validate Purchase Order exists
         PurchaseOrder po = purchaseOrderRepository.findById(grn.getPurchaseOrderId())
@@ -104,6 +116,7 @@ public class GoodsReceiptNoteService {
             
             // Save updated product
             productRepository.save(product);
+            reportsService.invalidateSummaryCache();
         } else {
             throw new RuntimeException("Product not found: " + item.getProductId());
         }
@@ -188,11 +201,61 @@ public class GoodsReceiptNoteService {
         return grnRepository.findByStatus(status);
     }
 
+    /**
+     * Stream GRNs from a database cursor, applying the same filter precedence as the
+     * Excel export (purchase order, then supplier, then status). The caller must close the stream.
+     * @param status Optional status filter
+     * @param supplierId Optional supplier filter
+     * @param purchaseOrderId Optional purchase order filter
+     * @return Stream of matching GRNs, oldest receipt first
+     */
+    public Stream<GoodsReceiptNote> streamGRNs(String status, String supplierId, String purchaseOrderId) {
+        if (purchaseOrderId != null) {
+            return grnRepository.streamByPurchaseOrderIdOrderByReceivedDateAsc(purchaseOrderId);
+        } else if (supplierId != null) {
+            return grnRepository.streamBySupplierIdOrderByReceivedDateAsc(supplierId);
+        } else if (status != null) {
+            return grnRepository.streamByStatusOrderByReceivedDateAsc(status);
+        }
+        return grnRepository.streamAllByOrderByReceivedDateAsc();
+    }
+
+    /**
+     * Stream GRNs received within a date range, oldest first, with optional status/supplier filters.
+     * Backed by a database cursor; the caller must close the stream.
+     * @param from Inclusive lower bound on received date (null for open-ended)
+     * @param to Exclusive upper bound on received date (null for open-ended)
+     */
+    public Stream<GoodsReceiptNote> streamGRNsReceivedBetween(LocalDateTime from, LocalDateTime to,
+                                                             String status, String supplierId) {
+        Criteria criteria = new Criteria();
+        if (from != null || to != null) {
+            Criteria range = Criteria.where("receivedDate");
+            if (from != null) {
+                range.gte(from);
+            }
+            if (to != null) {
+                range.lt(to);
+            }
+            criteria = range;
+        }
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (supplierId != null) {
+            criteria = criteria.and("supplierId").is(supplierId);
+        }
+
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "receivedDate"));
+        return mongoTemplate.stream(query, GoodsReceiptNote.class);
+    }
+
     /**
      * Delete a GRN (typically only used for corrections)
      * Note: This does NOT reverse inventory changes
      * @param id The GRN ID to delete
      */
+    @Audited("GRN_DELETE")
     public void deleteGRN(String id) {
         grnRepository.deleteById(id);
     }
@@ -18,11 +18,14 @@ public class InventoryService {
 
     private final ProductRepository productRepository;
     private final InventoryReservationRepository reservationRepository;
+    private final ReportsService reportsService;
 
     public InventoryService(ProductRepository productRepository, 
-                           InventoryReservationRepository reservationRepository) {
+                           InventoryReservationRepository reservationRepository,
+                           ReportsService reportsService) {
         this.productRepository = productRepository;
         this.reservationRepository = reservationRepository;
+        this.reportsService = reportsService;
     }
 
     /**
@@ -35,6 +38,7 @@ public class InventoryService {
      * @return Reservation object
      */
     @Transactional
+    @Audited("STOCK_RESERVE")
     public InventoryReservation reserveStock(String orderId, String productId, int quantity, 
                                              String customerId, int expiryMinutes) {
         // Verify product exists
@@ -64,6 +68,7 @@ public class InventoryService {
      * Confirm reservation (payment successful)
      */
     @Transactional
+    @Audited("STOCK_RESERVATION_CONFIRM")
     public void confirmReservation(String orderId) {
         List<InventoryReservation> reservations = reservationRepository.findByOrderId(orderId);
         
@@ -78,6 +83,7 @@ public class InventoryService {
                     .orElseThrow(() -> new RuntimeException("Product not found"));
                 product.setStock(product.getStock() - reservation.getQuantity());
                 productRepository.save(product);
+                reportsService.invalidateSummaryCache();
             }
         }
     }
@@ -86,6 +92,7 @@ public class InventoryService {
      * Release reservation (payment failed or cancelled)
      */
     @Transactional
+    @Audited("STOCK_RESERVATION_RELEASE")
     public void releaseReservation(String orderId, String reason) {
         List<InventoryReservation> reservations = reservationRepository.findByOrderId(orderId);
         
@@ -0,0 +1,112 @@
+package com.example.hardwaremanagement.service;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursor for listings sorted by (some field desc, _id desc): the last row's
+ * sort value and id, Base64url encoded. Clients get it in the X-Next-Cursor header and pass it
+ * back as the cursor parameter for the next page. The id is kept as the string the row had;
+ * collections whose _id is stored as an ObjectId convert it with {@link #objectId(String)}.
+ */
+public final class KeysetCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final String value;
+    private final String id;
+
+    private KeysetCursor(String value, String id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * Cursor pointing just after the row with this sort value and id
+     */
+    public static String encode(Object sortValue, String id) {
+        String key = sortValue + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException If the cursor was not produced by encode()
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split("\\|", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(parts[0], parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public LocalDateTime timeValue() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public int intValue() {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Rows strictly after the cursor in (field desc, _id desc) order, for string ids
+     * @param sortValue The cursor's value parsed to the field's type
+     */
+    public Criteria after(String field, Object sortValue) {
+        return after(field, sortValue, Function.identity());
+    }
+
+    /**
+     * Rows strictly after the cursor in (field desc, _id desc) order
+     * @param sortValue The cursor's value parsed to the field's type
+     * @param idOf Converts the cursor's id to the type _id is stored as
+     */
+    public Criteria after(String field, Object sortValue, Function<String, ?> idOf) {
+        return new Criteria().orOperator(
+                Criteria.where(field).lt(sortValue),
+                Criteria.where(field).is(sortValue).and("_id").lt(idOf.apply(id)));
+    }
+
+    /**
+     * Id converter for collections with ObjectId keys
+     * @throws IllegalArgumentException If the id is not an ObjectId
+     */
+    public static ObjectId objectId(String id) {
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new ObjectId(id);
+    }
+
+    /**
+     * 200 with the page, plus the cursor of its last row in X-Next-Cursor if it has any rows
+     */
+    public static <T> ResponseEntity<List<T>> page(List<T> rows, Function<T, String> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!rows.isEmpty()) {
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(rows.get(rows.size() - 1)));
+        }
+        return response.body(rows);
+    }
+}
@@ -35,6 +35,18 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ReportsService reportsService;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private OrderSketchService orderSketchService;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
 
     public OrderDetailDTO getById(String id) {
         Order order = orderRepository.findById(id)
@@ -65,6 +77,7 @@ public class OrderService {
     }
 
 
+    @Audited("ORDER_CREATE")
     public OrderDetailDTO createOrder(CreateOrderRequest request) {
         Order order = new Order();
         order.setCustomerId(resolveCustomerId(request));
@@ -90,10 +103,16 @@ public class OrderService {
             order.setPlacedAt(LocalDateTime.now());
         }
         Order saved = orderRepository.save(order);
+        reportsService.invalidateSummaryCache();
+        orderSketchService.recordOrder(saved);
+        if (saved.getStatus() != OrderStatus.CANCELLED && saved.getItems() != null) {
+            saved.getItems().forEach(item -> demandForecastService.recordSale(item.getProductId(), item.getQuantity()));
+        }
         return toDetail(saved);
     }
 
 
+    @Audited("ORDER_STATUS_UPDATE")
     public OrderDetailDTO updateStatus(String id, OrderStatus status) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + id));
@@ -112,9 +131,31 @@ public class OrderService {
         }
         
         Order saved = orderRepository.save(order);
+        reportsService.invalidateSummaryCache();
+        salesAnalyticsService.onOrderStatusChanged(saved.getId(), previousStatus, saved.getStatus());
+        orderSketchService.onOrderStatusChanged(saved, previousStatus);
+        recordCancellationDemand(saved, previousStatus);
         return toDetail(saved);
     }
 
+    /**
+     * Cancelling an order gives its units back to demand; reinstating it takes them again
+     */
+    private void recordCancellationDemand(Order order, OrderStatus previousStatus) {
+        boolean wasCancelled = previousStatus == OrderStatus.CANCELLED;
+        boolean isCancelled = order.getStatus() == OrderStatus.CANCELLED;
+        if (wasCancelled == isCancelled || order.getItems() == null) {
+            return;
+        }
+        for (OrderItem item : order.getItems()) {
+            if (isCancelled) {
+                demandForecastService.recordReturn(item.getProductId(), item.getQuantity());
+            } else {
+                demandForecastService.recordSale(item.getProductId(), item.getQuantity());
+            }
+        }
+    }
+
     /**
      * Deduct picked quantities from available stock
      * Called when an order is marked as "PICKED"
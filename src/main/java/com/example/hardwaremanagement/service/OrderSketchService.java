@@ -0,0 +1,244 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.dto.OrderDistributionDTO;
+import com.example.hardwaremanagement.model.DailyOrderSketch;
+import com.example.hardwaremanagement.model.HyperLogLog;
+import com.example.hardwaremanagement.model.Order;
+import com.example.hardwaremanagement.model.OrderStatus;
+import com.example.hardwaremanagement.model.QuantileSketch;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Maintains mergeable per-day sketches of orders (distinct customers and order-value
+ * percentiles) so range reports cost O(days) instead of a full order scan.
+ *
+ * New orders are added in memory as they are placed and dirty days are written to
+ * daily_order_sketches in the background. Sketches cannot remove an order, so a day whose
+ * order is cancelled (or un-cancelled) is rebuilt from that day's orders instead.
+ * On first start the sketches are backfilled from the order history; on later starts every
+ * day since the last persisted change is rebuilt, covering changes that were never flushed.
+ */
+@Service
+public class OrderSketchService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final Map<LocalDate, DailyOrderSketch> dailySketches = new ConcurrentHashMap<>();
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+    private final Set<LocalDate> daysToRebuild = ConcurrentHashMap.newKeySet();
+
+    // Guards a day's rebuild marker and sketch swap against orders being recorded for it
+    private final Map<LocalDate, Object> dayLocks = new ConcurrentHashMap<>();
+    // Ids read by the last flush's rebuilds: an order saved before the rebuild read it but
+    // recorded only after the swap is already counted in the new sketch
+    private final Map<LocalDate, Set<String>> rebuiltOrderIds = new ConcurrentHashMap<>();
+
+    // Until the sketches are loaded, changes are recorded as day rebuilds instead
+    private volatile boolean loaded;
+    // Day currently being rebuilt from Mongo; orders for it trigger another rebuild
+    private LocalDate rebuilding;
+
+    /**
+     * Add a newly placed order to its day's sketch
+     */
+    public void recordOrder(Order order) {
+        if (order.getPlacedAt() == null || order.getStatus() == OrderStatus.CANCELLED) {
+            return;
+        }
+        LocalDate day = order.getPlacedAt().toLocalDate();
+        synchronized (dayLock(day)) {
+            if (!loaded || day.equals(rebuilding)) {
+                daysToRebuild.add(day);
+                return;
+            }
+            Set<String> rebuilt = rebuiltOrderIds.get(day);
+            if (rebuilt != null && rebuilt.contains(order.getId())) {
+                return;
+            }
+
+            DailyOrderSketch sketch = dailySketches.computeIfAbsent(day, DailyOrderSketch::new);
+            synchronized (sketch) {
+                sketch.addOrder(customerKey(order), order.getTotalAmount());
+            }
+            dirtyDays.add(day);
+        }
+    }
+
+    /**
+     * Rebuild the order's day if it moved into or out of CANCELLED
+     */
+    public void onOrderStatusChanged(Order order, OrderStatus previousStatus) {
+        boolean wasCancelled = previousStatus == OrderStatus.CANCELLED;
+        boolean isCancelled = order.getStatus() == OrderStatus.CANCELLED;
+        if (wasCancelled != isCancelled && order.getPlacedAt() != null) {
+            daysToRebuild.add(order.getPlacedAt().toLocalDate());
+        }
+    }
+
+    /**
+     * Merge the daily sketches for a date range (inclusive)
+     */
+    public OrderDistributionDTO getDistribution(LocalDate startDate, LocalDate endDate) {
+        HyperLogLog customers = new HyperLogLog();
+        QuantileSketch orderTotals = new QuantileSketch();
+        long orderCount = 0;
+
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            DailyOrderSketch sketch = dailySketches.get(day);
+            if (sketch == null) {
+                continue;
+            }
+            synchronized (sketch) {
+                customers.merge(sketch.getCustomers());
+                orderTotals.merge(sketch.getOrderTotals());
+                orderCount += sketch.getOrderCount();
+            }
+        }
+
+        OrderDistributionDTO distribution = new OrderDistributionDTO();
+        distribution.setStartDate(startDate);
+        distribution.setEndDate(endDate);
+        distribution.setOrderCount(orderCount);
+        distribution.setDistinctCustomers(customers.estimate());
+        distribution.setMinOrderValue(orderTotals.quantile(0));
+        distribution.setMedianOrderValue(orderTotals.quantile(0.5));
+        distribution.setP90OrderValue(orderTotals.quantile(0.9));
+        distribution.setP95OrderValue(orderTotals.quantile(0.95));
+        distribution.setP99OrderValue(orderTotals.quantile(0.99));
+        distribution.setMaxOrderValue(orderTotals.quantile(1));
+        return distribution;
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        // Not loaded yet: the next start rebuilds the recent days anyway
+        if (loaded) {
+            flush();
+        }
+    }
+
+    /**
+     * Load (or backfill) the sketches on the first run, then rebuild and persist changed days
+     */
+    @Scheduled(fixedDelayString = "${reports.sketches.flush-ms:10000}")
+    public synchronized void flush() {
+        try {
+            if (!loaded) {
+                load();
+                loaded = true;
+            }
+
+            // By now every order read by the previous flush's rebuilds has been recorded
+            rebuiltOrderIds.clear();
+            for (LocalDate day : Set.copyOf(daysToRebuild)) {
+                // Mark the day first: an order recorded from here on queues another rebuild
+                // instead of being added to a sketch the stream below may also count it in.
+                // Orders recorded before the mark are in Mongo, so the rebuild counts them.
+                synchronized (dayLock(day)) {
+                    rebuilding = day;
+                    daysToRebuild.remove(day);
+                }
+                Set<String> orderIds = new HashSet<>();
+                DailyOrderSketch sketch = buildDay(day, orderIds);
+                synchronized (dayLock(day)) {
+                    dailySketches.put(day, sketch);
+                    rebuiltOrderIds.put(day, orderIds);
+                    rebuilding = null;
+                }
+                dirtyDays.add(day);
+            }
+
+            for (LocalDate day : Set.copyOf(dirtyDays)) {
+                dirtyDays.remove(day);
+                DailyOrderSketch sketch = dailySketches.get(day);
+                synchronized (sketch) {
+                    sketch.getOrderTotals().compress();
+                    sketch.setUpdatedAt(LocalDateTime.now());
+                    mongoTemplate.save(sketch);
+                }
+            }
+        } catch (Exception e) {
+            LocalDate failed = rebuilding;
+            if (failed != null) {
+                synchronized (dayLock(failed)) {
+                    rebuilding = null;
+                    daysToRebuild.add(failed);
+                }
+            }
+            System.err.println("Failed to update order sketches: " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        LocalDateTime lastUpdated = null;
+        for (DailyOrderSketch sketch : mongoTemplate.findAll(DailyOrderSketch.class)) {
+            dailySketches.put(sketch.getDate(), sketch);
+            if (sketch.getUpdatedAt() != null && (lastUpdated == null || sketch.getUpdatedAt().isAfter(lastUpdated))) {
+                lastUpdated = sketch.getUpdatedAt();
+            }
+        }
+        if (!dailySketches.isEmpty()) {
+            // Orders placed or cancelled after the last flush of the previous run were lost
+            // with it: rebuild every day from then on
+            LocalDate today = LocalDate.now();
+            LocalDate day = lastUpdated != null ? lastUpdated.toLocalDate() : today;
+            for (; !day.isAfter(today); day = day.plusDays(1)) {
+                daysToRebuild.add(day);
+            }
+            return;
+        }
+
+        // First start: one pass over the order history
+        Map<LocalDate, DailyOrderSketch> backfill = new HashMap<>();
+        Criteria placed = Criteria.where("placedAt").ne(null);
+        try (Stream<Order> orders = mongoTemplate.stream(sketchQuery(placed), Order.class)) {
+            orders.forEach(order -> backfill
+                    .computeIfAbsent(order.getPlacedAt().toLocalDate(), DailyOrderSketch::new)
+                    .addOrder(customerKey(order), order.getTotalAmount()));
+        }
+        dailySketches.putAll(backfill);
+        dirtyDays.addAll(backfill.keySet());
+    }
+
+    private DailyOrderSketch buildDay(LocalDate day, Set<String> orderIds) {
+        DailyOrderSketch sketch = new DailyOrderSketch(day);
+        Criteria criteria = Criteria.where("placedAt").gte(day.atStartOfDay()).lt(day.plusDays(1).atStartOfDay());
+        try (Stream<Order> orders = mongoTemplate.stream(sketchQuery(criteria), Order.class)) {
+            orders.forEach(order -> {
+                orderIds.add(order.getId());
+                sketch.addOrder(customerKey(order), order.getTotalAmount());
+            });
+        }
+        return sketch;
+    }
+
+    private Object dayLock(LocalDate day) {
+        return dayLocks.computeIfAbsent(day, d -> new Object());
+    }
+
+    private Query sketchQuery(Criteria criteria) {
+        Query query = new Query(criteria.and("status").ne(OrderStatus.CANCELLED));
+        query.fields().include("customerId", "customerEmail", "placedAt", "totalAmount");
+        return query;
+    }
+
+    private static String customerKey(Order order) {
+        return order.getCustomerId() != null ? order.getCustomerId() : order.getCustomerEmail();
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.Order;
+import com.example.hardwaremanagement.model.PaymentReconciliationFinding;
+import com.example.hardwaremanagement.model.PaymentReconciliationRun;
+import com.example.hardwaremanagement.model.PaymentTransaction;
+import com.example.hardwaremanagement.model.PaymentTransactionStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Checks every order's payment summary against the payment transaction log.
+ *
+ * Orders (by _id) and transactions (by orderId) are read through two cursors sorted on the
+ * same key and merge-joined in one pass, so a run costs two index scans and holds only the
+ * current order, the current order's running transaction totals and one batch of findings,
+ * however many rows there are. Findings are written in batches under the run's id; when the
+ * run completes, the findings of earlier runs are removed.
+ *
+ * Order ids are ObjectIds, whose hex strings sort in the same order; if either cursor ever
+ * goes backwards (ids of mixed types) the run fails instead of reporting false orphans.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    // Payment summary statuses that mean the order was paid (as in OrderService)
+    private static final Set<String> PAID_STATUSES = Set.of("PAID", "AUTHORIZED", "CAPTURED", "COMPLETED", "SUCCESS");
+    private static final double AMOUNT_TOLERANCE = 0.005;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${payments.reconciliation.cursor-batch-size:1000}")
+    private int cursorBatchSize;
+
+    // Findings written per insert
+    @Value("${payments.reconciliation.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Nightly run, started on its own thread so the shared scheduler threads stay free
+     */
+    @Scheduled(cron = "${payments.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledRun() {
+        if (start().isEmpty()) {
+            System.out.println("Scheduled payment reconciliation skipped: a run is already in progress");
+        }
+    }
+
+    /**
+     * Start a run on a background thread
+     * @return The new run, or empty if one is already in progress
+     */
+    public Optional<PaymentReconciliationRun> start() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        PaymentReconciliationRun run = createRun();
+        Thread.ofVirtual().name("payment-reconciliation").start(() -> execute(run));
+        return Optional.of(run);
+    }
+
+    /**
+     * Run a reconciliation on the calling thread
+     * @return The finished run, or null if one is already in progress
+     */
+    public PaymentReconciliationRun reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        return execute(createRun());
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Optional<PaymentReconciliationRun> getRun(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, PaymentReconciliationRun.class));
+    }
+
+    public List<PaymentReconciliationRun> getRecentRuns(int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "startedAt")).limit(limit);
+        return mongoTemplate.find(query, PaymentReconciliationRun.class);
+    }
+
+    /**
+     * Findings of the latest completed run, ordered by order id
+     * @param type Optional finding type filter
+     * @param afterOrderId Order id of the last finding of the previous page (may be null)
+     */
+    public List<PaymentReconciliationFinding> getFindings(PaymentReconciliationFinding.Type type, String afterOrderId, int limit) {
+        Query latest = new Query(Criteria.where("status").is(PaymentReconciliationRun.Status.COMPLETED))
+                .with(Sort.by(Sort.Direction.DESC, "startedAt"));
+        PaymentReconciliationRun run = mongoTemplate.findOne(latest, PaymentReconciliationRun.class);
+        if (run == null) {
+            return List.of();
+        }
+        Criteria criteria = Criteria.where("runId").is(run.getId());
+        if (type != null) {
+            criteria.and("type").is(type);
+        }
+        if (afterOrderId != null) {
+            criteria.and("orderId").gt(afterOrderId);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "orderId")).limit(limit);
+        return mongoTemplate.find(query, PaymentReconciliationFinding.class);
+    }
+
+    private PaymentReconciliationRun createRun() {
+        PaymentReconciliationRun run = new PaymentReconciliationRun();
+        run.setStatus(PaymentReconciliationRun.Status.RUNNING);
+        run.setStartedAt(LocalDateTime.now());
+        return mongoTemplate.insert(run);
+    }
+
+    private PaymentReconciliationRun execute(PaymentReconciliationRun run) {
+        try {
+            mergeJoin(run);
+            run.setStatus(PaymentReconciliationRun.Status.COMPLETED);
+        } catch (Exception e) {
+            run.setStatus(PaymentReconciliationRun.Status.FAILED);
+            run.setError(e.getMessage());
+            System.err.println("Payment reconciliation " + run.getId() + " failed: " + e.getMessage());
+        }
+
+        try {
+            // The report holds one run: drop the previous one, or this one's partial findings
+            Criteria stale = run.getStatus() == PaymentReconciliationRun.Status.COMPLETED
+                    ? Criteria.where("runId").ne(run.getId())
+                    : Criteria.where("runId").is(run.getId());
+            mongoTemplate.remove(new Query(stale), PaymentReconciliationFinding.class);
+        } catch (Exception e) {
+            System.err.println("Failed to clean up payment reconciliation findings: " + e.getMessage());
+        } finally {
+            run.setFinishedAt(LocalDateTime.now());
+            mongoTemplate.save(run);
+            running.set(false);
+        }
+        return run;
+    }
+
+    private void mergeJoin(PaymentReconciliationRun run) {
+        Query orderQuery = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(cursorBatchSize)
+                .noCursorTimeout();
+        orderQuery.fields().include("totalAmount", "payment.status", "payment.amount");
+
+        // Served by the (orderId, createdAt desc) index: newest transaction of an order first
+        Query transactionQuery = new Query(Criteria.where("orderId").ne(null))
+                .with(Sort.by(Sort.Direction.ASC, "orderId").and(Sort.by(Sort.Direction.DESC, "createdAt")))
+                .cursorBatchSize(cursorBatchSize)
+                .noCursorTimeout();
+        transactionQuery.fields().include("orderId", "status", "amount");
+
+        FindingWriter findings = new FindingWriter(run);
+        try (Stream<Order> orderStream = mongoTemplate.stream(orderQuery, Order.class);
+             Stream<PaymentTransaction> transactionStream = mongoTemplate.stream(transactionQuery, PaymentTransaction.class)) {
+            SortedCursor<Order> orders = new SortedCursor<>(orderStream.iterator(), Order::getId, "orders");
+            SortedCursor<PaymentTransaction> transactions =
+                    new SortedCursor<>(transactionStream.iterator(), PaymentTransaction::getOrderId, "payment transactions");
+
+            while (orders.current() != null || transactions.current() != null) {
+                int comparison = orders.current() == null ? 1
+                        : transactions.current() == null ? -1
+                        : orders.key().compareTo(transactions.key());
+
+                if (comparison < 0) {
+                    checkOrder(orders.current(), new Captures(), findings);
+                    orders.advance();
+                } else {
+                    // Fold every transaction of this order id into running totals
+                    String orderId = transactions.key();
+                    Captures captures = new Captures();
+                    while (transactions.current() != null && orderId.equals(transactions.key())) {
+                        captures.add(transactions.current());
+                        transactions.advance();
+                    }
+                    if (comparison == 0) {
+                        checkOrder(orders.current(), captures, findings);
+                        orders.advance();
+                    } else {
+                        findings.orphan(orderId, captures);
+                    }
+                }
+            }
+            run.setOrdersScanned(orders.count());
+            run.setTransactionsScanned(transactions.count());
+        }
+        findings.flush();
+    }
+
+    private void checkOrder(Order order, Captures captures, FindingWriter findings) {
+        Order.PaymentSummary payment = order.getPayment();
+        if (payment == null || payment.getStatus() == null
+                || !PAID_STATUSES.contains(payment.getStatus().trim().toUpperCase())) {
+            return;
+        }
+        double expected = payment.getAmount() != null ? payment.getAmount() : order.getTotalAmount();
+        Double recorded = captures.recordedAmount();
+        if (recorded == null) {
+            findings.add(PaymentReconciliationFinding.Type.MISSING_CAPTURE, order, expected, captures);
+        } else if (Math.abs(recorded - expected) > AMOUNT_TOLERANCE) {
+            findings.add(PaymentReconciliationFinding.Type.AMOUNT_MISMATCH, order, expected, captures);
+        }
+    }
+
+    /**
+     * Running totals of one order's transactions: completed amounts add up (one row per
+     * payment intent), an authorization only counts if nothing was completed
+     */
+    private static final class Captures {
+        int count;
+        boolean completed;
+        double completedAmount;
+        Double latestAuthorized;
+        double loggedAmount;
+
+        void add(PaymentTransaction transaction) {
+            count++;
+            double amount = transaction.getAmount() != null ? transaction.getAmount() : 0.0;
+            loggedAmount += amount;
+            if (transaction.getStatus() == PaymentTransactionStatus.COMPLETED) {
+                completed = true;
+                completedAmount += amount;
+            } else if (transaction.getStatus() == PaymentTransactionStatus.AUTHORIZED && latestAuthorized == null) {
+                latestAuthorized = amount; // newest first
+            }
+        }
+
+        Double recordedAmount() {
+            return completed ? completedAmount : latestAuthorized;
+        }
+    }
+
+    /**
+     * Iterator over a cursor that must be sorted by key; remembers the current element
+     */
+    private static final class SortedCursor<T> {
+        private final Iterator<T> iterator;
+        private final Function<T, String> keyOf;
+        private final String name;
+        private T current;
+        private String key;
+        private long count;
+
+        SortedCursor(Iterator<T> iterator, Function<T, String> keyOf, String name) {
+            this.iterator = iterator;
+            this.keyOf = keyOf;
+            this.name = name;
+            advance();
+        }
+
+        T current() {
+            return current;
+        }
+
+        String key() {
+            return key;
+        }
+
+        long count() {
+            return count;
+        }
+
+        void advance() {
+            if (!iterator.hasNext()) {
+                current = null;
+                key = null;
+                return;
+            }
+            String previous = key;
+            current = iterator.next();
+            key = keyOf.apply(current);
+            count++;
+            if (previous != null && key.compareTo(previous) < 0) {
+                throw new IllegalStateException(name + " are not in order id order (" + key + " after " + previous + ")");
+            }
+        }
+    }
+
+    /**
+     * Buffers findings and inserts them batch-size at a time, counting them on the run
+     */
+    private final class FindingWriter {
+        private final PaymentReconciliationRun run;
+        private final List<PaymentReconciliationFinding> batch = new ArrayList<>();
+
+        FindingWriter(PaymentReconciliationRun run) {
+            this.run = run;
+        }
+
+        void add(PaymentReconciliationFinding.Type type, Order order, double expected, Captures captures) {
+            PaymentReconciliationFinding finding = new PaymentReconciliationFinding(run.getId(), type, order.getId());
+            finding.setPaymentStatus(order.getPayment().getStatus());
+            finding.setExpectedAmount(expected);
+            finding.setRecordedAmount(captures.recordedAmount());
+            finding.setTransactionCount(captures.count);
+            if (type == PaymentReconciliationFinding.Type.MISSING_CAPTURE) {
+                run.setMissingCaptures(run.getMissingCaptures() + 1);
+            } else {
+                run.setAmountMismatches(run.getAmountMismatches() + 1);
+            }
+            append(finding);
+        }
+
+        void orphan(String orderId, Captures captures) {
+            PaymentReconciliationFinding finding = new PaymentReconciliationFinding(
+                    run.getId(), PaymentReconciliationFinding.Type.ORPHAN_TRANSACTION, orderId);
+            finding.setRecordedAmount(captures.loggedAmount);
+            finding.setTransactionCount(captures.count);
+            run.setOrphanTransactions(run.getOrphanTransactions() + 1);
+            append(finding);
+        }
+
+        private void append(PaymentReconciliationFinding finding) {
+            batch.add(finding);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                mongoTemplate.insert(batch, PaymentReconciliationFinding.class);
+                batch.clear();
+            }
+        }
+    }
+}
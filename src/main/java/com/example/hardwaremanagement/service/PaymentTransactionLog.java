@@ -0,0 +1,304 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.PaymentTransaction;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group-committed payment transaction log. Callers append a transaction and wait on the
+ * returned future; one writer thread takes whatever has queued up (up to batch-size, waiting
+ * at most max-wait-ms for a partial batch) and writes it with a single unordered insertMany
+ * acknowledged by a journaled majority. Each future completes only after its batch is durable.
+ *
+ * A transaction is identified by paymentIntentId + status. A unique index on that pair makes
+ * a repeated gateway callback fail its insert, in which case the caller gets the stored row
+ * back. The futures of recently seen keys are kept in a small LRU, so retries during a burst
+ * (including ones still waiting for their batch) are answered without another write.
+ */
+@Service
+public class PaymentTransactionLog {
+
+    private static final String INTENT_STATUS_INDEX = "paymentIntentId_status";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${payments.log.batch-size:200}")
+    private int batchSize;
+
+    @Value("${payments.log.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${payments.log.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${payments.log.recent-intents:10000}")
+    private int recentIntents;
+
+    /**
+     * @param duplicate True if the key was already recorded; transaction is then the stored row
+     */
+    public record Outcome(PaymentTransaction transaction, boolean duplicate) {}
+
+    private record Pending(String key, PaymentTransaction transaction, CompletableFuture<Outcome> future) {}
+
+    private BlockingQueue<Pending> queue;
+    private Map<String, CompletableFuture<Outcome>> recent;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Outcome>> eldest) {
+                return size() > recentIntents;
+            }
+        };
+        ensureIntentIndex();
+        running = true;
+        writer = Thread.ofPlatform().daemon().name("payment-log-writer").start(this::runWriter);
+    }
+
+    /**
+     * Stop the writer once everything already queued is written
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queue a transaction for the next batch. Never touches the database.
+     * @return Completes once the batch holding the transaction is durable, or with the stored
+     * row if the paymentIntentId + status pair was already recorded
+     */
+    public CompletableFuture<Outcome> append(PaymentTransaction transaction) {
+        String key = keyOf(transaction.getPaymentIntentId(), transaction.getStatus());
+        CompletableFuture<Outcome> future;
+        synchronized (recent) {
+            CompletableFuture<Outcome> seen = recent.get(key);
+            if (seen != null) {
+                duplicates.increment();
+                return seen.thenApply(outcome -> new Outcome(outcome.transaction(), true));
+            }
+            future = new CompletableFuture<>();
+            recent.put(key, future);
+        }
+        // A failed key is forgotten so the gateway's retry is written again
+        future.whenComplete((outcome, error) -> {
+            if (error != null) {
+                synchronized (recent) {
+                    recent.remove(key, future);
+                }
+            }
+        });
+
+        transaction.setId(new ObjectId().toHexString());
+        if (!running || !queue.offer(new Pending(key, transaction, future))) {
+            failed.increment();
+            future.completeExceptionally(new IllegalStateException("Payment transaction log is not accepting writes"));
+            return future;
+        }
+        appended.increment();
+        return future;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("pending", queue.size());
+        stats.put("appended", appended.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("written", written.sum());
+        stats.put("batches", batches.sum());
+        stats.put("failed", failed.sum());
+        synchronized (recent) {
+            stats.put("recentIntents", recent.size());
+        }
+        return stats;
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                // Read before polling so entries queued before stop() are still written
+                boolean stopping = !running;
+                Pending first = queue.poll(stopping ? 0 : 1000, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (stopping) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                // Whatever queued while the previous batch was written goes out together; a
+                // lone callback waits at most max-wait-ms for company
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || stopping) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(batch, e);
+                return;
+            } catch (Exception e) {
+                failAll(batch, e);
+                System.err.println("Payment transaction log writer error: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Document> documents = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(pending.transaction(), document);
+            documents.add(document);
+        }
+
+        Map<Integer, BulkWriteError> errors = new HashMap<>();
+        try {
+            durableCollection().insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // Unordered: everything without an error was inserted
+            for (BulkWriteError error : e.getWriteErrors()) {
+                errors.put(error.getIndex(), error);
+            }
+            if (e.getWriteConcernError() != null) {
+                failAll(batch, e);
+                return;
+            }
+        }
+        batches.increment();
+
+        List<Pending> conflicts = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            BulkWriteError error = errors.get(i);
+            if (error == null) {
+                written.increment();
+                pending.future().complete(new Outcome(pending.transaction(), false));
+            } else if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                conflicts.add(pending);
+            } else {
+                failed.increment();
+                pending.future().completeExceptionally(new IllegalStateException(error.getMessage()));
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            resolveDuplicates(conflicts);
+        }
+    }
+
+    /**
+     * Answer keys that were already stored (by an earlier run or another instance) with the
+     * stored row, read back in one query
+     */
+    private void resolveDuplicates(List<Pending> conflicts) {
+        Set<String> intentIds = new HashSet<>();
+        for (Pending pending : conflicts) {
+            intentIds.add(pending.transaction().getPaymentIntentId());
+        }
+        Map<String, PaymentTransaction> stored = new HashMap<>();
+        Query query = new Query(Criteria.where("paymentIntentId").in(intentIds))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        for (PaymentTransaction existing : mongoTemplate.find(query, PaymentTransaction.class)) {
+            stored.putIfAbsent(keyOf(existing.getPaymentIntentId(), existing.getStatus()), existing);
+        }
+        for (Pending pending : conflicts) {
+            PaymentTransaction existing = stored.get(pending.key());
+            if (existing != null) {
+                duplicates.increment();
+                pending.future().complete(new Outcome(existing, true));
+            } else {
+                failed.increment();
+                pending.future().completeExceptionally(
+                        new IllegalStateException("Duplicate payment transaction could not be read back"));
+            }
+        }
+    }
+
+    private void failAll(List<Pending> batch, Exception cause) {
+        for (Pending pending : batch) {
+            if (pending.future().completeExceptionally(cause)) {
+                failed.increment();
+            }
+        }
+    }
+
+    private MongoCollection<Document> durableCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(PaymentTransaction.class))
+                .withWriteConcern(WriteConcern.MAJORITY.withJournal(true));
+    }
+
+    /**
+     * Built here rather than declared on the model: rows logged before deduplication may
+     * contain duplicates, and a failed unique build should not stop the application
+     */
+    private void ensureIntentIndex() {
+        try {
+            mongoTemplate.indexOps(PaymentTransaction.class).createIndex(new Index()
+                    .on("paymentIntentId", Sort.Direction.ASC)
+                    .on("status", Sort.Direction.ASC)
+                    .unique()
+                    .named(INTENT_STATUS_INDEX));
+        } catch (Exception e) {
+            System.err.println("Failed to create unique payment intent index (remove duplicate paymentIntentId + status rows): "
+                    + e.getMessage());
+        }
+    }
+
+    private static String keyOf(String paymentIntentId, Object status) {
+        return paymentIntentId + ":" + status;
+    }
+}
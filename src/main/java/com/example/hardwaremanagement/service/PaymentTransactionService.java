@@ -6,6 +6,7 @@ import com.example.hardwaremanagement.model.PaymentTransaction;
 import com.example.hardwaremanagement.model.PaymentTransactionStatus;
 import com.example.hardwaremanagement.repository.PaymentTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -16,6 +17,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class PaymentTransactionService {
@@ -23,6 +28,19 @@ public class PaymentTransactionService {
     @Autowired
     private PaymentTransactionRepository repository;
 
+    @Autowired
+    private PaymentTransactionLog transactionLog;
+
+    // How long a callback waits for its batch to be written
+    @Value("${payments.log.ack-timeout-ms:10000}")
+    private long ackTimeoutMs;
+
+    /**
+     * Validate a gateway callback and record it through the group-committed log. A repeated
+     * callback (same paymentIntentId and status) is not stored again; the response then carries
+     * the transaction recorded first.
+     * @throws IllegalStateException If the write was not acknowledged; the gateway should retry
+     */
     public PaymentTransactionResponse verifyAndLog(PaymentTransactionRequest request) {
         List<String> validationErrors = validate(request);
         PaymentTransaction transaction = buildTransaction(request, validationErrors);
@@ -37,16 +55,30 @@ public class PaymentTransactionService {
         transaction.setVerifiedAt(verified ? now : null);
         transaction.setValidationErrors(verified ? null : new ArrayList<>(validationErrors));
 
-        PaymentTransaction saved = repository.save(transaction);
+        PaymentTransactionLog.Outcome outcome = await(transactionLog.append(transaction));
+        if (outcome.duplicate()) {
+            PaymentTransaction stored = outcome.transaction();
+            PaymentTransactionResponse response = new PaymentTransactionResponse();
+            response.setVerified(stored.isVerified());
+            response.setDuplicate(true);
+            response.setMessage("Duplicate callback; transaction already recorded.");
+            response.setValidationErrors(stored.getValidationErrors());
+            response.setTransaction(stored);
+            return response;
+        }
 
         PaymentTransactionResponse response = new PaymentTransactionResponse();
         response.setVerified(verified);
         response.setMessage(verified ? "Transaction verified successfully." : "Transaction recorded with validation warnings.");
         response.setValidationErrors(validationErrors.isEmpty() ? null : new ArrayList<>(validationErrors));
-        response.setTransaction(saved);
+        response.setTransaction(outcome.transaction());
         return response;
     }
 
+    public Map<String, Object> getLogStats() {
+        return transactionLog.getStats();
+    }
+
     public List<PaymentTransaction> listByOrderId(String orderId) {
         if (!StringUtils.hasText(orderId)) {
             return Collections.emptyList();
@@ -72,6 +104,20 @@ public class PaymentTransactionService {
         return repository.findById(id);
     }
 
+    private PaymentTransactionLog.Outcome await(CompletableFuture<PaymentTransactionLog.Outcome> pending) {
+        try {
+            return pending.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The batch may still commit; a retried callback is then answered as a duplicate
+            throw new IllegalStateException("Payment transaction was not acknowledged in time.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Payment transaction could not be recorded: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recording payment transaction.");
+        }
+    }
+
     private List<String> validate(PaymentTransactionRequest request) {
         List<String> errors = new ArrayList<>();
         if (request == null) {
@@ -0,0 +1,452 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.PriceBookEntry;
+import com.example.hardwaremanagement.model.PriceHistory;
+import com.example.hardwaremanagement.model.Product;
+import com.example.hardwaremanagement.model.Promotion;
+import com.example.hardwaremanagement.model.PromotionScope;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Materialized effective prices for every product.
+ *
+ * Reads are plain map lookups. Prices are recomputed only for the products a change can
+ * affect (a product's own price or category, or a product/category/global promotion), each
+ * recompute under a new version number, and every batch is also upserted into the price_book
+ * collection so a restart can serve prices before its first rebuild finishes. Whenever the
+ * price a customer sees changes, a point is appended to the product's price_history series.
+ *
+ * Recomputes of different products run concurrently; an entry only ever replaces one with a
+ * lower version. Only full rebuilds are serialized. Reads never wait for a rebuild: an entry
+ * whose promotion has ended is served as is while a background refresh reprices it, and ids
+ * that are not products are remembered for a while instead of being looked up on every call.
+ */
+@Service
+public class PriceBookService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Products read and entries written per round trip
+    @Value("${prices.book.batch-size:1000}")
+    private int batchSize;
+
+    // Ids looked up recently that are not products, and how long they stay that way
+    @Value("${prices.book.unknown-ids:10000}")
+    private int unknownIdsCapacity;
+
+    @Value("${prices.book.unknown-ttl-ms:60000}")
+    private long unknownTtlMs;
+
+    private final Map<String, PriceBookEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<ActivePromotions> activePromotions = new AtomicReference<>(ActivePromotions.EMPTY);
+    private final Object rebuildLock = new Object();
+
+    // Stale entries waiting for the background refresh
+    private final Set<String> staleIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Map<String, Long> unknownIds;
+
+    @PostConstruct
+    public void load() {
+        unknownIds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > unknownIdsCapacity;
+            }
+        };
+        try (Stream<PriceBookEntry> stored = mongoTemplate.stream(new Query(), PriceBookEntry.class)) {
+            stored.forEach(entry -> {
+                entries.put(entry.getProductId(), entry);
+                version.accumulateAndGet(entry.getVersion(), Math::max);
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to load price book: " + e.getMessage());
+        }
+        // Promotions may have started or ended while the application was down
+        Thread.ofVirtual().name("price-book-rebuild").start(() -> {
+            try {
+                recomputeAll();
+            } catch (Exception e) {
+                System.err.println("Price book rebuild failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Current entry of a product (computed on first use), or null if there is no such product
+     */
+    public PriceBookEntry get(String productId) {
+        return getAll(List.of(productId)).get(productId);
+    }
+
+    /**
+     * Entries of several products in request order. Stale entries are served and refreshed in
+     * the background; one recompute covers the ids that have no entry yet.
+     */
+    public Map<String, PriceBookEntry> getAll(Collection<String> productIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, PriceBookEntry> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        boolean stale = false;
+        for (String productId : productIds) {
+            PriceBookEntry entry = entries.get(productId);
+            if (entry == null) {
+                if (!isKnownUnknown(productId)) {
+                    missing.add(productId);
+                }
+            } else if (entry.isStale(now)) {
+                staleIds.add(productId);
+                stale = true;
+            }
+            result.put(productId, entry);
+        }
+        if (stale) {
+            refreshStaleEntries();
+        }
+        if (!missing.isEmpty()) {
+            Set<String> seen = recompute(new Query(Criteria.where("_id").in(missing))).seen();
+            for (String productId : missing) {
+                if (seen.contains(productId)) {
+                    result.put(productId, entries.get(productId));
+                } else {
+                    rememberUnknown(productId);
+                }
+            }
+        }
+        result.values().removeIf(Objects::isNull);
+        return result;
+    }
+
+    /**
+     * Effective price changes of a product, oldest first
+     * @param from Inclusive start (null for open-ended)
+     * @param to Exclusive end (null for open-ended)
+     */
+    public List<PriceHistory.Point> getHistory(String productId, LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = Criteria.where("productId").is(productId);
+        if (from != null || to != null) {
+            Criteria year = criteria.and("year");
+            if (from != null) {
+                year.gte(from.getYear());
+            }
+            if (to != null) {
+                year.lte(to.getYear());
+            }
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "year"));
+        List<PriceHistory.Point> points = new ArrayList<>();
+        for (PriceHistory bucket : mongoTemplate.find(query, PriceHistory.class)) {
+            for (PriceHistory.Point point : bucket.getPoints()) {
+                if ((from == null || !point.getAt().isBefore(from)) && (to == null || point.getAt().isBefore(to))) {
+                    points.add(point);
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Promotions currently running for a product, best first
+     */
+    public List<Promotion> getActivePromotions(String productId) {
+        PriceBookEntry entry = get(productId);
+        if (entry == null) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return activePromotions.get().candidatesFor(productId, entry.getCategoryId()).stream()
+                .filter(promotion -> isRunning(promotion, now))
+                .sorted(Comparator.comparingDouble(Promotion::getDiscountPercent).reversed())
+                .toList();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Recompute the products a promotion touched, before and after the change (either may be null)
+     */
+    public void onPromotionChanged(Promotion before, Promotion after) {
+        onPromotionsChanged(Arrays.asList(before, after));
+    }
+
+    /**
+     * Recompute every product any of the promotions applies to, in one pass
+     */
+    public void onPromotionsChanged(Collection<Promotion> promotions) {
+        Set<String> productIds = new HashSet<>();
+        Set<String> categoryIds = new HashSet<>();
+        for (Promotion promotion : promotions) {
+            if (promotion == null || promotion.getScope() == null) {
+                continue;
+            }
+            switch (promotion.getScope()) {
+                case GLOBAL -> {
+                    recomputeAll();
+                    return;
+                }
+                case PRODUCT -> productIds.add(promotion.getProductId());
+                case CATEGORY -> categoryIds.add(promotion.getCategoryId());
+            }
+        }
+        productIds.remove(null);
+        categoryIds.remove(null);
+        if (productIds.isEmpty() && categoryIds.isEmpty()) {
+            return;
+        }
+        recompute(new Query(new Criteria().orOperator(
+                Criteria.where("_id").in(productIds),
+                Criteria.where("categoryId").in(categoryIds))));
+    }
+
+    /**
+     * Recompute the given products; ids that no longer exist are dropped from the book
+     */
+    public void recomputeProducts(Collection<String> productIds) {
+        synchronized (unknownIds) {
+            productIds.forEach(unknownIds::remove);
+        }
+        Set<String> seen = recompute(new Query(Criteria.where("_id").in(productIds))).seen();
+        List<String> gone = productIds.stream()
+                .filter(id -> !seen.contains(id) && entries.containsKey(id))
+                .distinct()
+                .toList();
+        remove(gone);
+    }
+
+    /**
+     * Rebuild the whole book in batches and drop entries of deleted products
+     * @return Summary of the run
+     */
+    public Map<String, Object> recomputeAll() {
+        synchronized (rebuildLock) {
+            return rebuild();
+        }
+    }
+
+    private Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        RecomputeResult run = recompute(new Query());
+        // Entries with a newer version were priced by a recompute that started after this run,
+        // e.g. for a product created while the stream was past it
+        List<String> gone = entries.values().stream()
+                .filter(entry -> !run.seen().contains(entry.getProductId()) && entry.getVersion() < run.version())
+                .map(PriceBookEntry::getProductId)
+                .toList();
+        remove(gone);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", "applied");
+        result.put("productsUpdated", run.seen().size());
+        result.put("productsRemoved", gone.size());
+        result.put("batches", run.batches());
+        result.put("version", run.version());
+        result.put("durationMs", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private record RecomputeResult(Set<String> seen, int batches, long version) {}
+
+    /**
+     * Stream the selected products (price and category only) and price them batch by batch
+     * against one snapshot of the running promotions
+     */
+    private RecomputeResult recompute(Query selection) {
+        LocalDateTime now = LocalDateTime.now();
+        long runVersion = version.incrementAndGet();
+        ActivePromotions active = loadActivePromotions(now, runVersion);
+        activePromotions.accumulateAndGet(active,
+                (current, loaded) -> loaded.version() > current.version() ? loaded : current);
+
+        Query query = Query.of(selection).cursorBatchSize(batchSize);
+        query.fields().include("price", "categoryId");
+        Set<String> seen = new HashSet<>();
+        List<PriceBookEntry> batch = new ArrayList<>(batchSize);
+        int batches = 0;
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                seen.add(product.getId());
+                batch.add(new PriceBookEntry(product, active.bestFor(product, now), runVersion, now));
+                if (batch.size() >= batchSize) {
+                    publish(batch);
+                    batches++;
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch);
+            batches++;
+        }
+        return new RecomputeResult(seen, batches, runVersion);
+    }
+
+    private void publish(List<PriceBookEntry> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceBookEntry.class);
+        BulkOperations history = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceHistory.class);
+        boolean historyChanged = false;
+        for (PriceBookEntry entry : batch) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(entry.getProductId())), entry,
+                    FindAndReplaceOptions.options().upsert());
+
+            // Only changes of the price a customer sees go into the history
+            if (entry.priceDiffers(entries.get(entry.getProductId()))) {
+                int year = entry.getComputedAt().getYear();
+                history.upsert(new Query(Criteria.where("_id").is(PriceHistory.idOf(entry.getProductId(), year))),
+                        new Update().setOnInsert("productId", entry.getProductId())
+                                .setOnInsert("year", year)
+                                .push("points", new PriceHistory.Point(entry)));
+                historyChanged = true;
+            }
+        }
+        bulk.execute();
+        if (historyChanged) {
+            history.execute();
+        }
+        for (PriceBookEntry entry : batch) {
+            entries.merge(entry.getProductId(), entry,
+                    (current, computed) -> computed.getVersion() > current.getVersion() ? computed : current);
+        }
+    }
+
+    /**
+     * Reprice the queued stale entries on a virtual thread; one refresh runs at a time and
+     * picks up whatever was queued while it ran
+     */
+    private void refreshStaleEntries() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("price-book-refresh").start(() -> {
+            try {
+                while (!staleIds.isEmpty()) {
+                    List<String> batch = new ArrayList<>(staleIds);
+                    staleIds.removeAll(batch);
+                    recomputeProducts(batch);
+                }
+            } catch (Exception e) {
+                System.err.println("Price book refresh failed: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+                // An id queued after the loop's last check but before the flag was cleared
+                if (!staleIds.isEmpty()) {
+                    refreshStaleEntries();
+                }
+            }
+        });
+    }
+
+    private boolean isKnownUnknown(String productId) {
+        synchronized (unknownIds) {
+            Long expiresAt = unknownIds.get(productId);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt <= System.currentTimeMillis()) {
+                unknownIds.remove(productId);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void rememberUnknown(String productId) {
+        synchronized (unknownIds) {
+            unknownIds.put(productId, System.currentTimeMillis() + unknownTtlMs);
+        }
+    }
+
+    private void remove(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(productIds)), PriceBookEntry.class);
+        productIds.forEach(entries::remove);
+    }
+
+    private ActivePromotions loadActivePromotions(LocalDateTime now, long loadVersion) {
+        Query running = new Query(Criteria.where("active").is(true)
+                .and("startDate").lt(now)
+                .and("endDate").gt(now));
+        return ActivePromotions.of(mongoTemplate.find(running, Promotion.class), loadVersion);
+    }
+
+    private static boolean isRunning(Promotion promotion, LocalDateTime now) {
+        return promotion.isActive()
+                && promotion.getStartDate() != null && promotion.getStartDate().isBefore(now)
+                && promotion.getEndDate() != null && promotion.getEndDate().isAfter(now);
+    }
+
+    /**
+     * Running promotions indexed by what they apply to
+     * @param version Version of the recompute that loaded them; a newer load is never replaced
+     */
+    private record ActivePromotions(Map<String, List<Promotion>> byProduct,
+                                    Map<String, List<Promotion>> byCategory,
+                                    List<Promotion> global,
+                                    long version) {
+
+        static final ActivePromotions EMPTY = new ActivePromotions(Map.of(), Map.of(), List.of(), 0);
+
+        static ActivePromotions of(List<Promotion> promotions, long version) {
+            Map<String, List<Promotion>> byProduct = new HashMap<>();
+            Map<String, List<Promotion>> byCategory = new HashMap<>();
+            List<Promotion> global = new ArrayList<>();
+            for (Promotion promotion : promotions) {
+                PromotionScope scope = promotion.getScope() != null ? promotion.getScope() : PromotionScope.PRODUCT;
+                switch (scope) {
+                    case PRODUCT -> byProduct.computeIfAbsent(promotion.getProductId(), k -> new ArrayList<>()).add(promotion);
+                    case CATEGORY -> byCategory.computeIfAbsent(promotion.getCategoryId(), k -> new ArrayList<>()).add(promotion);
+                    case GLOBAL -> global.add(promotion);
+                }
+            }
+            return new ActivePromotions(byProduct, byCategory, global, version);
+        }
+
+        List<Promotion> candidatesFor(String productId, String categoryId) {
+            List<Promotion> candidates = new ArrayList<>(byProduct.getOrDefault(productId, List.of()));
+            if (categoryId != null) {
+                candidates.addAll(byCategory.getOrDefault(categoryId, List.of()));
+            }
+            candidates.addAll(global);
+            return candidates;
+        }
+
+        /**
+         * Largest discount among the product, category and global promotions
+         */
+        Promotion bestFor(Product product, LocalDateTime now) {
+            Promotion best = null;
+            for (Promotion promotion : candidatesFor(product.getId(), product.getCategoryId())) {
+                if (isRunning(promotion, now) && (best == null || promotion.getDiscountPercent() > best.getDiscountPercent())) {
+                    best = promotion;
+                }
+            }
+            return best;
+        }
+    }
+}
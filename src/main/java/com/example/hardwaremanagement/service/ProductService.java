@@ -3,8 +3,8 @@ package com.example.hardwaremanagement.service;
 import com.example.hardwaremanagement.dto.ProductDTO;
 import com.example.hardwaremanagement.dto.ProductDetailDTO;
 import com.example.hardwaremanagement.model.Category;
+import com.example.hardwaremanagement.model.PriceBookEntry;
 import com.example.hardwaremanagement.model.Product;
-import com.example.hardwaremanagement.model.Promotion;
 import com.example.hardwaremanagement.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -23,9 +23,16 @@ public class ProductService {
     private CategoryService categoryService;
 
     @Autowired
-    private PromotionService promotionService;
+    private PriceBookService priceBookService;
+
+    @Autowired
+    private ReportsService reportsService;
+
+    @Autowired
+    private CouponService couponService;
 
     @Transactional
+    @Audited("PRODUCT_STOCK_DEDUCT")
     public void deductStock(String productId, int quantity) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
@@ -38,10 +45,16 @@ public class ProductService {
         
         product.setStock(product.getStock() - quantity);
         productRepository.save(product);
+        reportsService.invalidateSummaryCache();
     }
 
+    @Audited("PRODUCT_CREATE")
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        reportsService.invalidateSummaryCache();
+        couponService.invalidateRules(); // category-restricted coupons list product ids
+        priceBookService.recomputeProducts(List.of(saved.getId()));
+        return saved;
     }
 
     public List<Product> getAllProducts() {
@@ -53,6 +66,7 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
+    @Audited("PRODUCT_UPDATE")
     public Product updateProduct(String id, Product updatedProduct) {
         Product existing = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
@@ -74,14 +88,22 @@ public class ProductService {
         existing.setAvailable(updatedProduct.isAvailable());
         existing.setSku(updatedProduct.getSku());
 
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        reportsService.invalidateSummaryCache();
+        couponService.invalidateRules();
+        priceBookService.recomputeProducts(List.of(id));
+        return saved;
     }
 
+    @Audited("PRODUCT_DELETE")
     public void deleteProduct(String id) {
         if (!productRepository.existsById(id)) {
             throw new RuntimeException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        reportsService.invalidateSummaryCache();
+        couponService.invalidateRules();
+        priceBookService.recomputeProducts(List.of(id));
     }
 
     public ProductDetailDTO getProductDetails(String id) {
@@ -101,12 +123,12 @@ public class ProductService {
         }
 
         // Promotion application
-        Promotion best = promotionService.getBestPromotionFor(product.getId(), product.getCategoryId()).orElse(null);
+        PriceBookEntry price = priceBookService.get(product.getId());
         double discountedPrice = product.getPrice();
         Double discountPercent = null; String promotionName = null;
-        if (best != null) {
-            discountPercent = best.getDiscountPercent();
-            promotionName = best.getName();
+        if (price != null && price.getDiscountPercent() != null) {
+            discountPercent = price.getDiscountPercent();
+            promotionName = price.getPromotionName();
             discountedPrice = product.getPrice() * (1 - (discountPercent / 100.0));
         }
         
@@ -158,12 +180,12 @@ public class ProductService {
     }
 
     private ProductDTO convertToProductDTO(Product product) {
-        Promotion best = promotionService.getBestPromotionFor(product.getId(), product.getCategoryId()).orElse(null);
+        PriceBookEntry price = priceBookService.get(product.getId());
         double discountedPrice = product.getPrice();
         Double discountPercent = null; String promotionName = null;
-        if (best != null) {
-            discountPercent = best.getDiscountPercent();
-            promotionName = best.getName();
+        if (price != null && price.getDiscountPercent() != null) {
+            discountPercent = price.getDiscountPercent();
+            promotionName = price.getPromotionName();
             discountedPrice = product.getPrice() * (1 - (discountPercent / 100.0));
         }
         String categoryName = product.getCategory();
@@ -0,0 +1,135 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.Promotion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reprices products exactly when promotions start and end.
+ *
+ * One timer is armed for the nearest upcoming start or end date of an active promotion. When
+ * it fires, every promotion whose boundary passed since the previous firing is handed to the
+ * price book and the timer is re-armed. Promotion changes re-arm it immediately; the periodic
+ * refresh picks up changes made by other instances.
+ */
+@Service
+public class PromotionScheduler {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PriceBookService priceBookService;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "promotion-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by "this"
+    private ScheduledFuture<?> pending;
+    private LocalDateTime nextBoundary;
+    private LocalDateTime lastFired;
+
+    @PostConstruct
+    public void start() {
+        lastFired = LocalDateTime.now();
+        try {
+            reschedule();
+        } catch (Exception e) {
+            System.err.println("Failed to schedule promotions: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Arm the timer for the nearest upcoming promotion boundary
+     */
+    @Scheduled(fixedDelayString = "${promotions.scheduler.refresh-ms:300000}")
+    public synchronized void reschedule() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime boundary = earliest(firstAfter("startDate", now), firstAfter("endDate", now));
+        if (pending != null && boundary != null && boundary.equals(nextBoundary)) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        nextBoundary = boundary;
+        if (boundary != null) {
+            // Round up so the timer never fires before the boundary
+            long delayMs = Math.max(0, (Duration.between(now, boundary).toNanos() + 999_999) / 1_000_000);
+            pending = timer.schedule(this::fire, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized LocalDateTime getNextBoundary() {
+        return nextBoundary;
+    }
+
+    private void fire() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since;
+            synchronized (this) {
+                since = lastFired;
+                lastFired = now;
+                pending = null;
+            }
+            List<Promotion> crossed = mongoTemplate.find(new Query(Criteria.where("active").is(true)
+                    .orOperator(
+                            Criteria.where("startDate").gt(since).lte(now),
+                            Criteria.where("endDate").gt(since).lte(now))), Promotion.class);
+            if (!crossed.isEmpty()) {
+                priceBookService.onPromotionsChanged(crossed);
+            }
+        } catch (Exception e) {
+            System.err.println("Promotion boundary handling failed: " + e.getMessage());
+        } finally {
+            reschedule();
+        }
+    }
+
+    private LocalDateTime firstAfter(String field, LocalDateTime now) {
+        Query query = new Query(Criteria.where("active").is(true).and(field).gt(now))
+                .with(Sort.by(Sort.Direction.ASC, field))
+                .limit(1);
+        query.fields().include(field);
+        Promotion promotion = mongoTemplate.findOne(query, Promotion.class);
+        if (promotion == null) {
+            return null;
+        }
+        return field.equals("startDate") ? promotion.getStartDate() : promotion.getEndDate();
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.isBefore(b) ? a : b;
+    }
+}
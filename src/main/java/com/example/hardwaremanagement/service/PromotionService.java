@@ -18,9 +18,25 @@ public class PromotionService {
     @Autowired
     private PromotionRepository promotionRepository;
 
-    public Promotion create(Promotion promotion) { return promotionRepository.save(promotion); }
+    @Autowired
+    private PriceBookService priceBookService;
+
+    @Autowired
+    private PromotionScheduler promotionScheduler;
+
+    public Promotion create(Promotion promotion) {
+        Promotion saved = promotionRepository.save(promotion);
+        priceBookService.onPromotionChanged(null, saved);
+        promotionScheduler.reschedule();
+        return saved;
+    }
     public Promotion update(String id, Promotion updated) {
         Promotion existing = promotionRepository.findById(id).orElseThrow(() -> new RuntimeException("Promotion not found: " + id));
+        // What it applied to before the change; those products need repricing too
+        Promotion before = new Promotion();
+        before.setScope(existing.getScope());
+        before.setProductId(existing.getProductId());
+        before.setCategoryId(existing.getCategoryId());
         existing.setName(updated.getName());
         existing.setScope(updated.getScope());
         existing.setProductId(updated.getProductId());
@@ -29,9 +45,32 @@ public class PromotionService {
         existing.setStartDate(updated.getStartDate());
         existing.setEndDate(updated.getEndDate());
         existing.setActive(updated.isActive());
-        return promotionRepository.save(existing);
+        Promotion saved = promotionRepository.save(existing);
+        priceBookService.onPromotionChanged(before, saved);
+        promotionScheduler.reschedule();
+        return saved;
+    }
+    /**
+     * Move a promotion's start and/or end; the scheduler reprices at the new boundaries
+     */
+    public Promotion schedule(String id, LocalDateTime startDate, LocalDateTime endDate) {
+        Promotion existing = promotionRepository.findById(id).orElseThrow(() -> new RuntimeException("Promotion not found: " + id));
+        if (startDate != null) existing.setStartDate(startDate);
+        if (endDate != null) existing.setEndDate(endDate);
+        if (existing.getStartDate() != null && existing.getEndDate() != null && !existing.getEndDate().isAfter(existing.getStartDate())) {
+            throw new IllegalArgumentException("endDate must be after startDate");
+        }
+        Promotion saved = promotionRepository.save(existing);
+        priceBookService.onPromotionChanged(null, saved);
+        promotionScheduler.reschedule();
+        return saved;
+    }
+    public void delete(String id) {
+        Promotion existing = promotionRepository.findById(id).orElse(null);
+        promotionRepository.deleteById(id);
+        priceBookService.onPromotionChanged(existing, null);
+        promotionScheduler.reschedule();
     }
-    public void delete(String id) { promotionRepository.deleteById(id); }
     public List<Promotion> list() { return promotionRepository.findAll(); }
 
         public Optional<Promotion> get(String id) { return promotionRepository.findById(id); }
@@ -23,10 +23,12 @@ public class PurchaseOrderService {
         return purchaseOrderRepository.findById(id);
     }
 
+    @Audited("PURCHASE_ORDER_CREATE")
     public PurchaseOrder create(PurchaseOrder po) {
         return purchaseOrderRepository.save(po);
     }
 
+    @Audited("PURCHASE_ORDER_UPDATE")
     public PurchaseOrder update(String id, PurchaseOrder update) {
         PurchaseOrder existing = purchaseOrderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Purchase order not found: " + id));
@@ -42,6 +44,7 @@ public class PurchaseOrderService {
         return purchaseOrderRepository.save(existing);
     }
 
+    @Audited("PURCHASE_ORDER_DELIVERY_DATE_UPDATE")
     public PurchaseOrder updateDeliveryDate(String id, java.time.LocalDate newDeliveryDate) {
         PurchaseOrder existing = purchaseOrderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Purchase order not found: " + id));
@@ -56,10 +59,12 @@ public class PurchaseOrderService {
         return purchaseOrderRepository.save(existing);
     }
 
+    @Audited("PURCHASE_ORDER_DELETE")
     public void delete(String id) {
         purchaseOrderRepository.deleteById(id);
     }
 
+    @Audited("PURCHASE_ORDER_CANCEL")
     public PurchaseOrder cancel(String id) {
         PurchaseOrder po = purchaseOrderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Purchase order not found: " + id));
@@ -70,6 +75,7 @@ public class PurchaseOrderService {
         return purchaseOrderRepository.save(po);
     }
 
+    @Audited("PURCHASE_ORDER_STATUS_UPDATE")
     public PurchaseOrder updateStatus(String id, String newStatus) {
         PurchaseOrder po = purchaseOrderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Purchase order not found: " + id));
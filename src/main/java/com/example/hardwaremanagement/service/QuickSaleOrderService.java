@@ -27,6 +27,9 @@ public class QuickSaleOrderService {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private DemandForecastService demandForecastService;
+
     @Transactional
     public QuickSaleOrder createOrder(QuickSaleRequestDTO request) {
         QuickSaleOrder order = new QuickSaleOrder();
@@ -64,7 +67,9 @@ public class QuickSaleOrderService {
         order.setItems(orderItems);
         order.setTotalAmount(totalAmount);
 
-        return quickSaleOrderRepository.save(order);
+        QuickSaleOrder saved = quickSaleOrderRepository.save(order);
+        orderItems.forEach(item -> demandForecastService.recordSale(item.getProductId(), item.getQuantity()));
+        return saved;
     }
 
     public List<QuickSaleOrder> getAllOrders() {
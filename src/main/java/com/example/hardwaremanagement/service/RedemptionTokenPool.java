@@ -0,0 +1,109 @@
+package com.example.hardwaremanagement.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node-local redemption tokens for hot coupons. Instead of one conditional write per
+ * redemption, a node reserves a block of tokens from the coupon's shared counter and then
+ * serves redemptions from an in-memory atomic counter until the block is used up.
+ *
+ * Blocks are only granted out of the remaining limit, so every token handed out here is backed
+ * by the shared counter and the limit can never be oversold; the cost is that unused tokens
+ * held by a node are unavailable to other nodes until they are given back ({@link #drain}).
+ */
+public class RedemptionTokenPool {
+
+    /**
+     * Shared counter the blocks come from
+     */
+    @FunctionalInterface
+    public interface BlockSource {
+        /**
+         * Atomically reserve up to the requested number of tokens
+         * @return Tokens granted, 0 once the limit is exhausted
+         */
+        int reserve(String couponId, int requested);
+    }
+
+    private final BlockSource source;
+    private final Map<String, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    public RedemptionTokenPool(BlockSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Take one token, reserving a new block when the local ones are used up
+     * @return false if the coupon's limit is exhausted
+     */
+    public boolean tryAcquire(String couponId, int blockSize) {
+        AtomicInteger tokens = available.computeIfAbsent(couponId, id -> new AtomicInteger());
+        while (true) {
+            if (takeOne(tokens)) {
+                return true;
+            }
+            // One refill per coupon at a time; the others wait and take from the new block
+            synchronized (tokens) {
+                if (tokens.get() > 0) {
+                    continue;
+                }
+                int granted = source.reserve(couponId, Math.max(1, blockSize));
+                if (granted <= 0) {
+                    return false;
+                }
+                tokens.addAndGet(granted - 1); // one is this caller's
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Put back a token whose redemption did not go through
+     */
+    public void release(String couponId) {
+        available.computeIfAbsent(couponId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public int getAvailable(String couponId) {
+        AtomicInteger tokens = available.get(couponId);
+        return tokens != null ? tokens.get() : 0;
+    }
+
+    /**
+     * Remove the unused tokens of one coupon so they can be returned to the shared counter
+     */
+    public int drain(String couponId) {
+        AtomicInteger tokens = available.get(couponId);
+        return tokens != null ? tokens.getAndSet(0) : 0;
+    }
+
+    /**
+     * Remove every unused token, e.g. on shutdown
+     * @return Unused tokens by coupon id
+     */
+    public Map<String, Integer> drain() {
+        Map<String, Integer> unused = new HashMap<>();
+        for (String couponId : available.keySet()) {
+            int count = drain(couponId);
+            if (count > 0) {
+                unused.put(couponId, count);
+            }
+        }
+        return unused;
+    }
+
+    private static boolean takeOne(AtomicInteger tokens) {
+        while (true) {
+            int current = tokens.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+}
@@ -7,14 +7,32 @@ import com.example.hardwaremanagement.model.Product;
 import com.example.hardwaremanagement.model.OrderStatus;
 import com.example.hardwaremanagement.repository.OrderRepository;
 import com.example.hardwaremanagement.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReportsService {
@@ -25,6 +43,82 @@ public class ReportsService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderSketchService orderSketchService;
+
+    // Same threshold as InventoryItemDTO's low-stock flag
+    private static final int LOW_STOCK_THRESHOLD = 5;
+    private static final int INVENTORY_BATCH_SIZE = 500;
+
+    @Value("${reports.summary.cache-ttl-seconds:30}")
+    private long summaryCacheTtlSeconds;
+
+    // Both reports spend most of their time waiting on Mongo, so virtual threads are enough here
+    private final ExecutorService reportExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Latest (possibly still running) dashboard summary; shared by every concurrent caller
+    private final AtomicReference<SummaryEntry> summaryCache = new AtomicReference<>();
+
+    /**
+     * Get the dashboard summary (last 30 days of sales plus current inventory).
+     * The two reports are computed concurrently, concurrent callers share a single
+     * in-flight computation and the finished result is reused until the TTL expires
+     * or an order/stock write invalidates it.
+     */
+    public ReportsSummaryDTO getReportsSummary() {
+        LocalDate endDate = LocalDate.now();
+        long ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, summaryCacheTtlSeconds));
+
+        while (true) {
+            SummaryEntry current = summaryCache.get();
+            if (current != null && current.isUsable(endDate, ttlNanos)) {
+                return current.future.join();
+            }
+
+            SummaryEntry entry = new SummaryEntry(endDate);
+            if (summaryCache.compareAndSet(current, entry)) {
+                computeSummary(entry);
+                return entry.future.join();
+            }
+            // Another caller started a computation first - retry and share it
+        }
+    }
+
+    /**
+     * Drop the cached dashboard summary. Called after order and stock writes.
+     */
+    public void invalidateSummaryCache() {
+        summaryCache.set(null);
+    }
+
+    private void computeSummary(SummaryEntry entry) {
+        LocalDate startDate = entry.endDate.minusDays(29);
+
+        CompletableFuture<SalesReportDTO> sales = CompletableFuture.supplyAsync(
+                () -> generateSalesReport(startDate, entry.endDate), reportExecutor);
+        CompletableFuture<InventoryReportDTO> inventory = CompletableFuture.supplyAsync(
+                this::generateInventoryReport, reportExecutor);
+
+        sales.thenCombine(inventory, ReportsSummaryDTO::new).whenComplete((summary, error) -> {
+            if (error != null) {
+                // Never cache failures; the next caller starts a fresh computation
+                summaryCache.compareAndSet(entry, null);
+                entry.future.completeExceptionally(error);
+            } else {
+                entry.completedAt = System.nanoTime();
+                entry.future.complete(summary);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdownReportExecutor() {
+        reportExecutor.shutdownNow();
+    }
+
     public SalesReportDTO generateSalesReport(LocalDate startDate, LocalDate endDate) {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
@@ -96,51 +190,60 @@ public class ReportsService {
         List<DailySalesDTO> dailySales = generateDailySalesBreakdown(ordersInRange, startDate, endDate);
         report.setDailySales(dailySales);
 
+        // Distinct customers and order-value percentiles come from the daily sketches
+        OrderDistributionDTO distribution = orderSketchService.getDistribution(startDate, endDate);
+        report.setDistinctCustomers(distribution.getDistinctCustomers());
+        report.setMedianOrderValue(distribution.getMedianOrderValue());
+        report.setP95OrderValue(distribution.getP95OrderValue());
+
         return report;
     }
 
+    /**
+     * Full inventory report including the per-product item lists
+     */
     public InventoryReportDTO generateInventoryReport() {
-        List<Product> allProducts = productRepository.findAll();
-        
+        return generateInventoryReport(true);
+    }
+
+    /**
+     * Build the inventory report. Totals and counts always come from a single $group aggregation
+     * in Mongo. When items are requested, products are streamed from a cursor with only the
+     * report fields projected and bucketed in one pass; otherwise no product is loaded at all.
+     * @param includeItems Whether to populate the inventory/low-stock/out-of-stock item lists
+     */
+    public InventoryReportDTO generateInventoryReport(boolean includeItems) {
         InventoryReportDTO report = new InventoryReportDTO();
         report.setReportDate(LocalDateTime.now());
-        report.setTotalProducts(allProducts.size());
+
+        Document totals = aggregateInventoryTotals();
+        report.setTotalProducts(intValue(totals, "totalProducts"));
+        report.setTotalStockValue((int) doubleValue(totals, "totalStockValue"));
+        report.setLowStockCount(intValue(totals, "lowStockCount"));
+        report.setOutOfStockCount(intValue(totals, "outOfStockCount"));
+
+        if (!includeItems) {
+            return report;
+        }
 
         List<InventoryItemDTO> inventoryItems = new ArrayList<>();
         List<InventoryItemDTO> lowStockItems = new ArrayList<>();
         List<InventoryItemDTO> outOfStockItems = new ArrayList<>();
-        
-        double totalStockValue = 0.0;
-        int lowStockCount = 0;
-        int outOfStockCount = 0;
-
-        for (Product product : allProducts) {
-            InventoryItemDTO item = new InventoryItemDTO(
-                    product.getId(),
-                    product.getName(),
-                    product.getSku(),
-                    product.getStock(),
-                    product.getPrice()
-            );
-            
-            item.setCategory(product.getCategory());
-            item.setBrand(product.getBrand());
-            
-            inventoryItems.add(item);
-            totalStockValue += item.getStockValue();
-
-            if (item.isOutOfStock()) {
-                outOfStockItems.add(item);
-                outOfStockCount++;
-            } else if (item.isLowStock()) {
-                lowStockItems.add(item);
-                lowStockCount++;
-            }
+
+        Query query = inventoryItemQuery(new Criteria());
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(product -> {
+                InventoryItemDTO item = toInventoryItem(product);
+                inventoryItems.add(item);
+
+                if (item.isOutOfStock()) {
+                    outOfStockItems.add(item);
+                } else if (item.isLowStock()) {
+                    lowStockItems.add(item);
+                }
+            });
         }
 
-        report.setTotalStockValue((int) totalStockValue);
-        report.setLowStockCount(lowStockCount);
-        report.setOutOfStockCount(outOfStockCount);
         report.setInventoryItems(inventoryItems);
         report.setLowStockItems(lowStockItems);
         report.setOutOfStockItems(outOfStockItems);
@@ -148,6 +251,80 @@ public class ReportsService {
         return report;
     }
 
+    /**
+     * Products with 1..{@value #LOW_STOCK_THRESHOLD} units left, lowest stock first.
+     * Uses an index range scan on stock instead of building the whole inventory report.
+     */
+    public List<InventoryItemDTO> findLowStockItems() {
+        Query query = inventoryItemQuery(Criteria.where("stock").gt(0).lte(LOW_STOCK_THRESHOLD))
+                .with(Sort.by(Sort.Direction.ASC, "stock"));
+        return mongoTemplate.find(query, Product.class).stream()
+                .map(this::toInventoryItem)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Products with no stock left, via an index lookup on stock
+     */
+    public List<InventoryItemDTO> findOutOfStockItems() {
+        Query query = inventoryItemQuery(Criteria.where("stock").is(0));
+        return mongoTemplate.find(query, Product.class).stream()
+                .map(this::toInventoryItem)
+                .collect(Collectors.toList());
+    }
+
+    private Query inventoryItemQuery(Criteria criteria) {
+        Query query = new Query(criteria).cursorBatchSize(INVENTORY_BATCH_SIZE);
+        query.fields().include("name", "sku", "stock", "price", "category", "brand");
+        return query;
+    }
+
+    private InventoryItemDTO toInventoryItem(Product product) {
+        InventoryItemDTO item = new InventoryItemDTO(
+                product.getId(),
+                product.getName(),
+                product.getSku(),
+                product.getStock(),
+                product.getPrice()
+        );
+        item.setCategory(product.getCategory());
+        item.setBrand(product.getBrand());
+        return item;
+    }
+
+    /**
+     * Product count, stock valuation and low/out-of-stock counts in one $group stage
+     */
+    private Document aggregateInventoryTotals() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group()
+                        .count().as("totalProducts")
+                        .sum(ArithmeticOperators.Multiply.valueOf("stock").multiplyBy("price")).as("totalStockValue")
+                        .sum(ConditionalOperators
+                                .when(ComparisonOperators.valueOf("stock").equalToValue(0))
+                                .then(1).otherwise(0)).as("outOfStockCount")
+                        .sum(ConditionalOperators
+                                .when(BooleanOperators.And.and(
+                                        ComparisonOperators.valueOf("stock").greaterThanValue(0),
+                                        ComparisonOperators.valueOf("stock").lessThanEqualToValue(LOW_STOCK_THRESHOLD)))
+                                .then(1).otherwise(0)).as("lowStockCount")
+        );
+
+        Document totals = mongoTemplate.aggregate(aggregation, Product.class, Document.class)
+                .getUniqueMappedResult();
+        return totals != null ? totals : new Document(); // empty collection yields no group
+    }
+
+    private static int intValue(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static double doubleValue(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
     private List<DailySalesDTO> generateDailySalesBreakdown(List<Order> orders, LocalDate startDate, LocalDate endDate) {
         Map<LocalDate, DailySalesData> dailyDataMap = new HashMap<>();
         
@@ -178,6 +355,26 @@ public class ReportsService {
     }
 
     // Helper classes
+    private static class SummaryEntry {
+        private final LocalDate endDate;
+        private final CompletableFuture<ReportsSummaryDTO> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        SummaryEntry(LocalDate endDate) {
+            this.endDate = endDate;
+        }
+
+        boolean isUsable(LocalDate requestedEndDate, long ttlNanos) {
+            if (!endDate.equals(requestedEndDate) || future.isCompletedExceptionally()) {
+                return false;
+            }
+            if (!future.isDone()) {
+                return true; // in flight - join it instead of starting another one
+            }
+            return System.nanoTime() - completedAt < ttlNanos;
+        }
+    }
+
     private static class ProductSalesData {
         private int quantitySold = 0;
         private double totalRevenue = 0.0;
@@ -5,14 +5,20 @@ import com.example.hardwaremanagement.model.*;
 import com.example.hardwaremanagement.repository.OrderRepository;
 import com.example.hardwaremanagement.repository.ProductRepository;
 import com.example.hardwaremanagement.repository.ReturnExchangeRepository;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,31 +33,63 @@ public class ReturnExchangeService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ReportsService reportsService;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     // Return policy: 30 days from delivery
     private static final int RETURN_WINDOW_DAYS = 30;
 
+    // A return/exchange in any other status blocks a new one for the same order
+    private static final List<String> INACTIVE_RETURN_STATUSES = List.of(
+            ReturnExchangeStatus.COMPLETED.name(),
+            ReturnExchangeStatus.REJECTED.name(),
+            ReturnExchangeStatus.CANCELLED.name());
+
     /**
      * Fetch all orders eligible for return/exchange
      * Orders are eligible if:
      * 1. Status is DELIVERED
      * 2. Within 30 days of delivery
      * 3. No active return/exchange already exists
+     *
+     * One aggregation: an index range on (status, placedAt) picks the delivered orders inside
+     * the window and a $lookup anti-join drops those with an active return, so only currently
+     * eligible orders are read.
      */
     public List<EligibleOrderDTO> getEligibleOrdersForReturn() {
-        // Get all delivered orders
-        List<Order> allOrders = orderRepository.findAll();
-        
-        List<EligibleOrderDTO> eligibleOrders = new ArrayList<>();
-        
-        for (Order order : allOrders) {
-            EligibleOrderDTO dto = evaluateOrderEligibility(order);
-            eligibleOrders.add(dto);
-        }
-        
-        // Sort by order date (most recent first)
-        eligibleOrders.sort((a, b) -> b.getOrderDate().compareTo(a.getOrderDate()));
-        
-        return eligibleOrders;
+        LocalDateTime windowStart = LocalDateTime.now().minusDays(RETURN_WINDOW_DAYS + 1);
+
+        // Returns of this order (orders._id is an ObjectId, return_exchanges.orderId its string)
+        // that are still in progress; one is enough to rule the order out
+        Document activeReturnMatch = new Document("$expr", new Document("$and", List.of(
+                new Document("$eq", List.of("$orderId", "$$orderId")),
+                new Document("$not", List.of(new Document("$in", List.of("$status", INACTIVE_RETURN_STATUSES)))))));
+        Document activeReturnLookup = new Document("$lookup", new Document()
+                .append("from", mongoTemplate.getCollectionName(ReturnExchange.class))
+                .append("let", new Document("orderId", new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        new Document("$match", activeReturnMatch),
+                        new Document("$limit", 1),
+                        new Document("$project", new Document("_id", 1))))
+                .append("as", "activeReturns"));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").is(OrderStatus.DELIVERED).and("placedAt").gt(windowStart)),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "placedAt")),
+                context -> activeReturnLookup,
+                Aggregation.match(Criteria.where("activeReturns").size(0)),
+                Aggregation.project("customerEmail", "placedAt", "totalAmount", "status", "items"));
+
+        // Sorted by order date (most recent first)
+        return mongoTemplate.aggregate(aggregation, Order.class, Order.class).getMappedResults().stream()
+                .map(order -> toEligibilityDTO(order, false))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -59,9 +97,11 @@ public class ReturnExchangeService {
      */
     public List<EligibleOrderDTO> getEligibleOrdersForCustomer(String customerId) {
         List<Order> customerOrders = orderRepository.findByCustomerIdOrderByPlacedAtDesc(customerId);
+        Set<String> withActiveReturn = ordersWithActiveReturn(
+                customerOrders.stream().map(Order::getId).collect(Collectors.toList()));
         
         return customerOrders.stream()
-                .map(this::evaluateOrderEligibility)
+                .map(order -> toEligibilityDTO(order, withActiveReturn.contains(order.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -79,6 +119,24 @@ public class ReturnExchangeService {
      * Evaluate if an order is eligible for return/exchange
      */
     private EligibleOrderDTO evaluateOrderEligibility(Order order) {
+        return toEligibilityDTO(order, !ordersWithActiveReturn(List.of(order.getId())).isEmpty());
+    }
+
+    /**
+     * Ids of the given orders that have a return/exchange still in progress (one query)
+     */
+    private Set<String> ordersWithActiveReturn(List<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("orderId").in(orderIds).and("status").nin(INACTIVE_RETURN_STATUSES));
+        query.fields().include("orderId");
+        return mongoTemplate.find(query, ReturnExchange.class).stream()
+                .map(ReturnExchange::getOrderId)
+                .collect(Collectors.toSet());
+    }
+
+    private EligibleOrderDTO toEligibilityDTO(Order order, boolean hasActiveReturn) {
         EligibleOrderDTO dto = new EligibleOrderDTO();
         dto.setOrderId(order.getId());
         dto.setCustomerEmail(order.getCustomerEmail());
@@ -96,13 +154,6 @@ public class ReturnExchangeService {
         // Check if within return window
         boolean withinReturnWindow = daysSinceOrder <= RETURN_WINDOW_DAYS;
         
-        // Check if there's already an active return/exchange
-        List<ReturnExchange> existingReturns = returnExchangeRepository.findByOrderId(order.getId());
-        boolean hasActiveReturn = existingReturns.stream()
-                .anyMatch(r -> r.getStatus() != ReturnExchangeStatus.COMPLETED 
-                            && r.getStatus() != ReturnExchangeStatus.REJECTED
-                            && r.getStatus() != ReturnExchangeStatus.CANCELLED);
-
         // Determine eligibility
         boolean eligible = isDelivered && withinReturnWindow && !hasActiveReturn;
         
@@ -237,6 +288,8 @@ public class ReturnExchangeService {
                 int currentStock = product.getStock();
                 product.setStock(currentStock + item.getQuantity());
                 productRepository.save(product);
+                reportsService.invalidateSummaryCache();
+                demandForecastService.recordReturn(item.getProductId(), item.getQuantity());
             }
         }
     }
@@ -1,26 +1,47 @@
 package com.example.hardwaremanagement.service;
 
 import com.example.hardwaremanagement.model.Order;
+import com.example.hardwaremanagement.model.ProductRating;
 import com.example.hardwaremanagement.model.Review;
 import com.example.hardwaremanagement.repository.OrderRepository;
 import com.example.hardwaremanagement.repository.ReviewRepository;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class ReviewService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ReviewRepository reviewRepository;
     private final OrderRepository orderRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ReviewVoteBuffer voteBuffer;
 
-    public ReviewService(ReviewRepository reviewRepository, OrderRepository orderRepository) {
+    public ReviewService(ReviewRepository reviewRepository, OrderRepository orderRepository,
+                         MongoTemplate mongoTemplate, ReviewVoteBuffer voteBuffer) {
         this.reviewRepository = reviewRepository;
         this.orderRepository = orderRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.voteBuffer = voteBuffer;
     }
 
     /**
@@ -55,14 +76,62 @@ public class ReviewService {
         review.setHelpfulCount(0);
         review.setNotHelpfulCount(0);
 
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        adjustRating(saved.getProductId(), 0, approvedRating(saved));
+        return saved;
     }
 
     /**
-     * Get all approved reviews for a product
+     * Get a product's approved reviews one page at a time
+     * @param sort recent (default), rating or helpful; always highest first
+     * @param cursor Cursor of the last review of the previous page (null for the first page)
+     * @param listView Leave out images and the admin response
      */
-    public List<Review> getProductReviews(String productId) {
-        return reviewRepository.findByProductIdAndStatus(productId, "APPROVED");
+    public List<Review> getProductReviews(String productId, String sort, String cursor, int size, boolean listView) {
+        String sortField = sortFieldOf(sort);
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Criteria criteria = Criteria.where("productId").is(productId).and("status").is("APPROVED");
+        if (cursor != null && !cursor.isBlank()) {
+            // Keyset: strictly after the last row seen in (sort key desc, _id desc) order.
+            // Rating and helpfulness can change between pages; a review then may move past the cursor.
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            Object value = sortField.equals("createdAt") ? after.timeValue() : after.intValue();
+            criteria = criteria.andOperator(after.after(sortField, value, KeysetCursor::objectId));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, sortField).and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+        if (listView) {
+            query.fields().exclude("images", "adminResponse", "adminRespondedAt");
+        }
+        return mongoTemplate.find(query, Review.class);
+    }
+
+    /**
+     * Opaque cursor pointing just after the given review in the given sort order
+     */
+    public String cursorOf(Review review, String sort) {
+        String value = switch (sortFieldOf(sort)) {
+            case "rating" -> Integer.toString(review.getRating());
+            case "helpfulCount" -> Integer.toString(review.getHelpfulCount());
+            default -> String.valueOf(review.getCreatedAt());
+        };
+        return KeysetCursor.encode(value, review.getId());
+    }
+
+    private static String sortFieldOf(String sort) {
+        if (sort == null || sort.isBlank() || sort.equalsIgnoreCase("recent")) {
+            return "createdAt";
+        }
+        if (sort.equalsIgnoreCase("rating")) {
+            return "rating";
+        }
+        if (sort.equalsIgnoreCase("helpful")) {
+            return "helpfulCount";
+        }
+        throw new IllegalArgumentException("Unknown sort: " + sort);
     }
 
     /**
@@ -84,23 +153,42 @@ public class ReviewService {
             throw new RuntimeException("Unauthorized");
         }
 
-        if (update.getRating() >= 1 && update.getRating() <= 5) {
-            existing.setRating(update.getRating());
+        // $set only the changed fields and get the document as it was just before this
+        // write, so the rating delta is exact even with concurrent moderation
+        Update changes = new Update();
+        boolean ratingChanged = update.getRating() >= 1 && update.getRating() <= 5;
+        if (ratingChanged) {
+            changes.set("rating", update.getRating());
         }
         if (update.getTitle() != null) {
-            existing.setTitle(update.getTitle());
+            changes.set("title", update.getTitle());
         }
         if (update.getComment() != null) {
-            existing.setComment(update.getComment());
+            changes.set("comment", update.getComment());
         }
         if (update.getImages() != null) {
-            existing.setImages(update.getImages());
+            changes.set("images", update.getImages());
         }
+        LocalDateTime now = LocalDateTime.now();
+        changes.set("updatedAt", now);
+        changes.set("status", "APPROVED"); // Re-approve after update
 
-        existing.setUpdatedAt(LocalDateTime.now());
-        existing.setStatus("APPROVED"); // Re-approve after update
+        Review review = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(reviewId)), changes, Review.class);
+        if (review == null) {
+            throw new RuntimeException("Review not found");
+        }
+        int oldRating = approvedRating(review);
+
+        // Same changes on the returned copy
+        if (ratingChanged) review.setRating(update.getRating());
+        if (update.getTitle() != null) review.setTitle(update.getTitle());
+        if (update.getComment() != null) review.setComment(update.getComment());
+        if (update.getImages() != null) review.setImages(update.getImages());
+        review.setUpdatedAt(now);
+        review.setStatus("APPROVED");
 
-        return reviewRepository.save(existing);
+        adjustRating(review.getProductId(), oldRating, approvedRating(review));
+        return review;
     }
 
     /**
@@ -114,51 +202,54 @@ public class ReviewService {
             throw new RuntimeException("Unauthorized");
         }
 
-        reviewRepository.deleteById(reviewId);
+        Review removed = mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(reviewId)), Review.class);
+        if (removed != null) {
+            adjustRating(removed.getProductId(), approvedRating(removed), 0);
+        }
     }
 
     /**
-     * Mark review as helpful
+     * Mark review as helpful (buffered; written with the next vote flush)
      */
     public Review markHelpful(String reviewId) {
-        Review review = reviewRepository.findById(reviewId)
-            .orElseThrow(() -> new RuntimeException("Review not found"));
-
-        review.setHelpfulCount(review.getHelpfulCount() + 1);
-        return reviewRepository.save(review);
+        Review review = voteBuffer.recordHelpful(reviewId);
+        if (review == null) {
+            throw new RuntimeException("Review not found");
+        }
+        return review;
     }
 
     /**
-     * Mark review as not helpful
+     * Mark review as not helpful (buffered; written with the next vote flush)
      */
     public Review markNotHelpful(String reviewId) {
-        Review review = reviewRepository.findById(reviewId)
-            .orElseThrow(() -> new RuntimeException("Review not found"));
-
-        review.setNotHelpfulCount(review.getNotHelpfulCount() + 1);
-        return reviewRepository.save(review);
+        Review review = voteBuffer.recordNotHelpful(reviewId);
+        if (review == null) {
+            throw new RuntimeException("Review not found");
+        }
+        return review;
     }
 
     /**
      * Admin: Respond to review
      */
     public Review respondToReview(String reviewId, String response) {
-        Review review = reviewRepository.findById(reviewId)
-            .orElseThrow(() -> new RuntimeException("Review not found"));
-
-        review.setAdminResponse(response);
-        review.setAdminRespondedAt(LocalDateTime.now());
-
-        return reviewRepository.save(review);
+        // $set, not save: a full save would overwrite vote counts flushed in the meantime
+        Review review = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(reviewId)),
+                new Update().set("adminResponse", response).set("adminRespondedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), Review.class);
+        if (review == null) {
+            throw new RuntimeException("Review not found");
+        }
+        return review;
     }
 
     /**
      * Get product rating statistics
      */
     public Map<String, Object> getProductRatingStats(String productId) {
-        List<Review> reviews = reviewRepository.findByProductIdAndStatus(productId, "APPROVED");
-
-        if (reviews.isEmpty()) {
+        ProductRating rating = mongoTemplate.findById(productId, ProductRating.class);
+        if (rating == null || rating.getCount() == 0) {
             return Map.of(
                 "averageRating", 0.0,
                 "totalReviews", 0,
@@ -166,27 +257,118 @@ public class ReviewService {
             );
         }
 
-        double average = reviews.stream()
-            .mapToInt(Review::getRating)
-            .average()
-            .orElse(0.0);
-
-        Map<Integer, Long> distribution = reviews.stream()
-            .collect(Collectors.groupingBy(Review::getRating, Collectors.counting()));
+        Map<Integer, Long> distribution = new HashMap<>();
+        for (int stars = 1; stars <= 5; stars++) {
+            distribution.put(stars, rating.getStarCount(stars));
+        }
 
         Map<String, Object> stats = new HashMap<>();
-        stats.put("averageRating", Math.round(average * 10.0) / 10.0);
-        stats.put("totalReviews", reviews.size());
+        stats.put("averageRating", rating.getAverage());
+        stats.put("totalReviews", rating.getCount());
         stats.put("ratingDistribution", distribution);
-        stats.put("fiveStarCount", distribution.getOrDefault(5, 0L));
-        stats.put("fourStarCount", distribution.getOrDefault(4, 0L));
-        stats.put("threeStarCount", distribution.getOrDefault(3, 0L));
-        stats.put("twoStarCount", distribution.getOrDefault(2, 0L));
-        stats.put("oneStarCount", distribution.getOrDefault(1, 0L));
+        stats.put("fiveStarCount", distribution.get(5));
+        stats.put("fourStarCount", distribution.get(4));
+        stats.put("threeStarCount", distribution.get(3));
+        stats.put("twoStarCount", distribution.get(2));
+        stats.put("oneStarCount", distribution.get(1));
 
         return stats;
     }
 
+    /**
+     * Average and count for many products in one query; products without reviews get zeros
+     */
+    public Map<String, Map<String, Object>> getRatingSummaries(Collection<String> productIds) {
+        Map<String, ProductRating> ratings = new HashMap<>();
+        for (ProductRating rating : mongoTemplate.find(new Query(Criteria.where("_id").in(productIds)), ProductRating.class)) {
+            ratings.put(rating.getProductId(), rating);
+        }
+
+        Map<String, Map<String, Object>> summaries = new LinkedHashMap<>();
+        for (String productId : productIds) {
+            ProductRating rating = ratings.get(productId);
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("averageRating", rating != null ? rating.getAverage() : 0.0);
+            summary.put("totalReviews", rating != null ? rating.getCount() : 0L);
+            summaries.put(productId, summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * Seed the aggregates from the reviews once, when the side collection is still empty
+     */
+    @PostConstruct
+    public void initRatingAggregates() {
+        try {
+            if (mongoTemplate.count(new Query(), ProductRating.class) == 0) {
+                rebuildRatingAggregates();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to seed product rating aggregates: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute every product's aggregate from its approved reviews in one $group
+     * @return Number of products with approved reviews
+     */
+    public int rebuildRatingAggregates() {
+        GroupOperation group = Aggregation.group("productId").count().as("count").sum("rating").as("sum");
+        for (int stars = 1; stars <= 5; stars++) {
+            group = group.sum(ConditionalOperators.when(Criteria.where("rating").is(stars)).then(1).otherwise(0))
+                    .as("stars" + stars);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").is("APPROVED")),
+                group);
+
+        List<ProductRating> ratings = new ArrayList<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, Review.class, Document.class)) {
+            ProductRating rating = new ProductRating(result.getString("_id"));
+            rating.setCount(((Number) result.get("count")).longValue());
+            rating.setSum(((Number) result.get("sum")).longValue());
+            for (int stars = 1; stars <= 5; stars++) {
+                rating.getStarCounts().put(Integer.toString(stars), ((Number) result.get("stars" + stars)).longValue());
+            }
+            ratings.add(rating);
+        }
+
+        mongoTemplate.remove(new Query(), ProductRating.class);
+        if (!ratings.isEmpty()) {
+            mongoTemplate.insertAll(ratings);
+        }
+        return ratings.size();
+    }
+
+    /**
+     * Move one review's contribution from oldRating to newRating (0 = not counted) with $inc
+     */
+    private void adjustRating(String productId, int oldRating, int newRating) {
+        if (productId == null || oldRating == newRating) {
+            return;
+        }
+        Update inc = new Update().inc("sum", newRating - oldRating);
+        int countDelta = (newRating > 0 ? 1 : 0) - (oldRating > 0 ? 1 : 0);
+        if (countDelta != 0) {
+            inc.inc("count", countDelta);
+        }
+        if (oldRating > 0) {
+            inc.inc("starCounts." + oldRating, -1);
+        }
+        if (newRating > 0) {
+            inc.inc("starCounts." + newRating, 1);
+        }
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(productId)), inc, ProductRating.class);
+    }
+
+    /**
+     * Rating a review contributes to its product's aggregate: only approved reviews count
+     */
+    private static int approvedRating(Review review) {
+        return "APPROVED".equals(review.getStatus()) ? review.getRating() : 0;
+    }
+
     /**
      * Get pending reviews for moderation
      */
@@ -198,21 +380,25 @@ public class ReviewService {
      * Approve review
      */
     public Review approveReview(String reviewId) {
-        Review review = reviewRepository.findById(reviewId)
-            .orElseThrow(() -> new RuntimeException("Review not found"));
-
-        review.setStatus("APPROVED");
-        return reviewRepository.save(review);
+        return setStatus(reviewId, "APPROVED");
     }
 
     /**
      * Reject review
      */
     public Review rejectReview(String reviewId) {
-        Review review = reviewRepository.findById(reviewId)
-            .orElseThrow(() -> new RuntimeException("Review not found"));
+        return setStatus(reviewId, "REJECTED");
+    }
 
-        review.setStatus("REJECTED");
-        return reviewRepository.save(review);
+    private Review setStatus(String reviewId, String status) {
+        Review before = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(reviewId)),
+                new Update().set("status", status), Review.class);
+        if (before == null) {
+            throw new RuntimeException("Review not found");
+        }
+        int oldRating = approvedRating(before);
+        before.setStatus(status);
+        adjustRating(before.getProductId(), oldRating, approvedRating(before));
+        return before;
     }
 }
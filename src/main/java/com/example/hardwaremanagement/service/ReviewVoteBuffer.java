@@ -0,0 +1,190 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.model.Review;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces helpful/not-helpful votes in memory. A vote is a LongAdder increment; every few
+ * seconds the accumulated deltas of all reviews go to Mongo as one unordered bulk write of
+ * $inc updates, and the buffer is flushed once more on shutdown.
+ *
+ * The review is read once when its entry is created and kept with it, so votes on a review
+ * that is being voted on do not read Mongo and never take a lock. Deltas are taken by
+ * subtracting what was read rather than resetting, so votes arriving during a flush are kept
+ * for the next one. Updates that fail are added back; entries left at zero are removed.
+ */
+@Component
+public class ReviewVoteBuffer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // One entry per review voted on since the last flush that found it idle
+    private final Map<String, Votes> votes = new ConcurrentHashMap<>();
+
+    private static final class Votes {
+        final Review review; // as read when the entry was created
+        final LongAdder helpful = new LongAdder(); // not yet written
+        final LongAdder notHelpful = new LongAdder();
+        final LongAdder writtenHelpful = new LongAdder(); // written since the review was read
+        final LongAdder writtenNotHelpful = new LongAdder();
+        // Set by flush while it removes an idle entry; a vote that sees it takes itself back
+        // and retries on a fresh entry
+        volatile boolean retired;
+
+        Votes(Review review) {
+            this.review = review;
+        }
+
+        boolean isEmpty() {
+            return helpful.sum() == 0 && notHelpful.sum() == 0;
+        }
+
+        /**
+         * Copy of the review with everything voted since it was read
+         */
+        Review current() {
+            Review copy = new Review();
+            BeanUtils.copyProperties(review, copy);
+            copy.setHelpfulCount(review.getHelpfulCount() + (int) (writtenHelpful.sum() + helpful.sum()));
+            copy.setNotHelpfulCount(review.getNotHelpfulCount() + (int) (writtenNotHelpful.sum() + notHelpful.sum()));
+            return copy;
+        }
+    }
+
+    private record Delta(String reviewId, Votes votes, long helpful, long notHelpful) {}
+
+    /**
+     * @return The review with its counts including this vote, or null if there is no such review
+     */
+    public Review recordHelpful(String reviewId) {
+        return record(reviewId, true);
+    }
+
+    /**
+     * @return The review with its counts including this vote, or null if there is no such review
+     */
+    public Review recordNotHelpful(String reviewId) {
+        return record(reviewId, false);
+    }
+
+    private Review record(String reviewId, boolean helpful) {
+        while (true) {
+            Votes pending = votes.get(reviewId);
+            if (pending == null) {
+                Review review = mongoTemplate.findById(reviewId, Review.class);
+                if (review == null) {
+                    return null;
+                }
+                pending = votes.computeIfAbsent(reviewId, id -> new Votes(review));
+            }
+            LongAdder counter = helpful ? pending.helpful : pending.notHelpful;
+            counter.increment();
+            if (!pending.retired) {
+                return pending.current();
+            }
+            counter.decrement();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Write all pending deltas with one bulk $inc
+     * @return Reviews updated
+     */
+    @Scheduled(fixedDelayString = "${reviews.votes.flush-ms:5000}")
+    public synchronized int flush() {
+        List<Delta> deltas = new ArrayList<>();
+        for (Map.Entry<String, Votes> entry : votes.entrySet()) {
+            Votes pending = entry.getValue();
+            long helpful = pending.helpful.sum();
+            long notHelpful = pending.notHelpful.sum();
+            if (helpful == 0 && notHelpful == 0) {
+                removeIfEmpty(entry.getKey(), pending);
+                continue;
+            }
+            // Counted as written first, so current() never drops the votes in flight
+            pending.writtenHelpful.add(helpful);
+            pending.writtenNotHelpful.add(notHelpful);
+            pending.helpful.add(-helpful);
+            pending.notHelpful.add(-notHelpful);
+            deltas.add(new Delta(entry.getKey(), pending, helpful, notHelpful));
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+        for (Delta delta : deltas) {
+            Update inc = new Update();
+            if (delta.helpful() != 0) {
+                inc.inc("helpfulCount", delta.helpful());
+            }
+            if (delta.notHelpful() != 0) {
+                inc.inc("notHelpfulCount", delta.notHelpful());
+            }
+            bulk.updateOne(new Query(Criteria.where("_id").is(delta.reviewId())), inc);
+        }
+        int written = deltas.size();
+        try {
+            // A review deleted since its entry was created matches nothing; its votes are dropped
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every update without an error was applied, only the failed ones are kept
+            for (BulkWriteError error : e.getErrors()) {
+                restore(deltas.get(error.getIndex()));
+            }
+            written -= e.getErrors().size();
+            System.err.println("Failed to flush " + e.getErrors().size() + " of " + deltas.size()
+                    + " review vote counters: " + e.getMessage());
+        } catch (Exception e) {
+            // Nothing is known to have been applied: keep all of them for the next flush
+            deltas.forEach(this::restore);
+            System.err.println("Failed to flush " + deltas.size() + " review vote counters: " + e.getMessage());
+            return 0;
+        }
+        return written;
+    }
+
+    private void restore(Delta delta) {
+        delta.votes().helpful.add(delta.helpful());
+        delta.votes().notHelpful.add(delta.notHelpful());
+        delta.votes().writtenHelpful.add(-delta.helpful());
+        delta.votes().writtenNotHelpful.add(-delta.notHelpful());
+    }
+
+    /**
+     * Tombstone the entry, then drop it only if it is still empty. A vote that incremented
+     * before the tombstone was set is seen by the second check and keeps the entry; one that
+     * incremented after sees the tombstone and moves to a new entry.
+     */
+    private void removeIfEmpty(String reviewId, Votes pending) {
+        pending.retired = true;
+        if (pending.isEmpty()) {
+            votes.remove(reviewId, pending);
+        } else {
+            pending.retired = false;
+        }
+    }
+}
@@ -0,0 +1,578 @@
+package com.example.hardwaremanagement.service;
+
+import com.example.hardwaremanagement.dto.SalesAnalyticsDTO;
+import com.example.hardwaremanagement.dto.SalesAnalyticsRowDTO;
+import com.example.hardwaremanagement.model.AnalyticsDimension;
+import com.example.hardwaremanagement.model.Order;
+import com.example.hardwaremanagement.model.OrderItem;
+import com.example.hardwaremanagement.model.OrderStatus;
+import com.example.hardwaremanagement.model.Product;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * In-memory columnar store of order lines for ad-hoc sales analytics.
+ *
+ * Every non-cancelled order line is kept as one row across primitive column arrays
+ * (dictionary-encoded product/category/brand/customer, epoch day, hour, quantity and
+ * revenue in cents), about 33 bytes per line. Group-by/filter queries are parallel
+ * fork-join scans over those arrays and never touch Mongo.
+ *
+ * The store is append-only with a single writer: a scheduled refresh loads orders created
+ * since the last run (by ObjectId, so back-dated orders are picked up too) and reconciles
+ * orders whose cancellation state changed by appending negative reversal lines.
+ * Readers work on an immutable published snapshot and never block the writer.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    // Lines per fork-join leaf task
+    private static final int SCAN_THRESHOLD = 1 << 15;
+    private static final int LOAD_BATCH_SIZE = 500;
+    // ObjectIds are only roughly ordered across concurrent inserts, so re-read the last minute of ids
+    private static final int ID_OVERLAP_SECONDS = 60;
+    private static final String UNKNOWN = "Unknown";
+
+    // Dictionaries: codes are only ever appended, so a published code stays valid forever
+    private final Dictionary productIds = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary brands = new Dictionary();
+    private final Dictionary customers = new Dictionary();
+
+    // Orders whose status flipped into or out of CANCELLED since the last refresh
+    private final ConcurrentLinkedQueue<String> cancellationChanges = new ConcurrentLinkedQueue<>();
+
+    // Latest published columns; readers only ever see lines [0, size)
+    private volatile Columns columns = new Columns(new Chunk[0], 0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+    private volatile LocalDateTime lastRefreshAt;
+
+    // ---- Writer state, only touched while holding writeLock ----
+    private final Object writeLock = new Object();
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int size;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+    private int[] productCategory = new int[256];
+    private int[] productBrand = new int[256];
+    private ObjectId watermark;
+    // Ids loaded inside the overlap window, so re-reading the window never double counts
+    private final Map<ObjectId, Boolean> recentIds = new HashMap<>();
+    // Loaded orders that currently contribute no lines (cancelled)
+    private final Set<String> excludedOrderIds = new HashSet<>();
+    private volatile long ordersLoaded;
+
+    /**
+     * Record that an order moved into or out of CANCELLED; applied on the next refresh
+     */
+    public void onOrderStatusChanged(String orderId, OrderStatus previousStatus, OrderStatus newStatus) {
+        if (orderId != null && (previousStatus == OrderStatus.CANCELLED) != (newStatus == OrderStatus.CANCELLED)) {
+            cancellationChanges.add(orderId);
+        }
+    }
+
+    /**
+     * Load new orders and apply pending cancellation changes.
+     * The first run loads the full order history.
+     */
+    @Scheduled(fixedDelayString = "${reports.analytics.refresh-ms:30000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            try {
+                loadNewOrders();
+                applyCancellationChanges();
+                lastRefreshAt = LocalDateTime.now();
+            } catch (Exception e) {
+                System.err.println("Sales analytics refresh failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Group order lines by a dimension with optional filters.
+     * Unknown filter values match nothing. Time buckets are returned in natural order,
+     * other dimensions by revenue (highest first) and cut to {@code limit} rows.
+     */
+    public SalesAnalyticsDTO query(AnalyticsDimension groupBy, LocalDate startDate, LocalDate endDate,
+                                   String productId, String categoryId, String brand, String customerId,
+                                   int limit) {
+        long started = System.nanoTime();
+        Columns snapshot = columns;
+
+        SalesAnalyticsDTO result = new SalesAnalyticsDTO();
+        result.setGroupBy(groupBy);
+        result.setStartDate(startDate);
+        result.setEndDate(endDate);
+        result.setRows(new ArrayList<>());
+
+        // Clamp to the stored days so DAY buckets never exceed the data actually present
+        int fromDay = Math.max(snapshot.minDay(), startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE);
+        int toDay = Math.min(snapshot.maxDay(), endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE);
+
+        int productCode = filterCode(productIds, productId);
+        int categoryCode = filterCode(categories, categoryId);
+        int brandCode = filterCode(brands, brand);
+        int customerCode = filterCode(customers, customerId);
+        if (snapshot.size() == 0 || fromDay > toDay || productCode == NO_MATCH || categoryCode == NO_MATCH
+                || brandCode == NO_MATCH || customerCode == NO_MATCH) {
+            result.setQueryTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+            return result;
+        }
+
+        // Dictionaries are read after the snapshot, so every code in it is below the cardinality
+        ScanSpec spec = new ScanSpec(snapshot, groupBy, cardinality(groupBy, fromDay, toDay),
+                fromDay, toDay, productCode, categoryCode, brandCode, customerCode, new ConcurrentHashMap<>());
+        ForkJoinPool.commonPool().invoke(new ScanTask(spec, 0, snapshot.size()));
+        Partial totals = new Partial(spec.cardinality());
+        spec.partials().values().forEach(totals::merge);
+
+        List<SalesAnalyticsRowDTO> rows = new ArrayList<>();
+        long totalQuantity = 0;
+        long totalRevenueCents = 0;
+        long totalLines = 0;
+        for (int key = 0; key < spec.cardinality(); key++) {
+            if (totals.lines[key] == 0) {
+                continue;
+            }
+            totalQuantity += totals.quantity[key];
+            totalRevenueCents += totals.revenueCents[key];
+            totalLines += totals.lines[key];
+            rows.add(new SalesAnalyticsRowDTO(label(groupBy, key, fromDay), totals.quantity[key],
+                    totals.revenueCents[key] / 100.0, totals.lines[key]));
+        }
+        if (!groupBy.isTimeBucket()) {
+            rows.sort(Comparator.comparingDouble(SalesAnalyticsRowDTO::getRevenue).reversed());
+            if (limit > 0 && rows.size() > limit) {
+                rows = new ArrayList<>(rows.subList(0, limit));
+            }
+        }
+
+        result.setRows(rows);
+        result.setTotalQuantity(totalQuantity);
+        result.setTotalRevenue(totalRevenueCents / 100.0);
+        result.setTotalOrderLines(totalLines);
+        result.setScannedLines(snapshot.size());
+        result.setQueryTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+        return result;
+    }
+
+    /**
+     * Size and freshness of the store
+     */
+    public Map<String, Object> getStoreStats() {
+        Columns snapshot = columns;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lines", snapshot.size());
+        stats.put("chunks", snapshot.chunks().length);
+        stats.put("approxColumnBytes", (long) snapshot.chunks().length * CHUNK_SIZE * Chunk.BYTES_PER_LINE);
+        stats.put("products", productIds.size());
+        stats.put("categories", categories.size());
+        stats.put("brands", brands.size());
+        stats.put("customers", customers.size());
+        stats.put("firstDay", snapshot.size() > 0 ? LocalDate.ofEpochDay(snapshot.minDay()) : null);
+        stats.put("lastDay", snapshot.size() > 0 ? LocalDate.ofEpochDay(snapshot.maxDay()) : null);
+        stats.put("pendingCancellationChanges", cancellationChanges.size());
+        stats.put("lastRefreshAt", lastRefreshAt);
+        stats.put("ordersLoaded", ordersLoaded);
+        return stats;
+    }
+
+    // ==================== Loading ====================
+
+    private void loadNewOrders() {
+        Criteria criteria = new Criteria();
+        if (watermark != null) {
+            // Smallest possible ObjectId for the start of the overlap window
+            String windowStart = String.format("%08x", watermark.getTimestamp() - ID_OVERLAP_SECONDS);
+            criteria = Criteria.where("_id").gt(new ObjectId(windowStart + "0000000000000000"));
+        }
+        Query query = orderLinesQuery(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(LOAD_BATCH_SIZE);
+
+        List<Order> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        try (Stream<Order> orders = mongoTemplate.stream(query, Order.class)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                if (!ObjectId.isValid(order.getId()) || recentIds.containsKey(new ObjectId(order.getId()))) {
+                    continue;
+                }
+                batch.add(order);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    appendNewOrders(batch);
+                    batch.clear();
+                }
+            }
+        }
+        appendNewOrders(batch);
+        pruneRecentIds();
+    }
+
+    private void appendNewOrders(List<Order> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        resolveProducts(batch);
+        for (Order order : batch) {
+            ObjectId id = new ObjectId(order.getId());
+            if (watermark == null || id.compareTo(watermark) > 0) {
+                watermark = id;
+            }
+            recentIds.put(id, Boolean.TRUE);
+            ordersLoaded++;
+
+            if (order.getStatus() == OrderStatus.CANCELLED || order.getPlacedAt() == null) {
+                excludedOrderIds.add(order.getId());
+            } else {
+                appendLines(order, 1);
+            }
+        }
+        publish();
+    }
+
+    private void applyCancellationChanges() {
+        Set<String> changed = new LinkedHashSet<>();
+        String orderId;
+        while ((orderId = cancellationChanges.poll()) != null) {
+            changed.add(orderId);
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        // Reconcile against the current document: the outcome is the same however many flips happened
+        List<Order> orders = mongoTemplate.find(orderLinesQuery(Criteria.where("_id").in(changed)), Order.class);
+        resolveProducts(orders);
+        for (Order order : orders) {
+            if (!isLoaded(order.getId()) || order.getPlacedAt() == null) {
+                continue; // not loaded yet - the next load reads its current status
+            }
+            boolean included = !excludedOrderIds.contains(order.getId());
+            boolean shouldInclude = order.getStatus() != OrderStatus.CANCELLED;
+            if (included && !shouldInclude) {
+                appendLines(order, -1);
+                excludedOrderIds.add(order.getId());
+            } else if (!included && shouldInclude) {
+                appendLines(order, 1);
+                excludedOrderIds.remove(order.getId());
+            }
+        }
+        publish();
+    }
+
+    private boolean isLoaded(String orderId) {
+        if (watermark == null || !ObjectId.isValid(orderId)) {
+            return false;
+        }
+        ObjectId id = new ObjectId(orderId);
+        return recentIds.containsKey(id)
+                || id.getTimestamp() <= watermark.getTimestamp() - ID_OVERLAP_SECONDS;
+    }
+
+    private void pruneRecentIds() {
+        if (watermark != null) {
+            int windowStart = watermark.getTimestamp() - ID_OVERLAP_SECONDS;
+            recentIds.keySet().removeIf(id -> id.getTimestamp() <= windowStart);
+        }
+    }
+
+    private Query orderLinesQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("customerId", "placedAt", "status", "items");
+        return query;
+    }
+
+    /**
+     * Assign category/brand codes to products seen for the first time (one query per batch)
+     */
+    private void resolveProducts(List<Order> orders) {
+        Set<String> unseen = new HashSet<>();
+        for (Order order : orders) {
+            if (order.getItems() == null) {
+                continue;
+            }
+            for (OrderItem item : order.getItems()) {
+                if (item.getProductId() != null && productIds.lookup(item.getProductId()) < 0) {
+                    unseen.add(item.getProductId());
+                }
+            }
+        }
+        if (unseen.isEmpty()) {
+            return;
+        }
+
+        Query query = new Query(Criteria.where("_id").in(unseen));
+        query.fields().include("categoryId", "category", "brand");
+        Map<String, Product> products = new HashMap<>();
+        for (Product product : mongoTemplate.find(query, Product.class)) {
+            products.put(product.getId(), product);
+        }
+
+        for (String productId : unseen) {
+            Product product = products.get(productId);
+            String category = product == null ? UNKNOWN
+                    : firstNonBlank(product.getCategoryId(), product.getCategory());
+            String brand = product == null ? UNKNOWN : firstNonBlank(product.getBrand(), null);
+
+            int code = productIds.encode(productId);
+            if (code >= productCategory.length) {
+                productCategory = Arrays.copyOf(productCategory, productCategory.length * 2);
+                productBrand = Arrays.copyOf(productBrand, productBrand.length * 2);
+            }
+            productCategory[code] = categories.encode(category);
+            productBrand[code] = brands.encode(brand);
+        }
+    }
+
+    private void appendLines(Order order, int sign) {
+        if (order.getItems() == null) {
+            return;
+        }
+        int day = (int) order.getPlacedAt().toLocalDate().toEpochDay();
+        byte hour = (byte) order.getPlacedAt().getHour();
+        int customer = customers.encode(order.getCustomerId() != null ? order.getCustomerId() : UNKNOWN);
+
+        for (OrderItem item : order.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == 0) {
+                continue;
+            }
+            int product = productIds.lookup(item.getProductId());
+            if (size == chunks.size() * CHUNK_SIZE) {
+                chunks.add(new Chunk());
+            }
+            Chunk chunk = chunks.get(size / CHUNK_SIZE);
+            int i = size % CHUNK_SIZE;
+            chunk.product[i] = product;
+            chunk.category[i] = productCategory[product];
+            chunk.brand[i] = productBrand[product];
+            chunk.customer[i] = customer;
+            chunk.day[i] = day;
+            chunk.hour[i] = hour;
+            chunk.quantity[i] = sign * item.getQuantity();
+            chunk.revenueCents[i] = sign * Math.round(item.getUnitPrice() * item.getQuantity() * 100);
+            size++;
+
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+        }
+    }
+
+    private void publish() {
+        columns = new Columns(chunks.toArray(new Chunk[0]), size, minDay, maxDay);
+    }
+
+    private static String firstNonBlank(String value, String fallback) {
+        if (value != null && !value.isBlank()) {
+            return value;
+        }
+        return fallback != null && !fallback.isBlank() ? fallback : UNKNOWN;
+    }
+
+    // ==================== Querying ====================
+
+    private static final int ANY = -1;
+    private static final int NO_MATCH = -2;
+
+    private static int filterCode(Dictionary dictionary, String value) {
+        if (value == null || value.isBlank()) {
+            return ANY;
+        }
+        int code = dictionary.lookup(value);
+        return code >= 0 ? code : NO_MATCH;
+    }
+
+    private int cardinality(AnalyticsDimension groupBy, int fromDay, int toDay) {
+        return switch (groupBy) {
+            case PRODUCT -> productIds.size();
+            case CATEGORY -> categories.size();
+            case BRAND -> brands.size();
+            case CUSTOMER -> customers.size();
+            case DAY -> toDay - fromDay + 1;
+            case DAY_OF_WEEK -> 7;
+            case HOUR_OF_DAY -> 24;
+        };
+    }
+
+    private String label(AnalyticsDimension groupBy, int key, int fromDay) {
+        return switch (groupBy) {
+            case PRODUCT -> productIds.decode(key);
+            case CATEGORY -> categories.decode(key);
+            case BRAND -> brands.decode(key);
+            case CUSTOMER -> customers.decode(key);
+            case DAY -> LocalDate.ofEpochDay(fromDay + key).toString();
+            case DAY_OF_WEEK -> DayOfWeek.of(key + 1).toString();
+            case HOUR_OF_DAY -> String.format("%02d:00", key);
+        };
+    }
+
+    /**
+     * @param partials One dense accumulator per thread that ran a leaf, merged once at the end
+     */
+    private record ScanSpec(Columns columns, AnalyticsDimension groupBy, int cardinality,
+                            int fromDay, int toDay, int product, int category, int brand, int customer,
+                            Map<Thread, Partial> partials) {
+
+        /**
+         * The calling thread's accumulator. A leaf runs start to finish on one thread, so leaves
+         * sharing a thread never write to it concurrently.
+         */
+        Partial partialForCurrentThread() {
+            return partials.computeIfAbsent(Thread.currentThread(), thread -> new Partial(cardinality));
+        }
+    }
+
+    /**
+     * Scans a range of lines into per-key sums, splitting until ranges are small enough. Leaves
+     * add into their thread's accumulator, so a query allocates one set of key-sized arrays per
+     * worker rather than per leaf.
+     */
+    private static final class ScanTask extends RecursiveAction {
+        private final ScanSpec spec;
+        private final int from;
+        private final int to;
+
+        ScanTask(ScanSpec spec, int from, int to) {
+            this.spec = spec;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SCAN_THRESHOLD) {
+                scan();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScanTask(spec, from, mid), new ScanTask(spec, mid, to));
+        }
+
+        private void scan() {
+            Partial partial = spec.partialForCurrentThread();
+            Chunk[] chunks = spec.columns().chunks();
+            int line = from;
+            while (line < to) {
+                Chunk chunk = chunks[line / CHUNK_SIZE];
+                int start = line % CHUNK_SIZE;
+                int end = Math.min(CHUNK_SIZE, start + (to - line));
+                for (int i = start; i < end; i++) {
+                    int day = chunk.day[i];
+                    if (day < spec.fromDay() || day > spec.toDay()
+                            || (spec.product() != ANY && chunk.product[i] != spec.product())
+                            || (spec.category() != ANY && chunk.category[i] != spec.category())
+                            || (spec.brand() != ANY && chunk.brand[i] != spec.brand())
+                            || (spec.customer() != ANY && chunk.customer[i] != spec.customer())) {
+                        continue;
+                    }
+                    int key = switch (spec.groupBy()) {
+                        case PRODUCT -> chunk.product[i];
+                        case CATEGORY -> chunk.category[i];
+                        case BRAND -> chunk.brand[i];
+                        case CUSTOMER -> chunk.customer[i];
+                        case DAY -> day - spec.fromDay();
+                        case DAY_OF_WEEK -> Math.floorMod(day + 3, 7); // epoch day 0 was a Thursday
+                        case HOUR_OF_DAY -> chunk.hour[i];
+                    };
+                    int quantity = chunk.quantity[i];
+                    partial.quantity[key] += quantity;
+                    partial.revenueCents[key] += chunk.revenueCents[i];
+                    partial.lines[key] += quantity < 0 ? -1 : 1; // reversal lines cancel their original
+                }
+                line += end - start;
+            }
+        }
+    }
+
+    private static final class Partial {
+        final long[] quantity;
+        final long[] revenueCents;
+        final long[] lines;
+
+        Partial(int cardinality) {
+            quantity = new long[cardinality];
+            revenueCents = new long[cardinality];
+            lines = new long[cardinality];
+        }
+
+        Partial merge(Partial other) {
+            for (int key = 0; key < quantity.length; key++) {
+                quantity[key] += other.quantity[key];
+                revenueCents[key] += other.revenueCents[key];
+                lines[key] += other.lines[key];
+            }
+            return this;
+        }
+    }
+
+    // ==================== Storage ====================
+
+    private record Columns(Chunk[] chunks, int size, int minDay, int maxDay) {}
+
+    /**
+     * Fixed-size block of column arrays; growing the store adds chunks instead of copying columns
+     */
+    private static final class Chunk {
+        static final int BYTES_PER_LINE = 6 * Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+        final int[] product = new int[CHUNK_SIZE];
+        final int[] category = new int[CHUNK_SIZE];
+        final int[] brand = new int[CHUNK_SIZE];
+        final int[] customer = new int[CHUNK_SIZE];
+        final int[] day = new int[CHUNK_SIZE];
+        final byte[] hour = new byte[CHUNK_SIZE];
+        final int[] quantity = new int[CHUNK_SIZE];
+        final long[] revenueCents = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * String <-> dense int code mapping; codes are assigned in first-seen order
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        synchronized int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        synchronized int lookup(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : -1;
+        }
+
+        synchronized String decode(int code) {
+            return values.get(code);
+        }
+
+        synchronized int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.hardwaremanagement.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out of server-sent events to many clients without blocking the publisher.
+ *
+ * Each event is framed once and the same immutable frame is offered to every client's
+ * bounded queue; a virtual thread per client drains its queue into the emitter, so a stalled
+ * connection only stalls its own thread. A client whose queue overflows is disconnected and
+ * catches up on reconnect: the last events are kept in a replay ring and answered from the
+ * Last-Event-ID the browser sends. If the gap is older than the ring, the client gets a
+ * "resync" event and should reload over REST.
+ */
+public class SseBroadcaster {
+
+    private static final String RESYNC_EVENT = "resync";
+
+    private final int clientQueueCapacity;
+    private final int replayCapacity;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    // Guarded by "this": id assignment, replay ring and fan-out happen in one step so a
+    // connecting client sees every event exactly once (replayed or live)
+    private final Deque<Frame> replay = new ArrayDeque<>();
+    // Seeded from the clock so ids keep increasing across restarts
+    private final AtomicLong nextId = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final Frame heartbeat = new Frame(0, SseEmitter.event().comment("heartbeat").build());
+
+    private record Frame(long id, Set<DataWithMediaType> data) {}
+
+    public SseBroadcaster(int clientQueueCapacity, int replayCapacity) {
+        this.clientQueueCapacity = clientQueueCapacity;
+        this.replayCapacity = replayCapacity;
+    }
+
+    /**
+     * Register a client; events after lastEventId (if given) are replayed first
+     * @param greeting Event sent to this client only, before anything else (may be null)
+     */
+    public SseEmitter connect(String lastEventId, SseEmitter.SseEventBuilder greeting) {
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        Client client = new Client(emitter, new ArrayBlockingQueue<>(clientQueueCapacity));
+        if (greeting != null) {
+            client.queue.offer(new Frame(0, greeting.build()));
+        }
+
+        synchronized (this) {
+            List<Frame> missed = lastEventId != null ? framesAfter(lastEventId) : List.of();
+            if (missed == null || missed.size() > client.queue.remainingCapacity()) {
+                client.queue.offer(new Frame(0, SseEmitter.event().name(RESYNC_EVENT).data("{}").build()));
+            } else {
+                client.queue.addAll(missed);
+            }
+            clients.add(client);
+        }
+
+        emitter.onCompletion(() -> close(client));
+        emitter.onTimeout(() -> close(client));
+        emitter.onError(ex -> close(client));
+        client.drainer = Thread.ofVirtual().name("sse-client").start(() -> drain(client));
+        return emitter;
+    }
+
+    /**
+     * Frame the event once and queue it for every client. Never blocks on a client.
+     * @param json Pre-serialized event payload
+     */
+    public void publish(String eventName, String json) {
+        synchronized (this) {
+            long id = nextId.incrementAndGet();
+            Frame frame = new Frame(id, SseEmitter.event().id(Long.toString(id)).name(eventName).data(json).build());
+            replay.addLast(frame);
+            if (replay.size() > replayCapacity) {
+                replay.removeFirst();
+            }
+            for (Client client : clients) {
+                if (!client.queue.offer(frame)) {
+                    // Too slow to keep up: drop it, it resumes from Last-Event-ID on reconnect
+                    disconnect(client);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue a comment line to every idle client so proxies keep the connection open and dead
+     * connections surface as send failures
+     */
+    public void sendHeartbeat() {
+        for (Client client : clients) {
+            if (client.queue.isEmpty()) {
+                client.queue.offer(heartbeat);
+            }
+        }
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * @return Frames after the given id, or null if the id is older than the replay ring
+     */
+    private List<Frame> framesAfter(String lastEventId) {
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (replay.isEmpty()) {
+            // Nothing published since start: only a client of this run can be up to date
+            return lastId == nextId.get() ? List.of() : null;
+        }
+        if (lastId < replay.peekFirst().id() - 1 || lastId > replay.peekLast().id()) {
+            return null;
+        }
+        List<Frame> missed = new ArrayList<>();
+        for (Frame frame : replay) {
+            if (frame.id() > lastId) {
+                missed.add(frame);
+            }
+        }
+        return missed;
+    }
+
+    private void drain(Client client) {
+        try {
+            while (!client.closed) {
+                Frame frame = client.queue.take();
+                client.emitter.send(frame.data());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            disconnect(client);
+        }
+    }
+
+    private void disconnect(Client client) {
+        close(client);
+        // complete() waits for an in-flight send, so never call it on the publisher's thread
+        Thread.ofVirtual().start(() -> {
+            try {
+                client.emitter.complete();
+            } catch (Exception ignored) {
+                // already completed or the connection is gone
+            }
+        });
+    }
+
+    private void close(Client client) {
+        client.closed = true;
+        clients.remove(client);
+        Thread drainer = client.drainer;
+        if (drainer != null && drainer != Thread.currentThread()) {
+            drainer.interrupt();
+        }
+    }
+
+    private static final class Client {
+        final SseEmitter emitter;
+        final BlockingQueue<Frame> queue;
+        volatile Thread drainer;
+        volatile boolean closed;
+
+        Client(SseEmitter emitter, BlockingQueue<Frame> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -2,67 +2,94 @@ package com.example.hardwaremanagement.service;
 
 import com.example.hardwaremanagement.model.StaffNotification;
 import com.example.hardwaremanagement.repository.StaffNotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class StaffNotificationService {
 
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
-    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
-
     @Autowired(required = false)
     private StaffNotificationRepository notificationRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DataRetentionService dataRetentionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${notifications.sse.client-queue:64}")
+    private int clientQueueCapacity;
+
+    @Value("${notifications.sse.replay-size:256}")
+    private int replaySize;
+
+    private SseBroadcaster broadcaster;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Bell-icon counters, seeded by one aggregation and kept current on create/read/delete
+    private volatile Counters counters;
+
+    @PostConstruct
+    public void init() {
+        broadcaster = new SseBroadcaster(clientQueueCapacity, replaySize);
+    }
+
     /**
      * Add a new SSE emitter for real-time notifications
+     * @param lastEventId Last event the client saw (Last-Event-ID on reconnect); missed events are replayed
      */
-    public SseEmitter addEmitter() {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((ex) -> emitters.remove(emitter));
-        
-        emitters.add(emitter);
-        
-        // Send initial connection confirmation
-        try {
-            emitter.send(SseEmitter.event()
-                .name("connection")
-                .data("{\"status\":\"connected\",\"timestamp\":\"" + System.currentTimeMillis() + "\"}"));
-        } catch (Exception e) {
-            emitters.remove(emitter);
-        }
-        
-        return emitter;
+    public SseEmitter addEmitter(String lastEventId) {
+        // Initial connection confirmation
+        return broadcaster.connect(lastEventId, SseEmitter.event()
+            .name("connection")
+            .data("{\"status\":\"connected\",\"timestamp\":\"" + System.currentTimeMillis() + "\"}"));
+    }
+
+    public int getConnectedClientCount() {
+        return broadcaster.getClientCount();
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.sse.heartbeat-ms:15000}")
+    public void sendHeartbeat() {
+        broadcaster.sendHeartbeat();
     }
 
     /**
-     * Send notification to all connected clients
+     * Send notification to all connected clients (serialized once, delivered in the background)
      */
     private void sendSseNotification(StaffNotification notification) {
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        
-        emitters.forEach(emitter -> {
-            try {
-                emitter.send(SseEmitter.event()
-                    .name("delivery-update")
-                    .data(notification));
-            } catch (Exception e) {
-                deadEmitters.add(emitter);
-            }
-        });
-        
-        emitters.removeAll(deadEmitters);
+        try {
+            broadcaster.publish("delivery-update", objectMapper.writeValueAsString(notification));
+        } catch (JsonProcessingException e) {
+            System.err.println("Failed to serialize notification " + notification.getId() + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -85,6 +112,7 @@ public class StaffNotificationService {
         // Save to database if repository is available
         if (notificationRepository != null) {
             notificationRepository.save(notification);
+            recordCreated(notification);
         }
 
         // Send real-time notification
@@ -111,6 +139,7 @@ public class StaffNotificationService {
         // Save to database if repository is available
         if (notificationRepository != null) {
             notificationRepository.save(notification);
+            recordCreated(notification);
         }
 
         // Send real-time notification
@@ -120,15 +149,56 @@ public class StaffNotificationService {
     }
 
     /**
-     * Get all notifications with pagination
+     * Get notifications, newest first, one page at a time
+     * @param cursor Cursor of the last notification of the previous page (null for the first page)
+     * @param page Offset-based page number, only used when no cursor is given
+     * @param type Optional type filter
+     * @param priority Optional priority filter
+     * @param read Optional read/unread filter
      */
-    public List<StaffNotification> getAllNotifications(int page, int size) {
-        if (notificationRepository != null) {
-            return notificationRepository.findAllByOrderByCreatedAtDesc();
+    public List<StaffNotification> getNotifications(String cursor, int page, int size,
+                                                    String type, String priority, Boolean read) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (notificationRepository == null) {
+            // Return sample data if no repository
+            return getSampleNotifications();
         }
-        
-        // Return sample data if no repository
-        return getSampleNotifications();
+
+        Criteria criteria = new Criteria();
+        List<Criteria> filters = new ArrayList<>();
+        if (type != null && !type.isBlank()) {
+            filters.add(Criteria.where("type").is(type));
+        }
+        if (priority != null && !priority.isBlank()) {
+            filters.add(Criteria.where("priority").is(priority.toUpperCase()));
+        }
+        if (read != null) {
+            filters.add(Criteria.where("read").is(read));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            // Keyset: strictly after the last row seen in (createdAt desc, _id desc) order.
+            // Notification ids are UUID strings and are compared as stored.
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            filters.add(after.after("createdAt", after.timeValue()));
+        }
+        if (!filters.isEmpty()) {
+            criteria.andOperator(filters);
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(limit);
+        if (cursor == null || cursor.isBlank()) {
+            query.skip((long) Math.max(page, 0) * limit);
+        }
+        return mongoTemplate.find(query, StaffNotification.class);
+    }
+
+    /**
+     * Opaque cursor pointing just after the given notification
+     */
+    public String cursorOf(StaffNotification notification) {
+        return KeysetCursor.encode(notification.getCreatedAt(), notification.getId());
     }
 
     /**
@@ -149,26 +219,28 @@ public class StaffNotificationService {
      */
     public void markAsRead(String id) {
         if (notificationRepository != null) {
-            StaffNotification notification = notificationRepository.findById(id).orElse(null);
-            if (notification != null) {
-                notification.setRead(true);
-                notification.setReadAt(LocalDateTime.now());
-                notificationRepository.save(notification);
+            // Only an unread notification matches, so the returned (previous) version tells
+            // whether the unread counters need to move
+            StaffNotification previous = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(id).and("read").is(false)),
+                    new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(false),
+                    StaffNotification.class);
+            if (previous != null) {
+                recordRead(previous);
             }
         }
     }
 
     /**
-     * Mark all notifications as read
+     * Mark all notifications as read (one server-side update, unread ones only)
      */
     public void markAllAsRead() {
         if (notificationRepository != null) {
-            List<StaffNotification> notifications = notificationRepository.findAll();
-            notifications.forEach(notification -> {
-                notification.setRead(true);
-                notification.setReadAt(LocalDateTime.now());
-            });
-            notificationRepository.saveAll(notifications);
+            mongoTemplate.updateMulti(new Query(Criteria.where("read").is(false)),
+                    new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                    StaffNotification.class);
+            invalidateCounters();
         }
     }
 
@@ -177,16 +249,21 @@ public class StaffNotificationService {
      */
     public void deleteNotification(String id) {
         if (notificationRepository != null) {
-            notificationRepository.deleteById(id);
+            StaffNotification deleted = mongoTemplate.findAndRemove(
+                    new Query(Criteria.where("_id").is(id)), StaffNotification.class);
+            if (deleted != null) {
+                recordDeleted(deleted);
+            }
         }
     }
 
     /**
-     * Clear all notifications
+     * Clear all notifications, deleting in bounded batches
      */
     public void clearAllNotifications() {
         if (notificationRepository != null) {
-            notificationRepository.deleteAll();
+            dataRetentionService.deleteInBatches(new Query(), StaffNotification.class);
+            invalidateCounters();
         }
     }
 
@@ -195,7 +272,7 @@ public class StaffNotificationService {
      */
     public long getTotalCount() {
         if (notificationRepository != null) {
-            return notificationRepository.count();
+            return counters().total.sum();
         }
         return 0;
     }
@@ -205,7 +282,7 @@ public class StaffNotificationService {
      */
     public long getUnreadCount() {
         if (notificationRepository != null) {
-            return notificationRepository.countByReadFalse();
+            return counters().unread.sum();
         }
         return 0;
     }
@@ -214,10 +291,109 @@ public class StaffNotificationService {
      * Get high priority notification count
      */
     public long getHighPriorityCount() {
+        return getUnreadCountsByPriority().getOrDefault("HIGH", 0L);
+    }
+
+    /**
+     * Unread notification count per priority
+     */
+    public Map<String, Long> getUnreadCountsByPriority() {
+        Map<String, Long> result = new HashMap<>();
         if (notificationRepository != null) {
-            return notificationRepository.countByPriorityAndReadFalse("HIGH");
+            counters().unreadByPriority.forEach((priority, count) -> result.put(priority, count.sum()));
+        }
+        return result;
+    }
+
+    /**
+     * Re-seed the counters from the collection; corrects drift from TTL expiry and races
+     * with bulk updates
+     */
+    @Scheduled(fixedDelayString = "${notifications.stats.reseed-ms:300000}")
+    public void reseedCounters() {
+        if (notificationRepository != null && counters != null) {
+            counters = loadCounters();
+        }
+    }
+
+    private void invalidateCounters() {
+        counters = null;
+    }
+
+    private Counters counters() {
+        Counters current = counters;
+        if (current == null) {
+            synchronized (this) {
+                current = counters;
+                if (current == null) {
+                    current = loadCounters();
+                    counters = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * One $group by (read, priority) instead of a count query per number
+     */
+    private Counters loadCounters() {
+        Counters loaded = new Counters();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("read", "priority").count().as("count"));
+        for (Document group : mongoTemplate.aggregate(aggregation, StaffNotification.class, Document.class)) {
+            Document key = group.get("_id", Document.class);
+            long count = ((Number) group.get("count")).longValue();
+            loaded.total.add(count);
+            if (!Boolean.TRUE.equals(key.getBoolean("read"))) {
+                loaded.unread.add(count);
+                loaded.unreadFor(key.getString("priority")).add(count);
+            }
+        }
+        return loaded;
+    }
+
+    private void recordCreated(StaffNotification notification) {
+        Counters current = counters;
+        if (current == null) {
+            return; // seeded on first read
+        }
+        current.total.increment();
+        if (!notification.isRead()) {
+            current.unread.increment();
+            current.unreadFor(notification.getPriority()).increment();
+        }
+    }
+
+    private void recordRead(StaffNotification previous) {
+        Counters current = counters;
+        if (current != null) {
+            current.unread.decrement();
+            current.unreadFor(previous.getPriority()).decrement();
+        }
+    }
+
+    private void recordDeleted(StaffNotification deleted) {
+        Counters current = counters;
+        if (current == null) {
+            return;
+        }
+        current.total.decrement();
+        if (!deleted.isRead()) {
+            current.unread.decrement();
+            current.unreadFor(deleted.getPriority()).decrement();
+        }
+    }
+
+    private static class Counters {
+        final LongAdder total = new LongAdder();
+        final LongAdder unread = new LongAdder();
+        final Map<String, LongAdder> unreadByPriority = new ConcurrentHashMap<>();
+
+        LongAdder unreadFor(String priority) {
+            String key = priority != null ? priority.toUpperCase() : "NONE";
+            return unreadByPriority.computeIfAbsent(key, k -> new LongAdder());
         }
-        return 0;
     }
 
     // Helper methods
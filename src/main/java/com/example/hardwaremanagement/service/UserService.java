@@ -2,13 +2,14 @@ package com.example.hardwaremanagement.service;
 
 import com.example.hardwaremanagement.dto.ProductDTO;
 import com.example.hardwaremanagement.model.Category;
+import com.example.hardwaremanagement.model.PriceBookEntry;
 import com.example.hardwaremanagement.model.Product;
-import com.example.hardwaremanagement.model.Promotion;
 import com.example.hardwaremanagement.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,26 +19,26 @@ public class UserService {
     private ProductRepository productRepository;
 
     @Autowired
-    private PromotionService promotionService;
+    private PriceBookService priceBookService;
 
     @Autowired
     private CategoryService categoryService;
 
     // Get all products as DTOs
     public List<ProductDTO> getAllProductsDTO() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::toDto)
+        List<Product> products = productRepository.findAll();
+        Map<String, PriceBookEntry> prices = priceBookService.getAll(products.stream().map(Product::getId).toList());
+        return products.stream()
+                .map(p -> toDto(p, prices.get(p.getId())))
                 .collect(Collectors.toList());
     }
 
-    private ProductDTO toDto(Product p) {
-        Promotion best = promotionService.getBestPromotionFor(p.getId(), p.getCategoryId()).orElse(null);
+    private ProductDTO toDto(Product p, PriceBookEntry price) {
         double discountedPrice = p.getPrice();
         Double discountPercent = null; String promotionName = null;
-        if (best != null) {
-            discountPercent = best.getDiscountPercent();
-            promotionName = best.getName();
+        if (price != null && price.getDiscountPercent() != null) {
+            discountPercent = price.getDiscountPercent();
+            promotionName = price.getPromotionName();
             discountedPrice = p.getPrice() * (1 - discountPercent / 100.0);
         }
         String categoryName = p.getCategory();
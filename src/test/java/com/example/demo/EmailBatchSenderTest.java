@@ -0,0 +1,100 @@
+package com.example.demo;
+
+import com.example.hardwaremanagement.model.EmailMessage;
+import com.example.hardwaremanagement.service.EmailBatchSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailBatchSenderTest {
+
+    private LocalSmtpServer smtpServer;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        smtpServer = new LocalSmtpServer();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        smtpServer.close();
+    }
+
+    @Test
+    void send_deliversWholeBatchOverOneConnection() {
+        EmailBatchSender sender = new EmailBatchSender(mailSender(smtpServer.getPort()));
+        List<EmailMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(message("m" + i, "customer" + i + "@example.com"));
+        }
+
+        Map<String, Exception> failures = sender.send(batch);
+
+        assertTrue(failures.isEmpty(), () -> "unexpected failures: " + failures);
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals(5, smtpServer.getMessages().size());
+        assertEquals("customer3@example.com", smtpServer.getMessages().get(3).recipient());
+        assertTrue(smtpServer.getMessages().get(0).data().contains("Subject: Order update"));
+    }
+
+    @Test
+    void send_reportsRejectedRecipientWithoutFailingTheRest() {
+        EmailBatchSender sender = new EmailBatchSender(mailSender(smtpServer.getPort()));
+        List<EmailMessage> batch = List.of(
+                message("ok-1", "first@example.com"),
+                message("bad", "reject@example.com"),
+                message("ok-2", "second@example.com"));
+
+        Map<String, Exception> failures = sender.send(batch);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey("bad"));
+        assertEquals(2, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+    }
+
+    @Test
+    void send_failsEveryMessageWhenServerIsDown() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        EmailBatchSender sender = new EmailBatchSender(mailSender(closedPort));
+
+        Map<String, Exception> failures = sender.send(List.of(
+                message("a", "a@example.com"),
+                message("b", "b@example.com")));
+
+        assertEquals(2, failures.size());
+        assertNotNull(failures.get("a"));
+        assertNotNull(failures.get("b"));
+    }
+
+    private static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(port);
+        Properties properties = new Properties();
+        properties.put("mail.smtp.from", "shop@example.com");
+        properties.put("mail.smtp.connectiontimeout", "2000");
+        properties.put("mail.smtp.timeout", "2000");
+        mailSender.setJavaMailProperties(properties);
+        return mailSender;
+    }
+
+    private static EmailMessage message(String id, String to) {
+        EmailMessage message = new EmailMessage(to, "Order update", "<p>Your order has shipped.</p>");
+        message.setId(id);
+        return message;
+    }
+}
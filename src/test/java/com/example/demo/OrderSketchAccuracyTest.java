@@ -0,0 +1,133 @@
+package com.example.demo;
+
+import com.example.hardwaremanagement.model.HyperLogLog;
+import com.example.hardwaremanagement.model.QuantileSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderSketchAccuracyTest {
+
+    // ~1.6% standard error at precision 12; allow a bit over four sigma
+    private static final double DISTINCT_TOLERANCE = 0.07;
+    // Rank error allowed for the t-digest, tighter at the tails
+    private static final double MEDIAN_RANK_TOLERANCE = 0.02;
+    private static final double TAIL_RANK_TOLERANCE = 0.005;
+
+    @Test
+    void hyperLogLog_estimatesDistinctCustomersAcrossRanges() {
+        Random random = new Random(42);
+        for (int distinct : new int[]{10, 100, 1_000, 10_000, 100_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            Set<String> exact = new HashSet<>();
+            // Repeat customers: every value is added several times
+            for (int i = 0; i < distinct * 3; i++) {
+                String customer = "customer-" + random.nextInt(distinct);
+                sketch.add(customer);
+                exact.add(customer);
+            }
+            long estimate = sketch.estimate();
+            double error = Math.abs(estimate - exact.size()) / (double) exact.size();
+            assertTrue(error <= DISTINCT_TOLERANCE,
+                    "distinct=" + exact.size() + " estimate=" + estimate);
+        }
+    }
+
+    @Test
+    void hyperLogLog_mergeOfDaysMatchesSingleSketch() {
+        HyperLogLog whole = new HyperLogLog();
+        HyperLogLog merged = new HyperLogLog();
+        Set<String> exact = new HashSet<>();
+        for (int day = 0; day < 30; day++) {
+            HyperLogLog daily = new HyperLogLog();
+            for (int i = 0; i < 500; i++) {
+                // Overlapping customers between days
+                String customer = "customer-" + (day * 300 + i);
+                daily.add(customer);
+                whole.add(customer);
+                exact.add(customer);
+            }
+            merged.merge(daily);
+        }
+        assertEquals(whole.estimate(), merged.estimate());
+        double error = Math.abs(merged.estimate() - exact.size()) / (double) exact.size();
+        assertTrue(error <= DISTINCT_TOLERANCE, "distinct=" + exact.size() + " estimate=" + merged.estimate());
+    }
+
+    @Test
+    void quantileSketch_tracksExactQuantilesOfSkewedOrderTotals() {
+        Random random = new Random(7);
+        int n = 200_000;
+        double[] values = new double[n];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < n; i++) {
+            // Log-normal order totals: many small orders, a long tail of large ones
+            values[i] = Math.round(Math.exp(4 + 1.2 * random.nextGaussian()) * 100) / 100.0;
+            sketch.add(values[i]);
+        }
+        assertQuantiles(values, sketch);
+    }
+
+    @Test
+    void quantileSketch_mergeOfDailyDigestsTracksExactQuantiles() {
+        Random random = new Random(11);
+        int days = 60;
+        int perDay = 2_000;
+        double[] values = new double[days * perDay];
+        QuantileSketch merged = new QuantileSketch();
+        for (int day = 0; day < days; day++) {
+            QuantileSketch daily = new QuantileSketch();
+            // Each day's distribution drifts, so the days do not look alike
+            double mean = 50 + day;
+            for (int i = 0; i < perDay; i++) {
+                double value = Math.max(1, mean + 25 * random.nextGaussian());
+                values[day * perDay + i] = value;
+                daily.add(value);
+            }
+            daily.compress();
+            merged.merge(daily);
+        }
+        assertEquals(values.length, merged.getCount());
+        assertQuantiles(values, merged);
+    }
+
+    @Test
+    void quantileSketch_emptyAndSingleValue() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertNull(sketch.quantile(0.5));
+        sketch.add(19.99);
+        assertEquals(19.99, sketch.quantile(0), 1e-9);
+        assertEquals(19.99, sketch.quantile(0.5), 1e-9);
+        assertEquals(19.99, sketch.quantile(1), 1e-9);
+    }
+
+    /**
+     * Compares by rank: the fraction of exact values below the estimate must be near q
+     */
+    private static void assertQuantiles(double[] values, QuantileSketch sketch) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[0], sketch.quantile(0), 1e-9);
+        assertEquals(sorted[sorted.length - 1], sketch.quantile(1), 1e-9);
+        for (double q : new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999}) {
+            double estimate = sketch.quantile(q);
+            double rank = rankOf(sorted, estimate);
+            double tolerance = q <= 0.01 || q >= 0.99 ? TAIL_RANK_TOLERANCE : MEDIAN_RANK_TOLERANCE;
+            assertEquals(q, rank, tolerance, "q=" + q + " estimate=" + estimate
+                    + " exact=" + sorted[(int) Math.min(sorted.length - 1, q * sorted.length)]);
+        }
+    }
+
+    private static double rankOf(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return (double) index / sorted.length;
+    }
+}
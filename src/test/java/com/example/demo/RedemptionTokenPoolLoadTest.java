@@ -0,0 +1,119 @@
+package com.example.demo;
+
+import com.example.hardwaremanagement.service.RedemptionTokenPool;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedemptionTokenPoolLoadTest {
+
+    private static final String COUPON = "FLASH50";
+
+    /**
+     * Stands in for the coupon document: grants blocks only out of what is left, like the
+     * conditional $inc in CouponService
+     */
+    private static class SharedCounter implements RedemptionTokenPool.BlockSource {
+        final int limit;
+        int allocated;
+        final AtomicInteger reservations = new AtomicInteger();
+
+        SharedCounter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized int reserve(String couponId, int requested) {
+            reservations.incrementAndGet();
+            int granted = Math.min(requested, limit - allocated);
+            if (granted <= 0) {
+                return 0;
+            }
+            allocated += granted;
+            return granted;
+        }
+
+        synchronized void giveBack(int count) {
+            allocated -= count;
+        }
+    }
+
+    @Test
+    void concurrentRedemptionsAcrossNodes_neverOversell() throws Exception {
+        int limit = 10_000;
+        int nodes = 4;
+        int threadsPerNode = 50;
+        SharedCounter counter = new SharedCounter(limit);
+        List<RedemptionTokenPool> pools = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            pools.add(new RedemptionTokenPool(counter));
+        }
+
+        AtomicInteger redeemed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes * threadsPerNode);
+        List<Future<?>> workers = new ArrayList<>();
+        for (RedemptionTokenPool pool : pools) {
+            for (int t = 0; t < threadsPerNode; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int attempts = 0;
+                    while (pool.tryAcquire(COUPON, 64)) {
+                        // Every 7th redemption fails after taking its token and gives it back
+                        if (++attempts % 7 == 0) {
+                            pool.release(COUPON);
+                        } else {
+                            redeemed.incrementAndGet();
+                        }
+                    }
+                    rejected.incrementAndGet();
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int unused = 0;
+        for (RedemptionTokenPool pool : pools) {
+            unused += pool.drain(COUPON);
+        }
+        assertTrue(redeemed.get() <= limit, "oversold: " + redeemed.get());
+        assertEquals(limit, redeemed.get() + unused);
+        assertEquals(limit, counter.allocated);
+        assertEquals(nodes * threadsPerNode, rejected.get());
+        // Blocks, not one shared write per redemption
+        assertTrue(counter.reservations.get() < limit / 10, "reservations: " + counter.reservations.get());
+    }
+
+    @Test
+    void drainedTokens_canBeReservedByAnotherNode() {
+        SharedCounter counter = new SharedCounter(100);
+        RedemptionTokenPool first = new RedemptionTokenPool(counter);
+        RedemptionTokenPool second = new RedemptionTokenPool(counter);
+
+        assertTrue(first.tryAcquire(COUPON, 100));
+        assertFalse(second.tryAcquire(COUPON, 100));
+
+        counter.giveBack(first.drain(COUPON));
+        int redeemed = 0;
+        while (second.tryAcquire(COUPON, 10)) {
+            redeemed++;
+        }
+        assertEquals(99, redeemed);
+        assertEquals(0, first.getAvailable(COUPON));
+    }
+}
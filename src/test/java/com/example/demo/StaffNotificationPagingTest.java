@@ -0,0 +1,160 @@
+package com.example.demo;
+
+import com.example.hardwaremanagement.model.StaffNotification;
+import com.example.hardwaremanagement.repository.StaffNotificationRepository;
+import com.example.hardwaremanagement.service.KeysetCursor;
+import com.example.hardwaremanagement.service.StaffNotificationService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StaffNotificationPagingTest {
+
+    private static final Comparator<StaffNotification> NEWEST_FIRST = Comparator
+            .comparing(StaffNotification::getCreatedAt)
+            .thenComparing(StaffNotification::getId)
+            .reversed();
+
+    private final List<StaffNotification> stored = new ArrayList<>();
+    private StaffNotificationService service;
+
+    /**
+     * Stands in for Mongo: applies the query's filter, sort order and limit to the stored rows
+     */
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(StaffNotification.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            return stored.stream()
+                    .filter(notification -> matches(query.getQueryObject(), notification))
+                    .sorted(NEWEST_FIRST)
+                    .limit(query.getLimit())
+                    .toList();
+        });
+        service = new StaffNotificationService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "notificationRepository", mock(StaffNotificationRepository.class));
+    }
+
+    @Test
+    void cursorPagesThroughUuidNotifications() {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 9, 0);
+        for (int i = 0; i < 25; i++) {
+            // Groups of three share a timestamp, so page breaks fall inside ties
+            stored.add(notification(base.plusMinutes(i / 3)));
+        }
+
+        List<StaffNotification> seen = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages < 10; pages++) {
+            List<StaffNotification> page = service.getNotifications(cursor, 0, 4, null, null, null);
+            if (page.isEmpty()) {
+                break;
+            }
+            seen.addAll(page);
+            cursor = service.cursorOf(page.get(page.size() - 1));
+        }
+
+        List<StaffNotification> expected = stored.stream().sorted(NEWEST_FIRST).toList();
+        assertEquals(expected.stream().map(StaffNotification::getId).toList(),
+                seen.stream().map(StaffNotification::getId).toList());
+    }
+
+    @Test
+    void cursorKeepsFiltersAcrossPages() {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 9, 0);
+        for (int i = 0; i < 12; i++) {
+            StaffNotification notification = notification(base.plusMinutes(i));
+            notification.setType(i % 2 == 0 ? "ORDER" : "STOCK");
+            stored.add(notification);
+        }
+
+        Set<String> ids = new HashSet<>();
+        String cursor = null;
+        List<StaffNotification> page;
+        do {
+            page = service.getNotifications(cursor, 0, 4, "ORDER", null, null);
+            for (StaffNotification notification : page) {
+                assertEquals("ORDER", notification.getType());
+                assertTrue(ids.add(notification.getId()), "returned twice: " + notification.getId());
+            }
+            cursor = page.isEmpty() ? cursor : service.cursorOf(page.get(page.size() - 1));
+        } while (!page.isEmpty());
+        assertEquals(6, ids.size());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getNotifications("not a cursor", 0, 4, null, null, null));
+        // Review cursors still require an ObjectId
+        String uuidCursor = KeysetCursor.encode(LocalDateTime.now(), UUID.randomUUID().toString());
+        KeysetCursor decoded = KeysetCursor.decode(uuidCursor);
+        assertThrows(IllegalArgumentException.class,
+                () -> decoded.after("createdAt", decoded.timeValue(), KeysetCursor::objectId));
+    }
+
+    private static StaffNotification notification(LocalDateTime createdAt) {
+        StaffNotification notification = new StaffNotification("Title", "Message", "LOW", "ORDER");
+        notification.setId(UUID.randomUUID().toString());
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+
+    /**
+     * The subset of the query language the listing produces: $and, $or, $lt and equality
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean matches(Document filter, StaffNotification notification) {
+        for (Map.Entry<String, Object> condition : filter.entrySet()) {
+            Object value = condition.getValue();
+            boolean matched = switch (condition.getKey()) {
+                case "$and" -> ((List<Document>) value).stream().allMatch(part -> matches(part, notification));
+                case "$or" -> ((List<Document>) value).stream().anyMatch(part -> matches(part, notification));
+                default -> {
+                    Comparable<Object> field = (Comparable<Object>) fieldOf(notification, condition.getKey());
+                    if (value instanceof Document operators) {
+                        assertEquals(Set.of("$lt"), operators.keySet());
+                        yield field.compareTo(operators.get("$lt")) < 0;
+                    }
+                    yield Objects.equals(field, value);
+                }
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object fieldOf(StaffNotification notification, String field) {
+        return switch (field) {
+            case "_id" -> notification.getId();
+            case "createdAt" -> notification.getCreatedAt();
+            case "type" -> notification.getType();
+            case "priority" -> notification.getPriority();
+            case "read" -> notification.isRead();
+            default -> throw new AssertionError("Unexpected field " + field);
+        };
+    }
+}